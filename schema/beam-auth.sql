@@ -21,7 +21,19 @@ CREATE SEQUENCE CONTROL_VERIFICATION_ID;
 
 DROP SEQUENCE VERIFICATION_HISTORY_ID;
 
-CREATE SEQUENCE VERIFICATION_HISTORY_ID;
+CREATE SEQUENCE VERIFICATION_HISTORY_ID INCREMENT BY 50;
+
+DROP SEQUENCE OUTBOX_MESSAGE_ID;
+
+CREATE SEQUENCE OUTBOX_MESSAGE_ID;
+
+DROP SEQUENCE SENT_NOTIFICATION_ID;
+
+CREATE SEQUENCE SENT_NOTIFICATION_ID;
+
+DROP TABLE SENT_NOTIFICATION CASCADE CONSTRAINTS PURGE;
+
+DROP TABLE OUTBOX_MESSAGE CASCADE CONSTRAINTS PURGE;
 
 DROP TABLE VERIFICATION_HISTORY CASCADE CONSTRAINTS PURGE;
 
@@ -31,6 +43,10 @@ DROP TABLE VERIFICATION CASCADE CONSTRAINTS PURGE;
 
 DROP TABLE CREDITED_CONTROL CASCADE CONSTRAINTS PURGE;
 
+DROP TABLE CURRENT_AUTHORIZATION CASCADE CONSTRAINTS PURGE;
+
+DROP TABLE DESTINATION_AUTH_CHANGE CASCADE CONSTRAINTS PURGE;
+
 DROP TABLE DESTINATION_AUTHORIZATION CASCADE CONSTRAINTS PURGE;
 
 DROP TABLE AUTHORIZATION CASCADE CONSTRAINTS PURGE;
@@ -64,6 +80,7 @@ CREATE TABLE DESTINATION_AUTHORIZATION
 	BEAM_DESTINATION_ID  INTEGER NOT NULL ,
 	AUTHORIZATION_ID     INTEGER NOT NULL ,
 	BEAM_MODE            VARCHAR2(16) NOT NULL  CONSTRAINT  DESTINATION_AUTHORIZATION_CK1 CHECK (BEAM_MODE IN ('Tune', 'CW', 'None')),
+	LASE_MODE            VARCHAR2(8) DEFAULT  'None'  NOT NULL  CONSTRAINT  DESTINATION_AUTHORIZATION_CK2 CHECK (LASE_MODE IN ('None', 'UV', 'IR')),
 	CW_LIMIT             NUMBER(24,12) NULL ,
 	COMMENTS             VARCHAR2(256) NULL ,
 	EXPIRATION_DATE      DATE NULL ,
@@ -71,6 +88,23 @@ CONSTRAINT  DESTINATION_AUTHORIZATION_PK PRIMARY KEY (BEAM_DESTINATION_ID,AUTHOR
 CONSTRAINT DESTINATION_AUTHORIZATION_FK1 FOREIGN KEY (AUTHORIZATION_ID) REFERENCES AUTHORIZATION (AUTHORIZATION_ID)
 );
 
+CREATE TABLE CURRENT_AUTHORIZATION
+(
+	CURRENT_AUTHORIZATION_ID INTEGER DEFAULT  1  NOT NULL  CONSTRAINT  CURRENT_AUTHORIZATION_CK1 CHECK (CURRENT_AUTHORIZATION_ID = 1),
+	AUTHORIZATION_ID     INTEGER NOT NULL ,
+CONSTRAINT  CURRENT_AUTHORIZATION_PK PRIMARY KEY (CURRENT_AUTHORIZATION_ID),
+CONSTRAINT CURRENT_AUTHORIZATION_FK1 FOREIGN KEY (AUTHORIZATION_ID) REFERENCES AUTHORIZATION (AUTHORIZATION_ID)
+);
+
+CREATE TABLE DESTINATION_AUTH_CHANGE
+(
+	BEAM_DESTINATION_ID  INTEGER NOT NULL ,
+	AUTHORIZATION_ID     INTEGER NOT NULL ,
+	MODIFIED_DATE        DATE NOT NULL ,
+CONSTRAINT  DESTINATION_AUTH_CHANGE_PK PRIMARY KEY (BEAM_DESTINATION_ID,AUTHORIZATION_ID),
+CONSTRAINT DESTINATION_AUTH_CHANGE_FK1 FOREIGN KEY (BEAM_DESTINATION_ID,AUTHORIZATION_ID) REFERENCES DESTINATION_AUTHORIZATION (BEAM_DESTINATION_ID,AUTHORIZATION_ID)
+);
+
 CREATE TABLE CREDITED_CONTROL
 (
 	CREDITED_CONTROL_ID  INTEGER NOT NULL ,
@@ -95,7 +129,7 @@ CREATE TABLE CONTROL_VERIFICATION
 	CONTROL_VERIFICATION_ID INTEGER NOT NULL ,
 	CREDITED_CONTROL_ID  INTEGER NULL ,
 	BEAM_DESTINATION_ID  INTEGER NOT NULL ,
-	VERIFICATION_ID      SMALLINT DEFAULT  'N'  NOT NULL  CONSTRAINT  CONTROL_VERIFICATION_CK1 CHECK (VERIFICATION_ID IN ('Y', 'N')),
+	VERIFICATION_ID      SMALLINT DEFAULT  100  NOT NULL ,
 	VERIFICATION_DATE    DATE NULL ,
 	VERIFIED_BY          INTEGER NULL ,
 	EXPIRATION_DATE      DATE NULL ,
@@ -123,6 +157,48 @@ CONSTRAINT VERIFICATION_HISTORY_FK1 FOREIGN KEY (CONTROL_VERIFICATION_ID) REFERE
 CONSTRAINT VERIFICATION_HISTORY_FK3 FOREIGN KEY (VERIFICATION_ID) REFERENCES VERIFICATION (VERIFICATION_ID) ON DELETE SET NULL
 );
 
+CREATE TABLE OUTBOX_MESSAGE
+(
+	OUTBOX_MESSAGE_ID    INTEGER NOT NULL ,
+	MESSAGE_TYPE         VARCHAR2(32 CHAR) NOT NULL ,
+	STATUS               VARCHAR2(16 CHAR) DEFAULT  'PENDING'  NOT NULL  CONSTRAINT  OUTBOX_MESSAGE_CK1 CHECK (STATUS IN ('PENDING', 'SENT', 'FAILED')),
+	AUTHOR               VARCHAR2(64 CHAR) NULL ,
+	BODY                 CLOB NULL ,
+	ATTEMPTS             INTEGER DEFAULT  0  NOT NULL ,
+	CREATED_DATE         DATE NOT NULL ,
+	NEXT_ATTEMPT_DATE    DATE NOT NULL ,
+	SENT_DATE            DATE NULL ,
+	LOG_ID               INTEGER NULL ,
+	LAST_ERROR           VARCHAR2(2048 CHAR) NULL ,
+	AUTHORIZATION_ID     INTEGER NULL ,
+CONSTRAINT  OUTBOX_MESSAGE_PK PRIMARY KEY (OUTBOX_MESSAGE_ID),
+CONSTRAINT OUTBOX_MESSAGE_FK1 FOREIGN KEY (AUTHORIZATION_ID) REFERENCES AUTHORIZATION (AUTHORIZATION_ID)
+);
+
+CREATE TABLE SENT_NOTIFICATION
+(
+	SENT_NOTIFICATION_ID INTEGER NOT NULL ,
+	RECIPIENT            VARCHAR2(64 CHAR) NOT NULL ,
+	EVENT_TYPE           VARCHAR2(32 CHAR) NOT NULL  CONSTRAINT  SENT_NOTIFICATION_CK1 CHECK (EVENT_TYPE IN ('AUTHORIZATION_EXPIRED', 'AUTHORIZATION_EXPIRING', 'VERIFICATION_EXPIRED', 'VERIFICATION_EXPIRING')),
+	ITEM_ID              INTEGER NOT NULL ,
+	EXPIRATION_DATE      DATE NOT NULL ,
+	SENT_DATE            DATE NOT NULL ,
+CONSTRAINT  SENT_NOTIFICATION_PK PRIMARY KEY (SENT_NOTIFICATION_ID),
+CONSTRAINT  SENT_NOTIFICATION_AK1 UNIQUE (RECIPIENT,EVENT_TYPE,ITEM_ID,EXPIRATION_DATE)
+);
+
+CREATE INDEX AUTHORIZATION_IX1 ON AUTHORIZATION (AUTHORIZATION_DATE, AUTHORIZATION_ID);
+
+CREATE INDEX AUTHORIZATION_IX2 ON AUTHORIZATION (MODIFIED_DATE, AUTHORIZATION_ID);
+
+CREATE INDEX DESTINATION_AUTH_CHANGE_IX1 ON DESTINATION_AUTH_CHANGE (BEAM_DESTINATION_ID, MODIFIED_DATE, AUTHORIZATION_ID);
+
+CREATE INDEX VERIFICATION_HISTORY_IX1 ON VERIFICATION_HISTORY (CONTROL_VERIFICATION_ID, VERIFICATION_HISTORY_ID);
+
+CREATE INDEX OUTBOX_MESSAGE_IX1 ON OUTBOX_MESSAGE (STATUS, NEXT_ATTEMPT_DATE);
+
+CREATE INDEX SENT_NOTIFICATION_IX1 ON SENT_NOTIFICATION (EXPIRATION_DATE);
+
 ALTER TABLE CONTROL_VERIFICATION ADD CONSTRAINT CONTROL_VERIFICATION_FK2 FOREIGN KEY (BEAM_DESTINATION_ID) REFERENCES hco_owner.BEAM_DESTINATION (BEAM_DESTINATION_ID) ON DELETE SET NULL;
 
 --ALTER TABLE CREDITED_CONTROL ADD CONSTRAINT CREDITED_CONTROL_FK1 FOREIGN KEY (WORKGROUP_ID) REFERENCES WORKGROUP (WORKGROUP_ID) ON DELETE SET NULL;
@@ -0,0 +1,80 @@
+-- Incremental changes to apply to an existing BEAM_AUTH_OWNER schema, in order.
+-- A fresh install should use beam-auth.sql instead.
+
+-- Notification outbox (emails and eLog entries delivered asynchronously)
+CREATE SEQUENCE OUTBOX_MESSAGE_ID;
+
+CREATE TABLE OUTBOX_MESSAGE
+(
+	OUTBOX_MESSAGE_ID    INTEGER NOT NULL ,
+	MESSAGE_TYPE         VARCHAR2(32 CHAR) NOT NULL ,
+	STATUS               VARCHAR2(16 CHAR) DEFAULT  'PENDING'  NOT NULL  CONSTRAINT  OUTBOX_MESSAGE_CK1 CHECK (STATUS IN ('PENDING', 'SENT', 'FAILED')),
+	AUTHOR               VARCHAR2(64 CHAR) NULL ,
+	BODY                 CLOB NULL ,
+	ATTEMPTS             INTEGER DEFAULT  0  NOT NULL ,
+	CREATED_DATE         DATE NOT NULL ,
+	NEXT_ATTEMPT_DATE    DATE NOT NULL ,
+	SENT_DATE            DATE NULL ,
+	LOG_ID               INTEGER NULL ,
+	LAST_ERROR           VARCHAR2(2048 CHAR) NULL ,
+CONSTRAINT  OUTBOX_MESSAGE_PK PRIMARY KEY (OUTBOX_MESSAGE_ID)
+);
+
+CREATE INDEX OUTBOX_MESSAGE_IX1 ON OUTBOX_MESSAGE (STATUS, NEXT_ATTEMPT_DATE);
+
+-- Keyset pagination of authorization and verification history
+CREATE INDEX AUTHORIZATION_IX1 ON AUTHORIZATION (AUTHORIZATION_DATE, AUTHORIZATION_ID);
+
+CREATE INDEX VERIFICATION_HISTORY_IX1 ON VERIFICATION_HISTORY (CONTROL_VERIFICATION_ID, VERIFICATION_HISTORY_ID);
+
+-- Verification history IDs are allocated 50 at a time, one fetch per insert batch (must match allocationSize in VerificationHistory)
+ALTER SEQUENCE VERIFICATION_HISTORY_ID INCREMENT BY 50;
+
+-- Point-in-time authorization lookup and current authorization (both by modified date)
+CREATE INDEX AUTHORIZATION_IX2 ON AUTHORIZATION (MODIFIED_DATE, AUTHORIZATION_ID);
+
+-- Per-destination authorization change timeline (backfilled by the application on first start)
+CREATE TABLE DESTINATION_AUTH_CHANGE
+(
+	BEAM_DESTINATION_ID  INTEGER NOT NULL ,
+	AUTHORIZATION_ID     INTEGER NOT NULL ,
+	MODIFIED_DATE        DATE NOT NULL ,
+CONSTRAINT  DESTINATION_AUTH_CHANGE_PK PRIMARY KEY (BEAM_DESTINATION_ID,AUTHORIZATION_ID),
+CONSTRAINT DESTINATION_AUTH_CHANGE_FK1 FOREIGN KEY (BEAM_DESTINATION_ID,AUTHORIZATION_ID) REFERENCES DESTINATION_AUTHORIZATION (BEAM_DESTINATION_ID,AUTHORIZATION_ID)
+);
+
+CREATE INDEX DESTINATION_AUTH_CHANGE_IX1 ON DESTINATION_AUTH_CHANGE (BEAM_DESTINATION_ID, MODIFIED_DATE, AUTHORIZATION_ID);
+
+-- Pointer to the current authorization (replaces sorting AUTHORIZATION by modified date)
+CREATE TABLE CURRENT_AUTHORIZATION
+(
+	CURRENT_AUTHORIZATION_ID INTEGER DEFAULT  1  NOT NULL  CONSTRAINT  CURRENT_AUTHORIZATION_CK1 CHECK (CURRENT_AUTHORIZATION_ID = 1),
+	AUTHORIZATION_ID     INTEGER NOT NULL ,
+CONSTRAINT  CURRENT_AUTHORIZATION_PK PRIMARY KEY (CURRENT_AUTHORIZATION_ID),
+CONSTRAINT CURRENT_AUTHORIZATION_FK1 FOREIGN KEY (AUTHORIZATION_ID) REFERENCES AUTHORIZATION (AUTHORIZATION_ID)
+);
+
+INSERT INTO CURRENT_AUTHORIZATION (CURRENT_AUTHORIZATION_ID, AUTHORIZATION_ID)
+SELECT 1, AUTHORIZATION_ID FROM (SELECT AUTHORIZATION_ID FROM AUTHORIZATION ORDER BY MODIFIED_DATE DESC, AUTHORIZATION_ID DESC) WHERE ROWNUM <= 1;
+
+COMMIT;
+
+-- Expiration notices already sent to each recipient (so the daily sweep only emails what is new)
+CREATE SEQUENCE SENT_NOTIFICATION_ID;
+
+CREATE TABLE SENT_NOTIFICATION
+(
+	SENT_NOTIFICATION_ID INTEGER NOT NULL ,
+	RECIPIENT            VARCHAR2(64 CHAR) NOT NULL ,
+	EVENT_TYPE           VARCHAR2(32 CHAR) NOT NULL  CONSTRAINT  SENT_NOTIFICATION_CK1 CHECK (EVENT_TYPE IN ('AUTHORIZATION_EXPIRED', 'AUTHORIZATION_EXPIRING', 'VERIFICATION_EXPIRED', 'VERIFICATION_EXPIRING')),
+	ITEM_ID              INTEGER NOT NULL ,
+	EXPIRATION_DATE      DATE NOT NULL ,
+	SENT_DATE            DATE NOT NULL ,
+CONSTRAINT  SENT_NOTIFICATION_PK PRIMARY KEY (SENT_NOTIFICATION_ID),
+CONSTRAINT  SENT_NOTIFICATION_AK1 UNIQUE (RECIPIENT,EVENT_TYPE,ITEM_ID,EXPIRATION_DATE)
+);
+
+CREATE INDEX SENT_NOTIFICATION_IX1 ON SENT_NOTIFICATION (EXPIRATION_DATE);
+
+-- Authorization an outbox message is about (so a retried eLog posts the authorization that was saved)
+ALTER TABLE OUTBOX_MESSAGE ADD (AUTHORIZATION_ID INTEGER NULL CONSTRAINT OUTBOX_MESSAGE_FK1 REFERENCES AUTHORIZATION (AUTHORIZATION_ID));
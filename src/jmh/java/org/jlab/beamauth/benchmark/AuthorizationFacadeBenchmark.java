@@ -0,0 +1,57 @@
+package org.jlab.beamauth.benchmark;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jlab.beamauth.business.session.AuthorizationFacade;
+import org.jlab.beamauth.persistence.entity.Authorization;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading the current director's authorization, which every permissions page
+ * view and expiration check does.
+ *
+ * @author ryans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizationFacadeBenchmark {
+
+    @Benchmark
+    public Authorization findCurrent(FacadeState state) {
+        try {
+            return state.getFacade(AuthorizationFacade.class).findCurrent();
+        } finally {
+            state.reset();
+        }
+    }
+
+    /**
+     * The current authorization and its destination authorizations keyed by
+     * destination, as the permissions page uses them.
+     *
+     * @param state The database
+     * @return The map
+     */
+    @Benchmark
+    public Map<BigInteger, DestinationAuthorization> createDestinationAuthorizationMap(
+            FacadeState state) {
+        AuthorizationFacade facade = state.getFacade(AuthorizationFacade.class);
+
+        try {
+            return facade.createDestinationAuthorizationMap(facade.findCurrent());
+        } finally {
+            state.reset();
+        }
+    }
+}
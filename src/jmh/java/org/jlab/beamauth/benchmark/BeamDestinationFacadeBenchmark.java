@@ -0,0 +1,36 @@
+package org.jlab.beamauth.benchmark;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.jlab.beamauth.business.session.BeamDestinationFacade;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A destination with its control verifications, as shown on the destination
+ * detail page.
+ *
+ * @author ryans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeamDestinationFacadeBenchmark {
+
+    @Benchmark
+    public BeamDestination findWithVerificationList(FacadeState state) {
+        try {
+            return state.getFacade(BeamDestinationFacade.class).findWithVerificationList(BigInteger.ONE);
+        } finally {
+            state.reset();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.jlab.beamauth.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.jlab.beamauth.business.session.ControlVerificationFacade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The daily expiration check: find expired director's authorizations and
+ * control verifications, revoke them (cloning the current authorization),
+ * and look for upcoming expirations. Each invocation runs in a transaction
+ * that is flushed and then rolled back so the same expirations are found
+ * every time. Email delivery is not configured so notifications are only
+ * composed.
+ *
+ * @author ryans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControlVerificationFacadeBenchmark {
+
+    @Benchmark
+    public void performExpirationCheck(FacadeState state) {
+        EntityManager em = state.getEntityManager();
+
+        em.getTransaction().begin();
+
+        try {
+            state.getFacade(ControlVerificationFacade.class).performExpirationCheck(true);
+            em.flush();
+        } finally {
+            state.reset();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.jlab.beamauth.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jlab.beamauth.business.session.CreditedControlFacade;
+import org.jlab.beamauth.persistence.entity.CreditedControl;
+import org.jlab.beamauth.persistence.model.ParticipationMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The control participation grid, loaded by initializing each control's
+ * verification list and by the three query participation matrix.
+ *
+ * @author ryans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditedControlFacadeBenchmark {
+
+    @Benchmark
+    public List<CreditedControl> findAllWithVerificationList(FacadeState state) {
+        try {
+            return state.getFacade(CreditedControlFacade.class).findAllWithVerificationList();
+        } finally {
+            state.reset();
+        }
+    }
+
+    @Benchmark
+    public ParticipationMatrix findParticipationMatrix(FacadeState state) {
+        try {
+            return state.getFacade(CreditedControlFacade.class).findParticipationMatrix();
+        } finally {
+            state.reset();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package org.jlab.beamauth.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/**
+ * An in-memory H2 database in Oracle compatibility mode with the
+ * BEAM_AUTH_OWNER schema created from schema/beam-auth.sql and seeded with a
+ * configurable amount of synthetic data.
+ * <p>
+ * Oracle-only statements in the DDL script (tablespace, user, grants, and
+ * drops) are skipped. Tables owned by other schemas are created from
+ * external-tables.sql first. The sample destinations in the script are
+ * replaced with generated ones; the script's credited controls, which the
+ * generated ones are added to, set the minimum control count.
+ * </p>
+ *
+ * @author ryans
+ */
+public class EmbeddedDatabase {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            EmbeddedDatabase.class.getName());
+
+    private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger();
+    private static final Pattern ORACLE_ONLY = Pattern.compile(
+            "^(CREATE\\s+TABLESPACE|CREATE\\s+USER|GRANT|DROP)\\b.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final int BATCH_SIZE = 1000;
+    private static final int GROUP_COUNT = 12;
+    private static final int STAFF_COUNT = 50;
+
+    private final String url;
+    private final Connection connection; // Keeps the in-memory database open
+
+    public EmbeddedDatabase() throws SQLException {
+        url = "jdbc:h2:mem:beamauth" + INSTANCE_COUNT.incrementAndGet()
+                + ";MODE=Oracle;DB_CLOSE_DELAY=-1"
+                + ";INIT=CREATE SCHEMA IF NOT EXISTS BEAM_AUTH_OWNER\\;SET SCHEMA BEAM_AUTH_OWNER";
+        connection = DriverManager.getConnection(url, "sa", "");
+    }
+
+    /**
+     * Creates the schema and seeds it.
+     *
+     * @param destinations The number of active beam destinations
+     * @param controls The number of credited controls
+     * @param authorizations The number of director's authorizations (history
+     * depth)
+     * @throws IOException If a DDL script is unable to be read
+     * @throws SQLException If unable to execute the DDL or insert the data
+     */
+    public void load(int destinations, int controls, int authorizations) throws IOException,
+            SQLException {
+        try (InputStream in = EmbeddedDatabase.class.getResourceAsStream(
+                "/external-tables.sql")) {
+            execute(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        String schemaPath = System.getProperty("beamauth.schema", "schema/beam-auth.sql");
+
+        try (Reader reader = Files.newBufferedReader(Paths.get(schemaPath),
+                StandardCharsets.UTF_8)) {
+            execute(reader);
+        }
+
+        connection.setAutoCommit(false);
+
+        try {
+            seed(destinations, controls, authorizations);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public EntityManagerFactory createEntityManagerFactory() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+        properties.put("javax.persistence.jdbc.url", url);
+        properties.put("javax.persistence.jdbc.user", "sa");
+        properties.put("javax.persistence.jdbc.password", "");
+
+        return Persistence.createEntityManagerFactory("beam-authorization-benchmarkPU",
+                properties);
+    }
+
+    public void close() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void execute(Reader reader) throws IOException, SQLException {
+        for (String sql : split(reader)) {
+            if (ORACLE_ONLY.matcher(sql).matches()) {
+                LOGGER.log(Level.FINEST, "Skipping: {0}", sql);
+                continue;
+            }
+
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(sql);
+            } catch (SQLException e) {
+                throw new SQLException("Unable to execute: " + sql, e);
+            }
+        }
+    }
+
+    private List<String> split(Reader reader) throws IOException {
+        List<String> statementList = new ArrayList<>();
+        StringBuilder builder = new StringBuilder();
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+
+        while ((line = br.readLine()) != null) {
+            String trimmed = line.trim();
+
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+
+            if (trimmed.endsWith(";")) {
+                builder.append(trimmed, 0, trimmed.length() - 1);
+                statementList.add(builder.toString().trim());
+                builder.setLength(0);
+            } else {
+                builder.append(line).append('\n');
+            }
+        }
+
+        if (builder.toString().trim().length() > 0) {
+            statementList.add(builder.toString().trim());
+        }
+
+        return statementList;
+    }
+
+    private void seed(int destinations, int controls, int authorizations) throws SQLException {
+        long now = System.currentTimeMillis();
+
+        insertStaffAndGroups();
+        insertDestinations(destinations);
+        insertControls(controls);
+        int verificationCount = insertControlVerifications(destinations, controls, now);
+        insertAuthorizations(destinations, authorizations, now);
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER SEQUENCE AUTHORIZATION_ID RESTART WITH " + (authorizations + 1));
+            stmt.execute("ALTER SEQUENCE CONTROL_VERIFICATION_ID RESTART WITH "
+                    + (verificationCount + 1));
+        }
+
+        LOGGER.log(Level.INFO,
+                "Seeded {0} destinations, {1} controls, {2} verifications, {3} authorizations",
+                new Object[]{destinations, controls, verificationCount, authorizations});
+    }
+
+    private void insertStaffAndGroups() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "insert into SUPPORT.STAFF (STAFF_ID, USERNAME, FIRSTNAME, LASTNAME) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= STAFF_COUNT; i++) {
+                stmt.setInt(1, i);
+                stmt.setString(2, "user" + i);
+                stmt.setString(3, "First" + i);
+                stmt.setString(4, "Last" + i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement workgroupStmt = connection.prepareStatement(
+                "insert into SUPPORT.WORKGROUP (WORKGROUP_ID, NAME) values (?, ?)");
+                PreparedStatement membershipStmt = connection.prepareStatement(
+                        "insert into SUPPORT.WORKGROUP_MEMBERSHIP (WORKGROUP_ID, STAFF_ID) values (?, ?)");
+                PreparedStatement groupStmt = connection.prepareStatement(
+                        "insert into HCO_OWNER.RESPONSIBLE_GROUP (GROUP_ID, NAME, DESCRIPTION, LEADER_WORKGROUP_ID) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= GROUP_COUNT; i++) {
+                workgroupStmt.setInt(1, i);
+                workgroupStmt.setString(2, "Workgroup " + i);
+                workgroupStmt.addBatch();
+
+                membershipStmt.setInt(1, i);
+                membershipStmt.setInt(2, i);
+                membershipStmt.addBatch();
+                membershipStmt.setInt(1, i);
+                membershipStmt.setInt(2, i + GROUP_COUNT);
+                membershipStmt.addBatch();
+
+                groupStmt.setInt(1, i);
+                groupStmt.setString(2, "Group " + i);
+                groupStmt.setString(3, null);
+                groupStmt.setInt(4, i);
+                groupStmt.addBatch();
+            }
+            workgroupStmt.executeBatch();
+            membershipStmt.executeBatch();
+            groupStmt.executeBatch();
+        }
+    }
+
+    private void insertDestinations(int destinations) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("delete from BEAM_AUTH_DESTINATION");
+        }
+
+        try (PreparedStatement destinationStmt = connection.prepareStatement(
+                "insert into HCO_OWNER.BEAM_DESTINATION (BEAM_DESTINATION_ID, NAME, WEIGHT) values (?, ?, ?)");
+                PreparedStatement authDestinationStmt = connection.prepareStatement(
+                        "insert into BEAM_AUTH_DESTINATION (BEAM_DESTINATION_ID, MACHINE, CURRENT_LIMIT_UNITS, DISPLAY_NAME, ACTIVE_YN) values (?, ?, ?, ?, 'Y')")) {
+            for (int i = 1; i <= destinations; i++) {
+                String machine = (i % 7 == 0) ? "UITF" : (i % 5 == 0) ? "LERF" : "CEBAF";
+
+                destinationStmt.setInt(1, i);
+                destinationStmt.setString(2, "Destination " + i);
+                destinationStmt.setInt(3, i);
+                destinationStmt.addBatch();
+
+                authDestinationStmt.setInt(1, i);
+                authDestinationStmt.setString(2, machine);
+                authDestinationStmt.setString(3, "LERF".equals(machine) ? "mA" : "uA");
+                authDestinationStmt.setString(4, null);
+                authDestinationStmt.addBatch();
+            }
+            destinationStmt.executeBatch();
+            authDestinationStmt.executeBatch();
+        }
+    }
+
+    private void insertControls(int controls) throws SQLException {
+        int existing;
+
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(
+                "select nvl(max(CREDITED_CONTROL_ID), 0) from CREDITED_CONTROL")) {
+            rs.next();
+            existing = rs.getInt(1);
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "insert into CREDITED_CONTROL (CREDITED_CONTROL_ID, NAME, DESCRIPTION, GROUP_ID, WEIGHT, VERIFICATION_FREQUENCY) values (?, ?, ?, ?, ?, '1 Year')")) {
+            for (int i = existing + 1; i <= controls; i++) {
+                stmt.setInt(1, i);
+                stmt.setString(2, "Control " + i);
+                stmt.setString(3, "Generated credited control " + i);
+                stmt.setInt(4, (i % GROUP_COUNT) + 1);
+                stmt.setInt(5, i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts a verification for roughly two thirds of the control and
+     * destination pairs. Most are verified with an expiration spread over
+     * the next year, a few percent have already expired, and some are
+     * provisionally verified or not verified.
+     */
+    private int insertControlVerifications(int destinations, int controls, long now) throws
+            SQLException {
+        int id = 0;
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "insert into CONTROL_VERIFICATION (CONTROL_VERIFICATION_ID, CREDITED_CONTROL_ID, BEAM_DESTINATION_ID, VERIFICATION_ID, VERIFICATION_DATE, VERIFIED_BY, EXPIRATION_DATE, COMMENTS, MODIFIED_BY, MODIFIED_DATE) values (?, ?, ?, ?, ?, ?, ?, ?, 1, ?)")) {
+            for (int c = 1; c <= controls; c++) {
+                for (int d = 1; d <= destinations; d++) {
+                    if ((c + d) % 3 == 0) {
+                        continue;
+                    }
+
+                    int bucket = (c * 7 + d) % 10;
+                    int verificationId = bucket < 7 ? 1 : bucket < 9 ? 50 : 100;
+                    Timestamp verified = new Timestamp(now - 30 * DAY_MILLIS);
+                    Timestamp expiration = null;
+
+                    if (verificationId != 100) {
+                        expiration = new Timestamp(now + ((c * 31 + d * 17) % 400 - 20)
+                                * DAY_MILLIS);
+                    }
+
+                    stmt.setInt(1, ++id);
+                    stmt.setInt(2, c);
+                    stmt.setInt(3, d);
+                    stmt.setInt(4, verificationId);
+                    stmt.setTimestamp(5, verified);
+                    stmt.setObject(6, verificationId == 100 ? null : 1);
+                    stmt.setTimestamp(7, expiration);
+                    stmt.setString(8, "Generated");
+                    stmt.setTimestamp(9, verified);
+                    stmt.addBatch();
+
+                    if (id % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+            }
+            stmt.executeBatch();
+        }
+
+        return id;
+    }
+
+    /**
+     * Inserts one authorization per hour up to now, each with a destination
+     * authorization for every destination. In the current (most recent)
+     * authorization one in ten permitted destinations has expired. The current
+     * authorization pointer is set to the most recent.
+     */
+    private void insertAuthorizations(int destinations, int authorizations, long now) throws
+            SQLException {
+        int rows = 0;
+
+        try (PreparedStatement authorizationStmt = connection.prepareStatement(
+                "insert into AUTHORIZATION (AUTHORIZATION_ID, MODIFIED_DATE, MODIFIED_BY, AUTHORIZATION_DATE, AUTHORIZED_BY, COMMENTS) values (?, ?, 1, ?, 1, ?)");
+                PreparedStatement destinationStmt = connection.prepareStatement(
+                        "insert into DESTINATION_AUTHORIZATION (BEAM_DESTINATION_ID, AUTHORIZATION_ID, BEAM_MODE, LASE_MODE, CW_LIMIT, COMMENTS, EXPIRATION_DATE) values (?, ?, ?, 'None', ?, ?, ?)")) {
+            for (int a = 1; a <= authorizations; a++) {
+                long authorized = now - (authorizations - a) * HOUR_MILLIS;
+
+                authorizationStmt.setInt(1, a);
+                authorizationStmt.setTimestamp(2, new Timestamp(authorized));
+                authorizationStmt.setTimestamp(3, new Timestamp(authorized));
+                authorizationStmt.setString(4, "Generated authorization " + a);
+                authorizationStmt.addBatch();
+
+                for (int d = 1; d <= destinations; d++) {
+                    String beamMode = d % 3 == 0 ? "None" : d % 3 == 1 ? "CW" : "Tune";
+                    boolean permitted = !"None".equals(beamMode);
+                    Timestamp expiration = null;
+
+                    if (permitted) {
+                        boolean expired = a == authorizations && d % 10 == 1;
+                        expiration = new Timestamp(expired ? now - DAY_MILLIS : authorized + 30
+                                * DAY_MILLIS);
+                    }
+
+                    destinationStmt.setInt(1, d);
+                    destinationStmt.setInt(2, a);
+                    destinationStmt.setString(3, beamMode);
+                    destinationStmt.setObject(4, permitted ? 10 : null);
+                    destinationStmt.setString(5, null);
+                    destinationStmt.setTimestamp(6, expiration);
+                    destinationStmt.addBatch();
+
+                    if (++rows % BATCH_SIZE == 0) {
+                        authorizationStmt.executeBatch();
+                        destinationStmt.executeBatch();
+                    }
+                }
+            }
+            authorizationStmt.executeBatch();
+            destinationStmt.executeBatch();
+        }
+
+        if (authorizations > 0) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(
+                        "insert into CURRENT_AUTHORIZATION (CURRENT_AUTHORIZATION_ID, AUTHORIZATION_ID) values (1, "
+                        + authorizations + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.jlab.beamauth.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import javax.ejb.EJB;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+
+/**
+ * Creates the business facades outside of the container and wires the
+ * fields the container would inject: the entity manager, the entity manager
+ * factory, other beans (one instance of each, cycles allowed), and event
+ * channels. Security context, timer service, and interceptors are not
+ * provided so only methods that do not depend on them can be benchmarked.
+ *
+ * @author ryans
+ */
+public class FacadeInjector {
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+    private final Map<Class<?>, Object> beanMap = new HashMap<>();
+
+    public FacadeInjector(EntityManagerFactory emf, EntityManager em) {
+        this.emf = emf;
+        this.em = em;
+    }
+
+    public <T> T get(Class<T> type) {
+        Object bean = beanMap.get(type);
+
+        if (bean == null) {
+            try {
+                bean = type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to create " + type.getName(), e);
+            }
+
+            beanMap.put(type, bean);
+
+            inject(bean);
+        }
+
+        return type.cast(bean);
+    }
+
+    private void inject(Object bean) {
+        for (Class<?> c = bean.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                Object value = null;
+
+                if (field.isAnnotationPresent(PersistenceContext.class)) {
+                    value = em;
+                } else if (field.isAnnotationPresent(PersistenceUnit.class)) {
+                    value = emf;
+                } else if (field.isAnnotationPresent(EJB.class)) {
+                    value = get(field.getType());
+                } else if (field.isAnnotationPresent(Inject.class)
+                        && field.getType() == Event.class) {
+                    value = new NoopEvent<>();
+                }
+
+                if (value != null) {
+                    field.setAccessible(true);
+
+                    try {
+                        field.set(bean, value);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Unable to inject " + field, e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.jlab.beamauth.benchmark;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A seeded embedded database and an entity manager shared by the facades
+ * under test, with the data sizes as benchmark parameters.
+ *
+ * @author ryans
+ */
+@State(Scope.Thread)
+public class FacadeState {
+
+    /**
+     * Number of active beam destinations.
+     */
+    @Param({"10", "50"})
+    public int destinations;
+    /**
+     * Number of credited controls (at least the 15 in beam-auth.sql).
+     */
+    @Param({"15", "60"})
+    public int controls;
+    /**
+     * Number of director's authorizations, each with a destination
+     * authorization per destination.
+     */
+    @Param({"100", "1000"})
+    public int authorizations;
+
+    private EmbeddedDatabase database;
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private FacadeInjector injector;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = new EmbeddedDatabase();
+        database.load(destinations, controls, authorizations);
+
+        emf = database.createEntityManagerFactory();
+        em = emf.createEntityManager();
+        injector = new FacadeInjector(emf, em);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (em != null) {
+            em.close();
+        }
+
+        if (emf != null) {
+            emf.close();
+        }
+
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    public <T> T getFacade(Class<T> type) {
+        return injector.get(type);
+    }
+
+    public EntityManager getEntityManager() {
+        return em;
+    }
+
+    /**
+     * Discards the persistence context (and rolls back any changes) so that
+     * each invocation loads from the database.
+     */
+    public void reset() {
+        EntityTransaction tx = em.getTransaction();
+
+        if (tx.isActive()) {
+            tx.rollback();
+        }
+
+        em.clear();
+    }
+}
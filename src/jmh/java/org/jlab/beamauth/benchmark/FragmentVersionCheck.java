@@ -0,0 +1,165 @@
+package org.jlab.beamauth.benchmark;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.jlab.beamauth.business.session.AuthorizationCache;
+import org.jlab.beamauth.business.session.PermissionsVersion;
+import org.jlab.beamauth.business.session.RenderedFragmentCache;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.DataVersion;
+import org.jlab.beamauth.persistence.model.DestinationAuthorizationSnapshot;
+import org.jlab.beamauth.presentation.util.BeamAuthFunctions;
+
+/**
+ * Checks that a destination permissions fragment cached at a data version
+ * (see PermissionsVersion) is re-rendered when an "(Expiring Soon)" label
+ * changes with the time of day alone. Two destination authorizations of the
+ * current authorization are given beam mode None (like a revocation clone,
+ * which keeps its expiration): one enters the two day window and the other
+ * expires a few seconds later. The fragment is rendered with the label test
+ * of destination-permissions-table.tag; the process exits with status 1 if
+ * the version does not change or a stale fragment is served.
+ *
+ * @author ryans
+ */
+public class FragmentVersionCheck {
+
+    private static final String KEY = "CEBAF";
+    private static final long CROSSING_DELAY_MILLIS = 5000;
+
+    private static AuthorizationCache authorizationCache;
+    private static PermissionsVersion permissionsVersion;
+    private static RenderedFragmentCache fragmentCache;
+
+    public static void main(String[] args) throws IOException, SQLException,
+            InterruptedException {
+        EmbeddedDatabase database = new EmbeddedDatabase();
+        database.load(10, 15, 3);
+
+        EntityManagerFactory emf = database.createEntityManagerFactory();
+        EntityManager em = emf.createEntityManager();
+
+        boolean passed;
+
+        try {
+            FacadeInjector injector = new FacadeInjector(emf, em);
+            authorizationCache = injector.get(AuthorizationCache.class);
+            permissionsVersion = injector.get(PermissionsVersion.class);
+            fragmentCache = injector.get(RenderedFragmentCache.class);
+
+            long crossing = System.currentTimeMillis() + CROSSING_DELAY_MILLIS;
+
+            revokeWithExpirations(em, new Date(twoDaysAfter(crossing)), new Date(crossing));
+
+            DataVersion before = permissionsVersion.getVersion();
+            boolean renderedBefore = serve(before);
+            boolean cachedBefore = !serve(permissionsVersion.getVersion());
+
+            Thread.sleep(crossing - System.currentTimeMillis() + 1000);
+
+            DataVersion after = permissionsVersion.getVersion();
+            boolean renderedAfter = serve(after);
+
+            boolean changed = !before.getToken().equals(after.getToken());
+
+            System.out.println("Rendered at first version: " + renderedBefore);
+            System.out.println("Served from cache while unchanged: " + cachedBefore);
+            System.out.println("Version changed at window crossing: " + changed + " ("
+                    + before.getToken() + " -> " + after.getToken() + ")");
+            System.out.println("Re-rendered after crossing: " + renderedAfter);
+
+            passed = renderedBefore && cachedBefore && changed && renderedAfter;
+        } finally {
+            em.close();
+            emf.close();
+            database.close();
+        }
+
+        System.out.println(passed ? "OK" : "FAILED");
+
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Sets beam mode None on the first two destination authorizations of the
+     * current authorization with the given expirations.
+     */
+    private static void revokeWithExpirations(EntityManager em, Date entering, Date leaving) {
+        List<BigInteger> destinationIdList = new ArrayList<>(
+                authorizationCache.getSnapshot().getDestinationAuthorizationMap().keySet());
+
+        em.getTransaction().begin();
+
+        int i = 0;
+
+        for (Date expiration : new Date[]{entering, leaving}) {
+            em.createNativeQuery(
+                    "update DESTINATION_AUTHORIZATION set BEAM_MODE = 'None', CW_LIMIT = null, EXPIRATION_DATE = ? where AUTHORIZATION_ID = (select AUTHORIZATION_ID from CURRENT_AUTHORIZATION) and BEAM_DESTINATION_ID = ?")
+                    .setParameter(1, expiration).setParameter(2, destinationIdList.get(i++))
+                    .executeUpdate();
+        }
+
+        em.getTransaction().commit();
+        em.clear();
+
+        authorizationCache.observeAuthorizationChange(null); // As if committed through a facade
+    }
+
+    /**
+     * Writes the fragment the way CachedFragmentTag does.
+     *
+     * @return true if rendered, false if served from the cache
+     * @throws IllegalStateException If the served fragment is stale
+     */
+    private static boolean serve(DataVersion version) {
+        String fragment = fragmentCache.get(version.getToken(), KEY);
+        boolean rendered = fragment == null;
+
+        if (rendered) {
+            fragment = render();
+            fragmentCache.put(version.getToken(), KEY, fragment);
+        }
+
+        if (!fragment.equals(render())) {
+            throw new IllegalStateException("Stale fragment served at version "
+                    + version.getToken());
+        }
+
+        return rendered;
+    }
+
+    private static String render() {
+        AuthorizationSnapshot authorization = authorizationCache.getSnapshot();
+        Map<BigInteger, String> labelMap = new TreeMap<>();
+
+        for (DestinationAuthorizationSnapshot da : authorization.getDestinationAuthorizationMap()
+                .values()) {
+            Date expiration = da.getExpirationDate();
+
+            boolean expiringSoon = expiration != null && expiration.getTime()
+                    > BeamAuthFunctions.now().getTime() && expiration.getTime()
+                    < BeamAuthFunctions.twoDaysFromNow().getTime();
+
+            labelMap.put(da.getBeamDestinationId(), da.getBeamMode() + (expiringSoon
+                    ? " (Expiring Soon)" : ""));
+        }
+
+        return labelMap.toString();
+    }
+
+    private static long twoDaysAfter(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        cal.add(Calendar.DATE, 2);
+        return cal.getTimeInMillis();
+    }
+}
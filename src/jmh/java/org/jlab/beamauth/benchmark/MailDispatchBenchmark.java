@@ -0,0 +1,61 @@
+package org.jlab.beamauth.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import org.jlab.beamauth.business.util.SmtpTransportPool.Delivery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sending a batch of notification emails to the SMTP stand-in one at a time
+ * with a new connection each (as EmailService did) versus concurrently over
+ * the pooled connections of SmtpTransportPool.
+ *
+ * @author ryans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MailDispatchBenchmark {
+
+    @Benchmark
+    public int serialNewConnection(MailState state) throws MessagingException {
+        for (MimeMessage message : state.messageList) {
+            Transport.send(message);
+        }
+
+        return state.messageList.size();
+    }
+
+    @Benchmark
+    public int pooled(MailState state) throws InterruptedException {
+        List<Delivery> deliveryList = state.pool.sendAll(state.messageList, state.executor);
+
+        for (Delivery delivery : deliveryList) {
+            if (!delivery.isSuccess()) {
+                throw new IllegalStateException(delivery.getError());
+            }
+        }
+
+        return deliveryList.size();
+    }
+
+    @Benchmark
+    public int pooledClosedAfterBatch(MailState state) throws InterruptedException {
+        int sent = pooled(state);
+
+        state.pool.closeIdle(); // As MailDispatcher does, so each batch reconnects
+
+        return sent;
+    }
+}
@@ -0,0 +1,88 @@
+package org.jlab.beamauth.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import org.jlab.beamauth.business.util.SmtpTransportPool;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * An in-process SMTP stand-in, a mail session pointing at it, and one
+ * notification email per group, as the midnight sweep sends.
+ *
+ * @author ryans
+ */
+@State(Scope.Thread)
+public class MailState {
+
+    /**
+     * Number of emails (responsible groups plus admins and ops).
+     */
+    @Param({"5", "20"})
+    public int messages;
+    /**
+     * Simulated server latency of a connection (greeting) and of each
+     * message in millis.
+     */
+    @Param({"10"})
+    public int latencyMillis;
+    /**
+     * Number of pooled SMTP connections.
+     */
+    @Param({"3"})
+    public int connections;
+
+    public Session session;
+    public List<MimeMessage> messageList;
+    public SmtpTransportPool pool;
+    public ExecutorService executor;
+
+    private SmtpStandIn server;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, MessagingException {
+        server = new SmtpStandIn(latencyMillis, latencyMillis);
+
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "localhost");
+        properties.setProperty("mail.smtp.port", String.valueOf(server.getPort()));
+
+        session = Session.getInstance(properties);
+
+        messageList = new ArrayList<>();
+
+        for (int i = 0; i < messages; i++) {
+            MimeMessage message = new MimeMessage(session);
+            message.setFrom(new InternetAddress("sender@example.org"));
+            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(
+                    "leader" + i + "@example.org"));
+            message.setSubject("Expiring soon");
+            message.setContent("<h1>--- Credited Control Verifications Expiring Soon ---</h1>",
+                    "text/html; charset=UTF-8");
+            messageList.add(message);
+        }
+
+        pool = new SmtpTransportPool(session, connections);
+        executor = Executors.newFixedThreadPool(connections);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.closeIdle();
+        executor.shutdownNow();
+        server.close();
+    }
+}
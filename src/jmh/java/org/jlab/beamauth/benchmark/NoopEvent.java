@@ -0,0 +1,48 @@
+package org.jlab.beamauth.benchmark;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.NotificationOptions;
+import javax.enterprise.util.TypeLiteral;
+
+/**
+ * Stands in for the CDI event channels injected into the facades; there are
+ * no observers outside of the container.
+ *
+ * @author ryans
+ * @param <T> The event type
+ */
+public class NoopEvent<T> implements Event<T> {
+
+    @Override
+    public void fire(T event) {
+        // No observers
+    }
+
+    @Override
+    public <U extends T> CompletionStage<U> fireAsync(U event) {
+        return CompletableFuture.completedFuture(event);
+    }
+
+    @Override
+    public <U extends T> CompletionStage<U> fireAsync(U event, NotificationOptions options) {
+        return CompletableFuture.completedFuture(event);
+    }
+
+    @Override
+    public Event<T> select(Annotation... qualifiers) {
+        return this;
+    }
+
+    @Override
+    public <U extends T> Event<U> select(Class<U> subtype, Annotation... qualifiers) {
+        return new NoopEvent<>();
+    }
+
+    @Override
+    public <U extends T> Event<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+        return new NoopEvent<>();
+    }
+}
@@ -0,0 +1,152 @@
+package org.jlab.beamauth.benchmark;
+
+import java.math.BigInteger;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.jlab.beamauth.business.util.NotificationBodies;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.entity.ControlVerification;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.presentation.util.BeamAuthFunctions;
+import org.jlab.smoothness.business.util.IOUtil;
+import org.jlab.smoothness.business.util.TimeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The expired / expiring soon notification body, built by NotificationBodies
+ * (shared java.time formatter) and by the code it replaced (a SimpleDateFormat
+ * per body, kept here as the baseline).
+ *
+ * @author ryans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationBodyBenchmark {
+
+    @Benchmark
+    public String buildExpiredMessage(NotificationState state) {
+        return NotificationBodies.buildExpiredMessage("localhost", state.destinationMap,
+                state.expiredAuthorizationList, state.expiredVerificationList,
+                state.upcomingAuthorizationList, state.upcomingVerificationList);
+    }
+
+    @Benchmark
+    public String buildExpiredMessageBaseline(NotificationState state) {
+        return buildExpiredMessageBaseline("localhost", state.destinationMap,
+                state.expiredAuthorizationList, state.expiredVerificationList,
+                state.upcomingAuthorizationList, state.upcomingVerificationList);
+    }
+
+    /**
+     * The previous ControlVerificationFacade.getExpiredMessageBody; the
+     * destination comes from the map as it would from the persistence
+     * context.
+     */
+    private static String buildExpiredMessageBaseline(String proxyServerName,
+            Map<BigInteger, BeamDestination> destinationMap,
+            List<DestinationAuthorization> expiredAuthorizationList,
+            List<ControlVerification> expiredVerificationList,
+            List<DestinationAuthorization> upcomingAuthorizationExpirationList,
+            List<ControlVerification> upcomingVerificationExpirationList) {
+        StringBuilder builder = new StringBuilder();
+
+        SimpleDateFormat formatter = new SimpleDateFormat(TimeUtil.getFriendlyDateTimePattern());
+
+        if (expiredAuthorizationList != null && !expiredAuthorizationList.isEmpty()) {
+            builder.append("<h1>--- Expired Director's Authorizations ---</h1>\n");
+            for (DestinationAuthorization authorization : expiredAuthorizationList) {
+                builder.append("</div>\n<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(destinationMap.get(
+                        authorization.getDestinationAuthorizationPK().getBeamDestinationId())));
+                builder.append("</div>\n<div><b>Expired On:</b> ");
+                builder.append(formatter.format(authorization.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(
+                        authorization.getComments() == null ? "" : authorization.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+        }
+
+        if (expiredVerificationList != null && !expiredVerificationList.isEmpty()) {
+            builder.append("<h1>--- Expired Credited Control Verifications ---</h1>\n");
+
+            for (ControlVerification v : expiredVerificationList) {
+
+                builder.append("<div><b>Credited Control:</b> ");
+                builder.append(v.getCreditedControl().getName());
+                builder.append("</div>\n<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
+                builder.append("</div>\n<div><b>Verified On:</b> ");
+                builder.append(formatter.format(v.getVerificationDate()));
+                builder.append("</div>\n<div><b>Verified By:</b> ");
+                builder.append(BeamAuthFunctions.formatStaff(v.getVerifiedBy()));
+                builder.append("</div>\n<div><b>Expired On:</b> ");
+                builder.append(formatter.format(v.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(v.getComments() == null ? "" : v.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+
+            builder.append("<br/><br/>\n");
+        }
+
+        if (upcomingAuthorizationExpirationList != null
+                && !upcomingAuthorizationExpirationList.isEmpty()) {
+            builder.append("<h1>--- Director's Authorizations Expiring Soon ---</h1>\n");
+
+            for (DestinationAuthorization authorization : upcomingAuthorizationExpirationList) {
+
+                builder.append("<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(destinationMap.get(
+                        authorization.getDestinationAuthorizationPK().getBeamDestinationId())));
+                builder.append("</div>\n<div><b>Expires On:</b> ");
+                builder.append(formatter.format(authorization.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(
+                        authorization.getComments() == null ? "" : authorization.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+
+            builder.append("<br/><br/>\n");
+        }
+
+        if (upcomingVerificationExpirationList != null
+                && !upcomingVerificationExpirationList.isEmpty()) {
+            builder.append("<h1>--- Credited Control Verifications Expiring Soon ---</h1>\n");
+
+            for (ControlVerification v : upcomingVerificationExpirationList) {
+
+                builder.append("<div><b>Credited Control:</b> ");
+                builder.append(v.getCreditedControl().getName());
+                builder.append("</div>\n<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
+                builder.append("</div>\n<div><b>Verified On:</b> ");
+                builder.append(formatter.format(v.getVerificationDate()));
+                builder.append("</div>\n<div><b>Verified By:</b> ");
+                builder.append(BeamAuthFunctions.formatStaff(v.getVerifiedBy()));
+                builder.append("</div>\n<div><b>Expiring On:</b> ");
+                builder.append(formatter.format(v.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(v.getComments() == null ? "" : v.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+        }
+
+        builder.append("<br/><br/>\n");
+        builder.append("</div><div>\n\n<b>See:</b> <a href=\"https://").append(proxyServerName).append(
+                "/beam-auth/\">Beam Authorization</a></div>\n");
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package org.jlab.beamauth.benchmark;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jlab.beamauth.persistence.entity.BeamAuthDestination;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.entity.ControlVerification;
+import org.jlab.beamauth.persistence.entity.CreditedControl;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.persistence.entity.Staff;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * In-memory expired and soon to expire destination authorizations and
+ * verifications, as the midnight expiration sweep notifies about (no
+ * database; the destinations are already loaded).
+ *
+ * @author ryans
+ */
+@State(Scope.Thread)
+public class NotificationState {
+
+    /**
+     * Number of rows in each of the four lists.
+     */
+    @Param({"5", "50"})
+    public int rows;
+
+    public Map<BigInteger, BeamDestination> destinationMap;
+    public List<DestinationAuthorization> expiredAuthorizationList;
+    public List<ControlVerification> expiredVerificationList;
+    public List<DestinationAuthorization> upcomingAuthorizationList;
+    public List<ControlVerification> upcomingVerificationList;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        long now = System.currentTimeMillis();
+
+        Staff staff = new Staff();
+        staff.setStaffId(BigInteger.ONE);
+        staff.setUsername("user1");
+        staff.setFirstname("First");
+        staff.setLastname("Last");
+
+        // BeamDestination has no setter for its (eagerly fetched) beam auth destination
+        Field authDestinationField = BeamDestination.class.getDeclaredField("authDestination");
+        authDestinationField.setAccessible(true);
+
+        destinationMap = new HashMap<>();
+        expiredAuthorizationList = new ArrayList<>();
+        expiredVerificationList = new ArrayList<>();
+        upcomingAuthorizationList = new ArrayList<>();
+        upcomingVerificationList = new ArrayList<>();
+
+        for (int i = 1; i <= rows * 2; i++) {
+            BigInteger id = BigInteger.valueOf(i);
+
+            BeamAuthDestination authDestination = new BeamAuthDestination();
+            authDestination.setBeamDestinationId(id);
+            authDestination.setDisplayName("Destination " + i);
+
+            BeamDestination destination = new BeamDestination(id);
+            destination.setName("DEST" + i);
+            authDestinationField.set(destination, authDestination);
+
+            destinationMap.put(id, destination);
+
+            DestinationAuthorization da = new DestinationAuthorization(id, BigInteger.ONE);
+            da.setBeamMode("CW");
+            da.setCwLimit(BigDecimal.TEN);
+            da.setExpirationDate(new Date(now + i * 60000L));
+            da.setComments("Comment with <markup> & \"quotes\" " + i);
+
+            CreditedControl control = new CreditedControl();
+            control.setCreditedControlId(id);
+            control.setName("Control " + i);
+
+            ControlVerification v = new ControlVerification();
+            v.setControlVerificationId(id);
+            v.setCreditedControl(control);
+            v.setBeamDestination(destination);
+            v.setVerificationId(1);
+            v.setVerificationDate(new Date(now - i * 60000L));
+            v.setVerifiedBy(staff);
+            v.setExpirationDate(new Date(now + i * 60000L));
+            v.setComments("Verified " + i);
+
+            if (i <= rows) {
+                expiredAuthorizationList.add(da);
+                expiredVerificationList.add(v);
+            } else {
+                upcomingAuthorizationList.add(da);
+                upcomingVerificationList.add(v);
+            }
+        }
+    }
+}
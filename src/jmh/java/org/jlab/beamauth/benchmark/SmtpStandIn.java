@@ -0,0 +1,131 @@
+package org.jlab.beamauth.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Just enough of an SMTP server on localhost to accept and discard messages,
+ * with a configurable delay on connect (greeting) and per accepted message to
+ * stand in for a real mail server's handshake and delivery latency.
+ *
+ * @author ryans
+ */
+public class SmtpStandIn implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "smtp-stand-in");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long connectDelayMillis;
+    private final long messageDelayMillis;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+
+    public SmtpStandIn(long connectDelayMillis, long messageDelayMillis) throws IOException {
+        this.connectDelayMillis = connectDelayMillis;
+        this.messageDelayMillis = messageDelayMillis;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        executor.execute(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getMessages() {
+        return messages.get();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                executor.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                return; // Closed
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        s.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = s.getOutputStream()) {
+            pause(connectDelayMillis);
+            reply(out, "220 localhost SMTP stand-in");
+
+            String line;
+
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase()
+                        : line.substring(0, 4).toUpperCase();
+
+                switch (command) {
+                    case "EHLO":
+                        reply(out, "250-localhost\r\n250 8BITMIME");
+                        break;
+                    case "DATA":
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+
+                        while ((line = in.readLine()) != null && !".".equals(line)) {
+                            // Discard
+                        }
+
+                        pause(messageDelayMillis);
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                        break;
+                    case "QUIT":
+                        reply(out, "221 Bye");
+                        return;
+                    default: // HELO, MAIL, RCPT, RSET, NOOP
+                        reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static void reply(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void pause(long millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,140 @@
+package org.jlab.beamauth.benchmark;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.jlab.beamauth.business.session.AuthorizationFacade;
+import org.jlab.beamauth.business.session.ControlVerificationFacade;
+import org.jlab.beamauth.persistence.entity.ControlVerification;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.persistence.util.StatementCounter;
+
+/**
+ * Checks that revoking permissions and recording expired verifications issue
+ * the same number of SQL statements however many destinations are involved
+ * (the inserts are JDBC batched). Each path is run, flushed, and rolled back
+ * against databases seeded with a small and a large number of destinations;
+ * the process exits with status 1 if any count differs.
+ *
+ * @author ryans
+ */
+public class StatementCountCheck {
+
+    private static final int SMALL = 5;
+    private static final int LARGE = 50;
+    private static final int CONTROLS = 15;
+    private static final int AUTHORIZATIONS = 3;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        Map<String, Integer> smallMap = count(SMALL);
+        Map<String, Integer> largeMap = count(LARGE);
+
+        boolean passed = true;
+
+        for (String path : smallMap.keySet()) {
+            int small = smallMap.get(path);
+            int large = largeMap.get(path);
+            boolean same = small == large;
+
+            System.out.printf("%-40s %2d destinations: %3d  %2d destinations: %3d  %s%n", path,
+                    SMALL, small, LARGE, large, same ? "OK" : "FAILED");
+
+            passed = passed && same;
+        }
+
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static Map<String, Integer> count(int destinations) throws IOException,
+            SQLException {
+        EmbeddedDatabase database = new EmbeddedDatabase();
+        database.load(destinations, CONTROLS, AUTHORIZATIONS);
+
+        EntityManagerFactory emf = database.createEntityManagerFactory();
+        EntityManager em = emf.createEntityManager();
+
+        Map<String, Integer> countMap = new LinkedHashMap<>();
+
+        try {
+            FacadeInjector injector = new FacadeInjector(emf, em);
+            ControlVerificationFacade verificationFacade = injector.get(
+                    ControlVerificationFacade.class);
+            AuthorizationFacade authorizationFacade = injector.get(AuthorizationFacade.class);
+
+            countMap.put("clearDirectorPermissionForExpired", count(em, () -> {
+                List<ControlVerification> verificationList = findVerifications(em);
+                return () -> verificationFacade.clearDirectorPermissionForExpired(
+                        verificationList);
+            }));
+            countMap.put("clearDirectorPermissionForDowngrade", count(em, () -> {
+                List<ControlVerification> verificationList = findVerifications(em);
+                return () -> verificationFacade.clearDirectorPermissionForDowngrade(
+                        verificationList);
+            }));
+            countMap.put("revokeExpiredAuthorizations", count(em, () -> {
+                List<DestinationAuthorization> authorizationList = new ArrayList<>(
+                        authorizationFacade.findCurrent().getDestinationAuthorizationList());
+                return () -> verificationFacade.revokeExpiredAuthorizations(authorizationList);
+            }));
+            countMap.put("insertExpiredHistory", count(em, () -> {
+                List<ControlVerification> verificationList = findVerifications(em);
+                return () -> verificationFacade.insertExpiredHistory(verificationList,
+                        new Date());
+            }));
+        } finally {
+            em.close();
+            emf.close();
+            database.close();
+        }
+
+        return countMap;
+    }
+
+    /**
+     * Counts the statements of one path, including the flush but not the
+     * loading of its arguments.
+     */
+    private static int count(EntityManager em, Setup setup) {
+        em.getTransaction().begin();
+
+        try {
+            Runnable path = setup.prepare();
+
+            StatementCounter.begin();
+
+            path.run();
+            em.flush();
+
+            return StatementCounter.end().getStatements();
+        } finally {
+            em.getTransaction().rollback();
+            em.clear();
+        }
+    }
+
+    /**
+     * The verifications of the first credited control, one per destination.
+     */
+    private static List<ControlVerification> findVerifications(EntityManager em) {
+        BigInteger creditedControlId = em.createQuery(
+                "select min(c.creditedControlId) from CreditedControl c", BigInteger.class)
+                .getSingleResult();
+
+        return em.createQuery(
+                "select v from ControlVerification v join fetch v.beamDestination where v.creditedControl.creditedControlId = :id",
+                ControlVerification.class).setParameter("id", creditedControlId).getResultList();
+    }
+
+    @FunctionalInterface
+    private interface Setup {
+
+        Runnable prepare();
+    }
+}
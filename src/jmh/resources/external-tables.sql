@@ -0,0 +1,54 @@
+-- Tables owned by other schemas (staff directory and hot checkout) that the
+-- beam-authorizationPU entities map; BEAM_AUTH_OWNER sees them through synonyms,
+-- emulated here with views.
+
+CREATE SCHEMA IF NOT EXISTS SUPPORT;
+
+CREATE SCHEMA IF NOT EXISTS HCO_OWNER;
+
+CREATE TABLE SUPPORT.STAFF
+(
+	STAFF_ID             INTEGER NOT NULL ,
+	USERNAME             VARCHAR2(32) NOT NULL ,
+	FIRSTNAME            VARCHAR2(32) NOT NULL ,
+	LASTNAME             VARCHAR2(32) NOT NULL ,
+CONSTRAINT  STAFF_PK PRIMARY KEY (STAFF_ID)
+);
+
+CREATE TABLE SUPPORT.WORKGROUP
+(
+	WORKGROUP_ID         INTEGER NOT NULL ,
+	NAME                 VARCHAR2(64) NOT NULL ,
+CONSTRAINT  WORKGROUP_PK PRIMARY KEY (WORKGROUP_ID)
+);
+
+CREATE TABLE SUPPORT.WORKGROUP_MEMBERSHIP
+(
+	WORKGROUP_ID         INTEGER NOT NULL ,
+	STAFF_ID             INTEGER NOT NULL ,
+CONSTRAINT  WORKGROUP_MEMBERSHIP_PK PRIMARY KEY (WORKGROUP_ID,STAFF_ID)
+);
+
+CREATE TABLE HCO_OWNER.RESPONSIBLE_GROUP
+(
+	GROUP_ID             INTEGER NOT NULL ,
+	NAME                 VARCHAR2(128) NOT NULL ,
+	DESCRIPTION          VARCHAR2(1024) NULL ,
+	LEADER_WORKGROUP_ID  INTEGER NOT NULL ,
+CONSTRAINT  RESPONSIBLE_GROUP_PK PRIMARY KEY (GROUP_ID)
+);
+
+CREATE TABLE HCO_OWNER.BEAM_DESTINATION
+(
+	BEAM_DESTINATION_ID  INTEGER NOT NULL ,
+	NAME                 VARCHAR2(128) NULL ,
+	WEIGHT               INTEGER NULL ,
+CONSTRAINT  BEAM_DESTINATION_PK PRIMARY KEY (BEAM_DESTINATION_ID),
+CONSTRAINT  BEAM_DESTINATION_AK1 UNIQUE (NAME)
+);
+
+CREATE VIEW BEAM_AUTH_OWNER.WORKGROUP AS SELECT * FROM SUPPORT.WORKGROUP;
+
+CREATE VIEW BEAM_AUTH_OWNER.WORKGROUP_MEMBERSHIP AS SELECT * FROM SUPPORT.WORKGROUP_MEMBERSHIP;
+
+CREATE VIEW BEAM_AUTH_OWNER.BEAM_DESTINATION AS SELECT * FROM HCO_OWNER.BEAM_DESTINATION;
@@ -0,0 +1,42 @@
+package org.jlab.beamauth.business.event;
+
+import java.math.BigInteger;
+import java.util.Date;
+
+/**
+ * Fired whenever a new Authorization row is persisted (director save or
+ * automatic revocation clone). Observers interested in committed state should
+ * observe with TransactionPhase.AFTER_SUCCESS.
+ *
+ * @author ryans
+ */
+public class AuthorizationChangeEvent {
+
+    private final BigInteger authorizationId;
+    private final long modifiedMillis;
+
+    /**
+     * Create a new AuthorizationChangeEvent.
+     *
+     * @param authorizationId The new authorization ID
+     * @param modifiedDate The modified date of the new authorization (when it
+     * took effect)
+     */
+    public AuthorizationChangeEvent(BigInteger authorizationId, Date modifiedDate) {
+        this.authorizationId = authorizationId;
+        this.modifiedMillis = modifiedDate.getTime();
+    }
+
+    public BigInteger getAuthorizationId() {
+        return authorizationId;
+    }
+
+    public Date getModifiedDate() {
+        return new Date(modifiedMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorizationChangeEvent[ authorizationId=" + authorizationId + " ]";
+    }
+}
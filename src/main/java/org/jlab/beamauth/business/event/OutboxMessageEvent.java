@@ -0,0 +1,28 @@
+package org.jlab.beamauth.business.event;
+
+import java.math.BigInteger;
+
+/**
+ * Fired when a notification is queued in the outbox. Observers should observe
+ * with TransactionPhase.AFTER_SUCCESS so that delivery is only attempted once
+ * the message (and the change it describes) has committed.
+ *
+ * @author ryans
+ */
+public class OutboxMessageEvent {
+
+    private final BigInteger outboxMessageId;
+
+    public OutboxMessageEvent(BigInteger outboxMessageId) {
+        this.outboxMessageId = outboxMessageId;
+    }
+
+    public BigInteger getOutboxMessageId() {
+        return outboxMessageId;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMessageEvent[ outboxMessageId=" + outboxMessageId + " ]";
+    }
+}
@@ -0,0 +1,66 @@
+package org.jlab.beamauth.business.event;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fired whenever one or more ControlVerification rows are created, edited,
+ * removed, or expired. All listed verifications share the same resulting
+ * verification status and expiration. Observers interested in committed state
+ * should observe with TransactionPhase.AFTER_SUCCESS.
+ *
+ * @author ryans
+ */
+public class VerificationChangeEvent {
+
+    private final List<BigInteger> controlVerificationIdList;
+    private final Integer verificationId;
+    private final Long expirationMillis;
+
+    /**
+     * Create a new VerificationChangeEvent.
+     *
+     * @param controlVerificationIdList The changed control verification IDs
+     * @param verificationId The resulting verification status, or null if the
+     * control verifications were removed
+     * @param expirationDate The resulting expiration date, or null if none
+     */
+    public VerificationChangeEvent(List<BigInteger> controlVerificationIdList,
+            Integer verificationId, Date expirationDate) {
+        this.controlVerificationIdList = controlVerificationIdList == null
+                ? Collections.<BigInteger>emptyList()
+                : Collections.unmodifiableList(controlVerificationIdList);
+        this.verificationId = verificationId;
+        this.expirationMillis = expirationDate == null ? null : expirationDate.getTime();
+    }
+
+    public List<BigInteger> getControlVerificationIdList() {
+        return controlVerificationIdList;
+    }
+
+    public Integer getVerificationId() {
+        return verificationId;
+    }
+
+    public Date getExpirationDate() {
+        return expirationMillis == null ? null : new Date(expirationMillis);
+    }
+
+    /**
+     * Whether the changed verifications are (provisionally) verified and
+     * therefore must be revoked when their expiration date passes.
+     *
+     * @return true if the verifications can expire
+     */
+    public boolean isExpirable() {
+        return expirationMillis != null && verificationId != null && verificationId <= 50;
+    }
+
+    @Override
+    public String toString() {
+        return "VerificationChangeEvent[ controlVerificationIdList=" + controlVerificationIdList
+                + ", verificationId=" + verificationId + " ]";
+    }
+}
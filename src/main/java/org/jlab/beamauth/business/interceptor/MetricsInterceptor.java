@@ -0,0 +1,53 @@
+package org.jlab.beamauth.business.interceptor;
+
+import javax.ejb.EJB;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.InvocationContext;
+import org.jlab.beamauth.business.session.MetricsRegistry;
+
+/**
+ * Records the latency (and failures) of every EJB business method call in the
+ * MetricsRegistry, labeled Bean.method. It is bound to all beans as a default
+ * interceptor in ejb-jar.xml.
+ *
+ * @author ryans
+ */
+public class MetricsInterceptor {
+
+    @EJB
+    MetricsRegistry metrics;
+
+    @AroundInvoke
+    public Object record(InvocationContext context) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+
+        try {
+            Object result = context.proceed();
+
+            success = true;
+
+            return result;
+        } finally {
+            String method = beanName(context) + "." + context.getMethod().getName();
+
+            metrics.time("beamauth_facade_call_seconds", "method", method, System.nanoTime()
+                    - start);
+
+            if (!success) {
+                metrics.increment("beamauth_facade_errors_total", "method", method);
+            }
+        }
+    }
+
+    private static String beanName(InvocationContext context) {
+        Object target = context.getTarget();
+
+        String name = target == null ? context.getMethod().getDeclaringClass().getSimpleName()
+                : target.getClass().getSimpleName();
+
+        int proxy = name.indexOf('$'); // Container generated subclass
+
+        return proxy > 0 ? name.substring(0, proxy) : name;
+    }
+}
@@ -0,0 +1,131 @@
+package org.jlab.beamauth.business.session;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import org.jlab.beamauth.business.event.AuthorizationChangeEvent;
+import org.jlab.beamauth.persistence.entity.Authorization;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+
+/**
+ * Holds an immutable snapshot of the current Authorization so that page views
+ * do not need to query (and sort) the authorization history. The snapshot (and
+ * the authorization history count) is dropped when a transaction that persisted
+ * a new Authorization commits and is lazily reloaded by the next reader.
+ *
+ * @author ryans
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AuthorizationCache {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            AuthorizationCache.class.getName());
+
+    private final AtomicReference<Entry> entry = new AtomicReference<>(new Entry(0, false, null));
+    private final AtomicReference<Count> count = new AtomicReference<>(new Count(-1, 0));
+
+    @EJB
+    AuthorizationFacade authorizationFacade;
+    @EJB
+    MetricsRegistry metrics;
+
+    /**
+     * Returns the current authorization snapshot, loading it if a write has
+     * committed since it was last loaded.
+     *
+     * @return The snapshot or null if there are no authorizations
+     */
+    @PermitAll
+    public AuthorizationSnapshot getSnapshot() {
+        Entry current = entry.get();
+
+        metrics.cacheLookup("authorization-snapshot", current.loaded);
+
+        if (current.loaded) {
+            return current.snapshot;
+        }
+
+        Authorization authorization = authorizationFacade.findCurrent();
+
+        AuthorizationSnapshot snapshot = authorization == null ? null : new AuthorizationSnapshot(
+                authorization);
+
+        // Only publish if no write committed while we were loading; otherwise the next reader reloads
+        if (!entry.compareAndSet(current, new Entry(current.generation, true, snapshot))) {
+            LOGGER.log(Level.FINEST, "Authorization changed while loading snapshot; not caching");
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of authorizations, counting only if a write has
+     * committed since the last count.
+     *
+     * @return The number of authorizations
+     */
+    @PermitAll
+    public long getHistoryCount() {
+        long generation = entry.get().generation;
+
+        Count current = count.get();
+
+        metrics.cacheLookup("authorization-count", current.generation == generation);
+
+        if (current.generation == generation) {
+            return current.value;
+        }
+
+        long value = authorizationFacade.countHistory();
+
+        // Tagged with the generation read before counting so a concurrent write forces a recount
+        count.set(new Count(generation, value));
+
+        return value;
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeAuthorizationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) AuthorizationChangeEvent event) {
+        LOGGER.log(Level.FINEST, "Invalidating authorization snapshot: {0}", event);
+
+        Entry current;
+        do {
+            current = entry.get();
+        } while (!entry.compareAndSet(current, new Entry(current.generation + 1, false, null)));
+    }
+
+    private static final class Entry {
+
+        private final long generation;
+        private final boolean loaded;
+        private final AuthorizationSnapshot snapshot;
+
+        private Entry(long generation, boolean loaded, AuthorizationSnapshot snapshot) {
+            this.generation = generation;
+            this.loaded = loaded;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private static final class Count {
+
+        private final long generation;
+        private final long value;
+
+        private Count(long generation, long value) {
+            this.generation = generation;
+            this.value = value;
+        }
+    }
+}
@@ -1,18 +1,13 @@
 package org.jlab.beamauth.business.session;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.awt.AWTError;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.math.BigInteger;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLConnection;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.text.SimpleDateFormat;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -25,17 +20,24 @@ import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
 
-import org.jlab.beamauth.business.util.SecurityUtil;
+import org.jlab.beamauth.business.event.AuthorizationChangeEvent;
+import org.jlab.beamauth.business.util.PermissionsImageRenderer;
 import org.jlab.beamauth.persistence.entity.Authorization;
 import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.entity.CurrentAuthorization;
 import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
 import org.jlab.beamauth.persistence.entity.Staff;
-import org.jlab.beamauth.presentation.util.BeamAuthFunctions;
+import org.jlab.beamauth.persistence.enumeration.OutboxMessageType;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.KeysetPage;
 import org.jlab.jlog.Body;
 import org.jlab.jlog.Library;
 import org.jlab.jlog.LogEntry;
@@ -46,7 +48,6 @@ import org.jlab.jlog.exception.LogIOException;
 import org.jlab.jlog.exception.LogRuntimeException;
 import org.jlab.smoothness.business.exception.UserFriendlyException;
 import org.jlab.smoothness.business.service.EmailService;
-import org.jlab.smoothness.business.util.IOUtil;
 
 /**
  *
@@ -64,6 +65,14 @@ public class AuthorizationFacade extends AbstractFacade<Authorization> {
     StaffFacade staffFacade;
     @EJB
     BeamDestinationFacade destinationFacade;
+    @EJB
+    OutboxMessageFacade outboxFacade;
+    @EJB
+    DestinationAuthorizationChangeFacade changeFacade;
+    @EJB
+    OutboundHttpClient httpClient;
+    @Inject
+    Event<AuthorizationChangeEvent> authorizationChangeEvent;
 
     @Override
     protected EntityManager getEntityManager() {
@@ -94,13 +103,21 @@ public class AuthorizationFacade extends AbstractFacade<Authorization> {
         return units;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the authorization currently in effect by reading through the
+     * CURRENT_AUTHORIZATION pointer (a primary key lookup regardless of how
+     * much history there is).
+     *
+     * @return The current authorization or null if there are no authorizations
+     */
     @PermitAll
     public Authorization findCurrent() {
-        Query q = em.createNativeQuery(
-                "select * from (select * from authorization order by modified_date desc) where rownum <= 1",
+        TypedQuery<Authorization> q = em.createQuery(
+                "select a from Authorization a, CurrentAuthorization c where c.currentAuthorizationId = :id and a.authorizationId = c.authorizationId",
                 Authorization.class);
 
+        q.setParameter("id", CurrentAuthorization.ID);
+
         List<Authorization> authorizationList = q.getResultList();
 
         Authorization authorization = null;
@@ -112,16 +129,209 @@ public class AuthorizationFacade extends AbstractFacade<Authorization> {
         return authorization;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the authorization currently in effect, first locking the
+     * CURRENT_AUTHORIZATION pointer until the end of the caller's transaction.
+     * Everything that creates a new authorization from the current one (the
+     * director's save and both revocation paths) uses this so they take turns
+     * rather than one silently replacing what another just saved.
+     *
+     * @return The current authorization or null if there are no authorizations
+     */
     @PermitAll
-    public List<Authorization> findHistory(int offset, int maxPerPage) {
+    public Authorization findCurrentForUpdate() {
+        // Native so the pointer is re-read even if already in the persistence context
         Query q = em.createNativeQuery(
-                "select * from authorization order by authorization_date desc",
-                Authorization.class);
+                "select authorization_id from current_authorization where current_authorization_id = ? for update");
+
+        q.setParameter(1, CurrentAuthorization.ID);
+
+        List<?> idList = q.getResultList();
+
+        Authorization authorization = null;
+
+        if (!idList.isEmpty()) {
+            authorization = find(BigInteger.valueOf(((Number) idList.get(0)).longValue()));
+        }
+
+        return authorization;
+    }
+
+    /**
+     * Moves the CURRENT_AUTHORIZATION pointer to a newly persisted
+     * authorization if it still points at the expected one.
+     *
+     * @param expectedId The authorization the new one was created from, or null
+     * if there were none
+     * @param authorizationId The new authorization ID
+     * @throws IllegalStateException If the pointer was moved by someone else
+     */
+    @PermitAll
+    public void advanceCurrent(BigInteger expectedId, BigInteger authorizationId) {
+        em.flush(); // The new authorization must be inserted before it is referenced
+
+        if (expectedId == null) {
+            // A concurrent first authorization fails on the primary key
+            em.persist(new CurrentAuthorization(authorizationId));
+            return;
+        }
+
+        int updated = em.createQuery(
+                "update CurrentAuthorization c set c.authorizationId = :authorizationId where c.currentAuthorizationId = :id and c.authorizationId = :expectedId")
+                .setParameter("authorizationId", authorizationId)
+                .setParameter("id", CurrentAuthorization.ID)
+                .setParameter("expectedId", expectedId)
+                .executeUpdate();
+
+        if (updated != 1) {
+            throw new IllegalStateException("Current authorization is no longer " + expectedId);
+        }
+    }
+
+    /**
+     * Loads the current authorization and copies it (with its destination
+     * authorizations) while still in this transaction so callers without a
+     * transaction can use it.
+     *
+     * @return The snapshot or null if there are no authorizations
+     */
+    @PermitAll
+    public AuthorizationSnapshot findCurrentSnapshot() {
+        Authorization authorization = findCurrent();
+
+        return authorization == null ? null : new AuthorizationSnapshot(authorization);
+    }
+
+    /**
+     * Returns the (modified date, authorization ID) of every authorization
+     * modified at or after the given date, in the order they took effect. The
+     * modified date is when an authorization became current; revocation clones
+     * keep the authorization date of the authorization they revise.
+     *
+     * @param from Only authorizations modified at or after this date, or null
+     * for all
+     * @return The list of [Date, BigInteger] pairs
+     */
+    @PermitAll
+    public List<Object[]> findTimeline(Date from) {
+        String jpql = "select a.modifiedDate, a.authorizationId from Authorization a";
+
+        if (from != null) {
+            jpql = jpql + " where a.modifiedDate >= :from";
+        }
+
+        TypedQuery<Object[]> q = em.createQuery(jpql
+                + " order by a.modifiedDate asc, a.authorizationId asc", Object[].class);
+
+        if (from != null) {
+            q.setParameter("from", from, TemporalType.TIMESTAMP);
+        }
 
-        return q.setFirstResult(offset).setMaxResults(maxPerPage).getResultList();
+        return q.getResultList();
     }
 
+    /**
+     * Returns a page of authorization history, newest first, by seeking on
+     * (authorization date, authorization ID) instead of skipping an offset.
+     * At most one of after and before is used; if neither is provided the
+     * first page is returned.
+     *
+     * @param after Cursor of the last row of the previous page (next page)
+     * @param before Cursor of the first row of the following page (previous
+     * page)
+     * @param maxPerPage The page size
+     * @return The page
+     */
+    @SuppressWarnings("unchecked")
+    @PermitAll
+    public KeysetPage<Authorization> findHistory(String after, String before, int maxPerPage) {
+        Object[] afterKey = parseHistoryCursor(after);
+        Object[] beforeKey = afterKey == null ? parseHistoryCursor(before) : null;
+
+        boolean backward = beforeKey != null;
+        Object[] key = backward ? beforeKey : afterKey;
+
+        String sql;
+
+        if (key == null) {
+            sql = "select * from authorization order by authorization_date desc, authorization_id desc";
+        } else if (backward) {
+            sql = "select * from authorization where authorization_date > cast(:date as date) or (authorization_date = cast(:date as date) and authorization_id > :id) order by authorization_date asc, authorization_id asc";
+        } else {
+            sql = "select * from authorization where authorization_date < cast(:date as date) or (authorization_date = cast(:date as date) and authorization_id < :id) order by authorization_date desc, authorization_id desc";
+        }
+
+        Query q = em.createNativeQuery(sql, Authorization.class);
+
+        if (key != null) {
+            q.setParameter("date", (Date) key[0], TemporalType.TIMESTAMP);
+            q.setParameter("id", key[1]);
+        }
+
+        List<Authorization> historyList = new ArrayList<>(q.setMaxResults(maxPerPage + 1).getResultList());
+
+        boolean more = historyList.size() > maxPerPage;
+
+        if (more) {
+            historyList.remove(maxPerPage);
+        }
+
+        boolean previous;
+        boolean next;
+
+        if (backward) {
+            Collections.reverse(historyList);
+            previous = more;
+            next = true;
+        } else {
+            previous = key != null;
+            next = more;
+        }
+
+        String previousCursor = null;
+        String nextCursor = null;
+
+        if (!historyList.isEmpty()) {
+            if (previous) {
+                previousCursor = createHistoryCursor(historyList.get(0));
+            }
+
+            if (next) {
+                nextCursor = createHistoryCursor(historyList.get(historyList.size() - 1));
+            }
+        }
+
+        return new KeysetPage<>(historyList, previousCursor, nextCursor);
+    }
+
+    private String createHistoryCursor(Authorization authorization) {
+        return authorization.getAuthorizationDate().getTime() + "_" + authorization.getAuthorizationId();
+    }
+
+    private Object[] parseHistoryCursor(String cursor) {
+        Object[] key = null;
+
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] tokens = cursor.split("_");
+
+            try {
+                if (tokens.length == 2) {
+                    key = new Object[]{new Date(Long.parseLong(tokens[0])), new BigInteger(tokens[1])};
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.FINE, "Ignoring invalid history cursor: {0}", cursor);
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * Counts all authorizations. Prefer AuthorizationCache.getHistoryCount,
+     * which only recounts after an authorization is saved.
+     *
+     * @return The number of authorizations
+     */
     @PermitAll
     public Long countHistory() {
         TypedQuery<Long> q = em.createQuery("select count(a) from Authorization a", Long.class);
@@ -148,11 +358,16 @@ public class AuthorizationFacade extends AbstractFacade<Authorization> {
 
     @RolesAllowed("oability")
     public void saveAuthorization(String comments,
-            List<DestinationAuthorization> destinationAuthorizationList) throws UserFriendlyException {
+            List<DestinationAuthorization> destinationAuthorizationList, boolean sendNotifications)
+            throws UserFriendlyException {
         String username = checkAuthenticated();
 
         Staff staff = staffFacade.findByUsername(username);
 
+        validateDestinationAuthorizations(destinationAuthorizationList);
+
+        Authorization previous = findCurrentForUpdate();
+
         Authorization authorization = new Authorization();
         authorization.setComments(comments);
         authorization.setAuthorizationDate(new Date());
@@ -163,49 +378,100 @@ public class AuthorizationFacade extends AbstractFacade<Authorization> {
         create(authorization);
 
         for (DestinationAuthorization da : destinationAuthorizationList) {
+            da.setAuthorization(authorization);
+            da.getDestinationAuthorizationPK().setAuthorizationId(authorization.getAuthorizationId());
+            em.persist(da);
+        }
+
+        advanceCurrent(previous == null ? null : previous.getAuthorizationId(),
+                authorization.getAuthorizationId());
+
+        changeFacade.recordChanges(previous, authorization, destinationAuthorizationList);
+
+        if (sendNotifications) {
+            outboxFacade.enqueue(OutboxMessageType.NEW_AUTHORIZATION_EMAIL, username, null);
+            outboxFacade.enqueue(OutboxMessageType.NEW_AUTHORIZATION_ELOG, username, null,
+                    authorization.getAuthorizationId());
+        }
+
+        authorizationChangeEvent.fire(new AuthorizationChangeEvent(authorization.getAuthorizationId(),
+                authorization.getModifiedDate()));
+
+        LOGGER.log(Level.FINE, "Director's Authorization saved successfully");
+    }
+
+    /**
+     * Checks the destination authorizations to be saved against the current
+     * verification status of their destinations. All referenced destinations
+     * are loaded in one query and every violation is reported, one per line,
+     * rather than just the first.
+     *
+     * @param destinationAuthorizationList The destination authorizations
+     * @throws UserFriendlyException If any destination authorization is invalid
+     */
+    private void validateDestinationAuthorizations(
+            List<DestinationAuthorization> destinationAuthorizationList) throws
+            UserFriendlyException {
+        List<BigInteger> destinationIdList = new ArrayList<>();
+
+        for (DestinationAuthorization da : destinationAuthorizationList) {
+            destinationIdList.add(da.getDestinationAuthorizationPK().getBeamDestinationId());
+        }
+
+        Map<BigInteger, BeamDestination> destinationMap = destinationFacade.findWithVerification(
+                destinationIdList);
+
+        // Minimum expiration is 1 hour from now
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.HOUR_OF_DAY, 1);
+        Date minExpiration = cal.getTime();
+
+        List<String> violationList = new ArrayList<>();
+
+        for (DestinationAuthorization da : destinationAuthorizationList) {
+            BigInteger destinationId = da.getDestinationAuthorizationPK().getBeamDestinationId();
+            BeamDestination destination = destinationMap.get(destinationId);
+
+            if (destination == null) {
+                violationList.add("Beam Destination with ID " + destinationId + " not found");
+                continue;
+            }
 
-            BeamDestination destination = destinationFacade.find(
-                    da.getDestinationAuthorizationPK().getBeamDestinationId());
             if (!"None".equals(da.getBeamMode())) { // CW or Tune
+                Integer verificationId = destination.getVerification() == null ? null
+                        : destination.getVerification().getVerificationId();
 
                 // Check if credited control agrees
-                if (!(destination.getVerification().getVerificationId() <= 50)) {
-                    throw new UserFriendlyException("Beam Destination \"" + destination.getName()
+                if (verificationId == null || !(verificationId <= 50)) {
+                    violationList.add("Beam Destination \"" + destination.getName()
                             + "\" cannot have beam when credited controls are not verified");
                 }
 
                 // If provisional then there better be a comment
-                if (destination.getVerification().getVerificationId() == 50 && (da.getComments()
-                        == null || da.getComments().trim().isEmpty())) {
-                    throw new UserFriendlyException("Beam Destination \"" + destination.getName()
+                if (verificationId != null && verificationId == 50 && (da.getComments() == null
+                        || da.getComments().trim().isEmpty())) {
+                    violationList.add("Beam Destination \"" + destination.getName()
                             + "\" must have a comment to explain why beam is permitted with provisional credited control status");
                 }
 
                 // Must provide an expiration date since CW or Tune
                 if (da.getExpirationDate() == null) {
-                    throw new UserFriendlyException("Beam Destination \"" + destination.getName()
+                    violationList.add("Beam Destination \"" + destination.getName()
                             + "\" must have an expiration date since beam is allowed");
-                }
-
-                // Expiration must be in the future
-                Calendar cal = Calendar.getInstance();
-                cal.add(Calendar.HOUR_OF_DAY, 1);
-                if (da.getExpirationDate().before(cal.getTime())) {
-                    throw new UserFriendlyException("Beam Destination \"" + destination.getName()
+                } else if (da.getExpirationDate().before(minExpiration)) { // Must be in the future
+                    violationList.add("Beam Destination \"" + destination.getName()
                             + "\" must have a future expiration date and minimum expiration is 1 hour from now");
                 }
             }
-
-            da.setAuthorization(authorization);
-            da.getDestinationAuthorizationPK().setAuthorizationId(authorization.getAuthorizationId());
-            em.persist(da);
         }
 
-        LOGGER.log(Level.FINE, "Director's Authorization saved successfully");
+        if (!violationList.isEmpty()) {
+            throw new UserFriendlyException(String.join("\n", violationList));
+        }
     }
 
 
-    @RolesAllowed("oability")
+    @PermitAll
     public void sendOpsNewAuthorizationEmail(String linkHostName) throws UserFriendlyException {
 
         String toCsv = System.getenv("BA_PERMISSIONS_EMAIL_CSV");
@@ -233,18 +499,48 @@ public class AuthorizationFacade extends AbstractFacade<Authorization> {
         emailService.sendEmail(sender, sender, toCsv, subject, body, true);
     }
 
-    @RolesAllowed("oability")
-    public long sendELog(String proxyServerName, String logbookServerName) throws UserFriendlyException {
-        String username = checkAuthenticated();
+    /**
+     * Logs the given authorization (the one that was saved, not necessarily
+     * the current one by the time the message is delivered) with an image of
+     * its permissions.
+     *
+     * @param username The author
+     * @param authorizationId The authorization ID, or null for the current one
+     * @param proxyServerName The proxy server host name
+     * @param logbookServerName The logbook server host name
+     * @return The log ID
+     * @throws UserFriendlyException If unable to send
+     */
+    @PermitAll
+    public long sendELog(String username, BigInteger authorizationId, String proxyServerName,
+            String logbookServerName) throws UserFriendlyException {
+        Authorization current = findCurrent();
 
-        Authorization authorization = findCurrent();
+        Authorization authorization = authorizationId == null ? current : find(authorizationId);
 
         if (authorization == null) {
             throw new UserFriendlyException("No authorizations found");
         }
 
-        //String body = getELogHTMLBody(authorization);
-        String body = getAlternateELogHTMLBody(proxyServerName);
+        boolean isCurrent = current != null && current.getAuthorizationId().equals(
+                authorization.getAuthorizationId());
+
+        byte[] screenshot = renderPermissionsScreenshot(authorization);
+
+        if (screenshot == null && isCurrent) {
+            try {
+                screenshot = grabPermissionsScreenshot(proxyServerName);
+            } catch (IOException e) {
+                throw new UserFriendlyException("Unable to send elog", e);
+            }
+        } else if (screenshot == null) {
+            // puppet-show captures the live page, which no longer shows this authorization
+            LOGGER.log(Level.WARNING,
+                    "Authorization {0} is no longer current; logging it without an image",
+                    authorization.getAuthorizationId());
+        }
+
+        String body = getAlternateELogHTMLBody(proxyServerName, screenshot != null);
 
         String subject = System.getenv("BA_PERMISSIONS_SUBJECT");
 
@@ -272,116 +568,63 @@ public class AuthorizationFacade extends AbstractFacade<Authorization> {
         long logId;
 
         //System.out.println(entry.getXML());
-        File tmpFile = null;
+        if (screenshot != null) {
+            try {
+                entry.addAttachment(new ByteArrayInputStream(screenshot), "Permissions",
+                        "image/png");
+            } catch (AttachmentSizeException | LogIOException e) {
+                throw new UserFriendlyException("Unable to send elog", e);
+            }
+        }
 
-        try {
-            SecurityUtil.disableServerCertificateCheck();
+        long start = System.nanoTime();
+        boolean success = false;
 
-            tmpFile = grabPermissionsScreenshot(proxyServerName);
-            entry.addAttachment(tmpFile.getAbsolutePath());
+        try {
             logId = entry.submitNow();
-
-            SecurityUtil.disableServerCertificateCheck();
-        } catch (IOException | AttachmentSizeException | LogIOException | LogRuntimeException | LogCertificateException | KeyManagementException | NoSuchAlgorithmException e) {
+            success = true;
+        } catch (LogIOException | LogRuntimeException | LogCertificateException e) {
             throw new UserFriendlyException("Unable to send elog", e);
         } finally {
-            if (tmpFile != null) {
-                boolean deleted = tmpFile.delete();
-                if (!deleted) {
-                    LOGGER.log(Level.WARNING, "Temporary image file was not deleted {0}",
-                            tmpFile.getAbsolutePath());
-                }
-            }
+            httpClient.record("logbook", System.nanoTime() - start, success);
         }
 
         return logId;
     }
 
-    private String getELogHTMLBody(Authorization authorization) {
-        StringBuilder builder = new StringBuilder();
-
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm");
-
-        List<DestinationAuthorization> destinationAuthorizationList
-                = authorization.getDestinationAuthorizationList();
-
-        builder.append("<div><b>Beam Authorizations:</b>\n");
-        if (destinationAuthorizationList != null && !destinationAuthorizationList.isEmpty()) {
-            builder.append(
-                    "<table><thead><tr><th>Beam Destination</th><th>Beam Mode</th><th>CW Current Limit</th></tr></thead><tbody>\n");
-            for (DestinationAuthorization da : destinationAuthorizationList) {
-                BeamDestination destination = destinationFacade.find(
-                        da.getDestinationAuthorizationPK().getBeamDestinationId());
-
-                Map<BigInteger, String> unitsMap = this.getUnitsMap();
-                String units;
-
-                if (da.getCwLimit() == null) {
-                    units = "";
-                } else {
-                    units = unitsMap.get(destination.getBeamDestinationId());
-                    if (units == null) {
-                        units = "uA";
-                    }
-                }
-
-                builder.append("<tr><td>");
-                builder.append(IOUtil.escapeXml(BeamAuthFunctions.formatDestination(destination)));
-                builder.append("</td><td>");
-                builder.append(da.getBeamMode());
-                builder.append("</td><td>");
-                builder.append(
-                        da.getCwLimit() == null ? ("CW".equals(da.getBeamMode()) ? "No Limit" : "No CW") : da.getCwLimit());
-                builder.append(units);
-                builder.append("</td></tr>\n");
-            }
-            builder.append("</tbody></table>\n");
-        } else {
-            builder.append("None\n");
+    /**
+     * Draws the permissions in process. Returns null if that fails (e.g. no
+     * fonts are available to a headless JVM) so the caller can fall back to the
+     * puppet-show screenshot.
+     */
+    private byte[] renderPermissionsScreenshot(Authorization authorization) {
+        try {
+            return PermissionsImageRenderer.renderPng(new AuthorizationSnapshot(authorization),
+                    destinationFacade.findActiveDestinations(), System.currentTimeMillis());
+        } catch (IOException | RuntimeException | LinkageError | AWTError e) {
+            LOGGER.log(Level.WARNING,
+                    "Unable to render permissions image, falling back to puppet-show", e);
+            return null;
         }
-        builder.append("</div><div>\n<b>Comments:</b> ");
-        builder.append(IOUtil.escapeXml(authorization.getComments()));
-        builder.append("</div><div>\n\n<b>Authorized By:</b> ");
-        builder.append(BeamAuthFunctions.formatStaff(authorization.getAuthorizedBy()));
-        builder.append("</div><div>\n\n<b>Authorized On:</b> ");
-        builder.append(formatter.format(authorization.getAuthorizationDate()));
-        builder.append(
-                "</div><div>\n\n<b>See:</b> <a href=\"http://accweb/beam-auth/\">Beam Authorization</a></div>\n");
-
-        return builder.toString();
     }
 
-    private File grabPermissionsScreenshot(String serviceHostname) throws MalformedURLException,
-            IOException {
-        URL url = new URL("https://" + serviceHostname + "/puppet-show/screenshot?url=https%3A%2F%2F"
+    private byte[] grabPermissionsScreenshot(String serviceHostname) throws IOException {
+        URI uri = URI.create("https://" + serviceHostname + "/puppet-show/screenshot?url=https%3A%2F%2F"
                 + serviceHostname
                 + "%2Fbeam-auth%2Fpermissions%3Fprint%3DY&fullPage=true&filename=beam-auth.png&ignoreHTTPSErrors=true");
 
-        LOGGER.log(Level.FINEST, "Fetching URL: {0}", url.toString());
-
-        File tmpFile = null;
-        InputStream in = null;
-        OutputStream out = null;
-
-        try {
-            URLConnection con = url.openConnection();
-            in = con.getInputStream();
-
-            tmpFile = File.createTempFile("beam-auth", ".png");
-            out = new FileOutputStream(tmpFile);
-            IOUtil.copy(in, out);
-
-        } finally {
-            IOUtil.close(in, out);
-        }
-        return tmpFile;
+        return httpClient.getBytes("puppet-show", uri);
     }
 
-    private String getAlternateELogHTMLBody(String serviceHostname) {
+    private String getAlternateELogHTMLBody(String serviceHostname, boolean figure) {
         StringBuilder builder = new StringBuilder();
 
+        if (figure) {
+            builder.append("[figure:1]");
+        }
+
         builder.append(
-                "[figure:1]<div>\n\n<b><span style=\"color: red;\">Always check the Beam Authorization web application for the latest credited controls status:</span></b> ");
+                "<div>\n\n<b><span style=\"color: red;\">Always check the Beam Authorization web application for the latest credited controls status:</span></b> ");
         builder.append("<a href=\"https://");
         builder.append(serviceHostname);
         builder.append("/beam-auth/\">Beam Authorization</a></div>\n");
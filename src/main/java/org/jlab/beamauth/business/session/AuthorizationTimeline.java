@@ -0,0 +1,237 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import org.jlab.beamauth.business.event.AuthorizationChangeEvent;
+
+/**
+ * Answers which authorization was in effect at a given instant without
+ * querying the authorization history. Holds a compact, append-only timeline of
+ * (modified date, authorization ID) pairs in the order authorizations became
+ * current, loaded once at startup and extended as authorizations commit, and
+ * binary-searches it.
+ * <p>
+ * Authorizations are keyed by modified date, not authorization date, because a
+ * revocation clone keeps the authorization date of the authorization it
+ * revises but only takes effect when it is saved. Authorizations saved on other
+ * cluster members are not observed here, so a lookup that lands on the newest
+ * entry first picks up anything modified after it.
+ * </p>
+ *
+ * @author ryans
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AuthorizationTimeline {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            AuthorizationTimeline.class.getName());
+
+    private final Object lock = new Object();
+    private volatile Timeline timeline = null; // Loaded on startup or first use
+
+    @EJB
+    AuthorizationFacade authorizationFacade;
+
+    @PostConstruct
+    private void init() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to load authorization timeline; will retry on use",
+                    e);
+        }
+    }
+
+    /**
+     * Returns the ID of the authorization in effect at the given instant: the
+     * last one modified at or before it.
+     *
+     * @param instant The instant
+     * @return The authorization ID or null if there were no authorizations yet
+     */
+    @PermitAll
+    public BigInteger findAuthorizationIdAsOf(Instant instant) {
+        long millis = instant.toEpochMilli();
+
+        Timeline current = load();
+
+        int index = current.indexAsOf(millis);
+
+        if (index == current.size - 1) {
+            current = catchUp(current);
+            index = current.indexAsOf(millis);
+        }
+
+        return index < 0 ? null : BigInteger.valueOf(current.ids[index]);
+    }
+
+    /**
+     * Returns the number of authorizations in the timeline.
+     *
+     * @return The size
+     */
+    @PermitAll
+    public int getSize() {
+        return load().size;
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeAuthorizationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) AuthorizationChangeEvent event) {
+        synchronized (lock) {
+            if (timeline != null) { // Otherwise the load includes it
+                timeline = timeline.append(event.getModifiedDate().getTime(),
+                        event.getAuthorizationId().longValue());
+            }
+        }
+    }
+
+    private Timeline load() {
+        Timeline current = timeline;
+
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (lock) {
+            if (timeline == null) {
+                Timeline loaded = new Timeline(new long[16], new long[16], 0);
+
+                for (Object[] row : authorizationFacade.findTimeline(null)) {
+                    loaded = loaded.append(((Date) row[0]).getTime(),
+                            ((BigInteger) row[1]).longValue());
+                }
+
+                LOGGER.log(Level.FINE, "Loaded authorization timeline of {0} authorizations",
+                        loaded.size);
+
+                timeline = loaded;
+            }
+
+            return timeline;
+        }
+    }
+
+    private Timeline catchUp(Timeline current) {
+        // Inclusive so another authorization modified in the same second is not missed
+        Date from = current.size == 0 ? null : new Date(current.millis[current.size - 1]);
+
+        List<Object[]> rowList = authorizationFacade.findTimeline(from);
+
+        if (rowList.size() <= (current.size == 0 ? 0 : 1)) {
+            return current;
+        }
+
+        synchronized (lock) {
+            for (Object[] row : rowList) {
+                timeline = timeline.append(((Date) row[0]).getTime(),
+                        ((BigInteger) row[1]).longValue());
+            }
+
+            return timeline;
+        }
+    }
+
+    /**
+     * Parallel arrays of modified millis and authorization ID sorted by both.
+     * Appending in order writes past the end of the shared arrays and returns a
+     * longer view, so readers of an older view are unaffected; appends are made
+     * under the lock and only to the latest view.
+     */
+    private static final class Timeline {
+
+        private final long[] millis;
+        private final long[] ids;
+        private final int size;
+
+        private Timeline(long[] millis, long[] ids, int size) {
+            this.millis = millis;
+            this.ids = ids;
+            this.size = size;
+        }
+
+        private int indexAsOf(long instant) {
+            int low = 0;
+            int high = size; // First index modified after instant is in [low, high]
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (millis[mid] <= instant) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low - 1;
+        }
+
+        private int compareTo(int index, long otherMillis, long otherId) {
+            int result = Long.compare(millis[index], otherMillis);
+
+            return result != 0 ? result : Long.compare(ids[index], otherId);
+        }
+
+        private Timeline append(long modifiedMillis, long entryId) {
+            // The column has whole seconds; truncate so an observed save matches its row
+            long entryMillis = modifiedMillis - Math.floorMod(modifiedMillis, 1000L);
+
+            if (size == 0 || compareTo(size - 1, entryMillis, entryId) < 0) {
+                long[] m = millis;
+                long[] i = ids;
+
+                if (size == m.length) {
+                    m = Arrays.copyOf(m, size * 2);
+                    i = Arrays.copyOf(i, size * 2);
+                }
+
+                m[size] = entryMillis;
+                i[size] = entryId;
+
+                return new Timeline(m, i, size + 1);
+            }
+
+            // Out of order (concurrent commits) or already present; rare, so copy
+            int position = 0;
+
+            while (position < size && compareTo(position, entryMillis, entryId) < 0) {
+                position++;
+            }
+
+            if (position < size && compareTo(position, entryMillis, entryId) == 0) {
+                return this;
+            }
+
+            long[] m = new long[Math.max(16, (size + 1) * 2)];
+            long[] i = new long[m.length];
+
+            System.arraycopy(millis, 0, m, 0, position);
+            System.arraycopy(ids, 0, i, 0, position);
+            m[position] = entryMillis;
+            i[position] = entryId;
+            System.arraycopy(millis, position, m, position + 1, size - position);
+            System.arraycopy(ids, position, i, position + 1, size - position);
+
+            return new Timeline(m, i, size + 1);
+        }
+    }
+}
@@ -3,15 +3,18 @@ package org.jlab.beamauth.business.session;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.security.PermitAll;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
-import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import org.jlab.beamauth.persistence.entity.BeamDestination;
 import org.jlab.beamauth.persistence.entity.ControlVerification;
+import org.jlab.beamauth.persistence.model.ActiveDestinations;
 
 /**
  *
@@ -31,36 +34,78 @@ public class BeamDestinationFacade extends AbstractFacade<BeamDestination> {
         super(BeamDestination.class);
     }
     
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the active destinations ordered by weight with their beam auth
+     * destination and verification status fetched in the same query (both
+     * are eager one-to-one associations that would otherwise be loaded one
+     * destination at a time).
+     *
+     * @return The active destinations
+     */
     @PermitAll
     public List<BeamDestination> findAllForBeamAuth() {
-        Query q = em.createNativeQuery("select * from beam_destination where beam_destination_id in (select beam_destination_id from beam_auth_destination where ACTIVE_YN = 'Y') order by weight", BeamDestination.class);
-        
+        TypedQuery<BeamDestination> q = em.createQuery(
+                "select a from BeamDestination a join fetch a.authDestination b left join fetch a.verification where b.active = true order by a.weight asc",
+                BeamDestination.class);
+
         return q.getResultList();
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the verification expiration dates (the earliest control
+     * verification expiration) of the active destinations that have one.
+     *
+     * @return The expiration dates
+     */
     @PermitAll
-    public List<BeamDestination> findCebafDestinations() {
-        Query q = em.createNativeQuery("select * from beam_destination where beam_destination_id in (select beam_destination_id from beam_auth_destination where machine = 'CEBAF' and ACTIVE_YN = 'Y') order by weight", BeamDestination.class);
-        
+    public List<Date> findVerificationExpirations() {
+        TypedQuery<Date> q = em.createQuery(
+                "select v.expirationDate from BeamDestination a join a.authDestination b join a.verification v where b.active = true and v.expirationDate is not null",
+                Date.class);
+
         return q.getResultList();
-    }    
-    
-    @SuppressWarnings("unchecked")
+    }
+
+    /**
+     * Loads all active destinations together with their machine, units,
+     * display name, and verification status in a single query.
+     *
+     * @return The active destinations grouped by machine
+     */
     @PermitAll
-    public List<BeamDestination> findLerfDestinations() {
-        Query q = em.createNativeQuery("select * from beam_destination where beam_destination_id in (select beam_destination_id from beam_auth_destination where machine = 'LERF'  and ACTIVE_YN = 'Y') order by weight", BeamDestination.class);
-        
-        return q.getResultList();
+    public ActiveDestinations findActiveDestinations() {
+        return new ActiveDestinations(findAllForBeamAuth());
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Loads the given destinations with their beam auth destination and
+     * verification status in a single query (rather than one find per
+     * destination, each of which eagerly loads both).
+     *
+     * @param destinationIdList The beam destination IDs
+     * @return The destinations keyed by beam destination ID; IDs that do not
+     * exist are absent
+     */
     @PermitAll
-    public List<BeamDestination> findUitfDestinations() {
-        Query q = em.createNativeQuery("select * from beam_destination where beam_destination_id in (select beam_destination_id from beam_auth_destination where machine = 'UITF'  and ACTIVE_YN = 'Y') order by weight", BeamDestination.class);
+    public Map<BigInteger, BeamDestination> findWithVerification(
+            List<BigInteger> destinationIdList) {
+        Map<BigInteger, BeamDestination> destinationMap = new HashMap<>();
 
-        return q.getResultList();
+        if (destinationIdList == null || destinationIdList.isEmpty()) {
+            return destinationMap;
+        }
+
+        TypedQuery<BeamDestination> q = em.createQuery(
+                "select a from BeamDestination a left join fetch a.authDestination left join fetch a.verification where a.beamDestinationId in :destinationIdList",
+                BeamDestination.class);
+
+        q.setParameter("destinationIdList", destinationIdList);
+
+        for (BeamDestination destination : q.getResultList()) {
+            destinationMap.put(destination.getBeamDestinationId(), destination);
+        }
+
+        return destinationMap;
     }
 
     @PermitAll
@@ -1,7 +1,6 @@
 package org.jlab.beamauth.business.session;
 
 import java.math.BigInteger;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -10,29 +9,33 @@ import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
-import javax.mail.MessagingException;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import org.jlab.beamauth.business.event.AuthorizationChangeEvent;
+import org.jlab.beamauth.business.event.VerificationChangeEvent;
+import org.jlab.beamauth.business.util.NotificationBodies;
 import org.jlab.beamauth.persistence.entity.Authorization;
 import org.jlab.beamauth.persistence.entity.BeamDestination;
 import org.jlab.beamauth.persistence.entity.ControlVerification;
 import org.jlab.beamauth.persistence.entity.CreditedControl;
 import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
 import org.jlab.beamauth.persistence.entity.DestinationAuthorizationPK;
+import org.jlab.beamauth.persistence.entity.SentNotification;
 import org.jlab.beamauth.persistence.entity.Staff;
 import org.jlab.beamauth.persistence.entity.VerificationHistory;
 import org.jlab.beamauth.persistence.entity.Workgroup;
-import org.jlab.beamauth.presentation.util.BeamAuthFunctions;
+import org.jlab.beamauth.persistence.enumeration.NotificationEvent;
+import org.jlab.beamauth.persistence.enumeration.OutboxMessageType;
 import org.jlab.jlog.Body;
 import org.jlab.jlog.Library;
 import org.jlab.jlog.LogEntry;
 import org.jlab.jlog.LogEntryAdminExtension;
 import org.jlab.smoothness.business.exception.UserFriendlyException;
 import org.jlab.smoothness.business.service.EmailService;
-import org.jlab.smoothness.business.util.IOUtil;
-import org.jlab.smoothness.business.util.TimeUtil;
 
 /**
  *
@@ -44,6 +47,10 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
 
     private static final Logger LOGGER = Logger.getLogger(
             ControlVerificationFacade.class.getName());
+    /**
+     * How long a sent notice is remembered past its expiration date.
+     */
+    private static final long SENT_NOTIFICATION_RETENTION_MILLIS = 31L * 24 * 60 * 60 * 1000;
     @PersistenceContext(unitName = "beam-authorizationPU")
     private EntityManager em;
     @EJB
@@ -56,6 +63,22 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
     AuthorizationFacade authorizationFacade;
     @EJB
     BeamDestinationFacade beamDestinationFacade;
+    @EJB
+    OutboxMessageFacade outboxFacade;
+    @EJB
+    DestinationAuthorizationChangeFacade changeFacade;
+    @EJB
+    OutboundHttpClient httpClient;
+    @EJB
+    MailDispatcher mailDispatcher;
+    @EJB
+    SentNotificationFacade sentNotificationFacade;
+    @EJB
+    MetricsRegistry metrics;
+    @Inject
+    Event<AuthorizationChangeEvent> authorizationChangeEvent;
+    @Inject
+    Event<VerificationChangeEvent> verificationChangeEvent;
 
     @Override
     protected EntityManager getEntityManager() {
@@ -98,6 +121,9 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
         } else {
             remove(verification);
         }
+
+        verificationChangeEvent.fire(new VerificationChangeEvent(
+                Collections.singletonList(verification.getControlVerificationId()), null, null));
     }
 
     @PermitAll
@@ -210,8 +236,17 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
             em.persist(history);
         }
 
+        verificationChangeEvent.fire(new VerificationChangeEvent(Arrays.asList(
+                controlVerificationIdArray), verificationId, expirationDate));
+
         if (!downgradeList.isEmpty()) {
             clearDirectorPermissionForDowngrade(downgradeList);
+
+            String body = getVerificationDowngradedMessageBody(System.getenv("PROXY_HOSTNAME"),
+                    downgradeList);
+
+            outboxFacade.enqueue(OutboxMessageType.VERIFICATION_DOWNGRADED_ELOG, username, body);
+            outboxFacade.enqueue(OutboxMessageType.VERIFICATION_DOWNGRADED_EMAIL, username, body);
         }
 
         return downgradeList;
@@ -223,133 +258,36 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
             List<ControlVerification> expiredVerificationList,
             List<DestinationAuthorization> upcomingAuthorizationExpirationList,
             List<ControlVerification> upcomingVerificationExpirationList) {
-        StringBuilder builder = new StringBuilder();
-
-        SimpleDateFormat formatter = new SimpleDateFormat(TimeUtil.getFriendlyDateTimePattern());
-
-        if (expiredAuthorizationList != null && !expiredAuthorizationList.isEmpty()) {
-            builder.append("<h1>--- Expired Director's Authorizations ---</h1>\n");
-            for (DestinationAuthorization authorization : expiredAuthorizationList) {
-                builder.append("</div>\n<div><b>Beam Destination:</b> ");
-                builder.append(BeamAuthFunctions.formatDestination(authorization.getDestination()));
-                builder.append("</div>\n<div><b>Expired On:</b> ");
-                builder.append(formatter.format(authorization.getExpirationDate()));
-                builder.append("</div>\n<div><b>Comments:</b> ");
-                builder.append(IOUtil.escapeXml(
-                        authorization.getComments() == null ? "" : authorization.getComments()));
-                builder.append("<br/><br/>\n");
-            }
-        }
-
-        if (expiredVerificationList != null && !expiredVerificationList.isEmpty()) {
-            builder.append("<h1>--- Expired Credited Control Verifications ---</h1>\n");
-
-            for (ControlVerification v : expiredVerificationList) {
-
-                builder.append("<div><b>Credited Control:</b> ");
-                builder.append(v.getCreditedControl().getName());
-                builder.append("</div>\n<div><b>Beam Destination:</b> ");
-                builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
-                builder.append("</div>\n<div><b>Verified On:</b> ");
-                builder.append(formatter.format(v.getVerificationDate()));
-                builder.append("</div>\n<div><b>Verified By:</b> ");
-                builder.append(BeamAuthFunctions.formatStaff(v.getVerifiedBy()));
-                builder.append("</div>\n<div><b>Expired On:</b> ");
-                builder.append(formatter.format(v.getExpirationDate()));
-                builder.append("</div>\n<div><b>Comments:</b> ");
-                builder.append(IOUtil.escapeXml(v.getComments() == null ? "" : v.getComments()));
-                builder.append("<br/><br/>\n");
-            }
-
-            builder.append("<br/><br/>\n");
-        }
-
-        if (upcomingAuthorizationExpirationList != null
-                && !upcomingAuthorizationExpirationList.isEmpty()) {
-            builder.append("<h1>--- Director's Authorizations Expiring Soon ---</h1>\n");
-
-            for (DestinationAuthorization authorization : upcomingAuthorizationExpirationList) {
-
-                builder.append("<div><b>Beam Destination:</b> ");
-                builder.append(BeamAuthFunctions.formatDestination(authorization.getDestination()));
-                builder.append("</div>\n<div><b>Expires On:</b> ");
-                builder.append(formatter.format(authorization.getExpirationDate()));
-                builder.append("</div>\n<div><b>Comments:</b> ");
-                builder.append(IOUtil.escapeXml(
-                        authorization.getComments() == null ? "" : authorization.getComments()));
-                builder.append("<br/><br/>\n");
-            }
-
-            builder.append("<br/><br/>\n");
-        }
+        List<BigInteger> destinationIdList = new ArrayList<>();
 
-        if (upcomingVerificationExpirationList != null
-                && !upcomingVerificationExpirationList.isEmpty()) {
-            builder.append("<h1>--- Credited Control Verifications Expiring Soon ---</h1>\n");
-
-            for (ControlVerification v : upcomingVerificationExpirationList) {
-
-                builder.append("<div><b>Credited Control:</b> ");
-                builder.append(v.getCreditedControl().getName());
-                builder.append("</div>\n<div><b>Beam Destination:</b> ");
-                builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
-                builder.append("</div>\n<div><b>Verified On:</b> ");
-                builder.append(formatter.format(v.getVerificationDate()));
-                builder.append("</div>\n<div><b>Verified By:</b> ");
-                builder.append(BeamAuthFunctions.formatStaff(v.getVerifiedBy()));
-                builder.append("</div>\n<div><b>Expiring On:</b> ");
-                builder.append(formatter.format(v.getExpirationDate()));
-                builder.append("</div>\n<div><b>Comments:</b> ");
-                builder.append(IOUtil.escapeXml(v.getComments() == null ? "" : v.getComments()));
-                builder.append("<br/><br/>\n");
+        for (List<DestinationAuthorization> list : Arrays.asList(expiredAuthorizationList,
+                upcomingAuthorizationExpirationList)) {
+            if (list != null) {
+                for (DestinationAuthorization da : list) {
+                    destinationIdList.add(da.getDestinationAuthorizationPK().getBeamDestinationId());
+                }
             }
         }
 
-        builder.append("<br/><br/>\n");
-        builder.append("</div><div>\n\n<b>See:</b> <a href=\"https://").append(proxyServerName).append(
-                "/beam-auth/\">Beam Authorization</a></div>\n");
+        // One query rather than a lazy load of each destination while rendering
+        Map<BigInteger, BeamDestination> destinationMap
+                = beamDestinationFacade.findWithVerification(destinationIdList);
 
-        return builder.toString();
+        return NotificationBodies.buildExpiredMessage(proxyServerName, destinationMap,
+                expiredAuthorizationList, expiredVerificationList,
+                upcomingAuthorizationExpirationList, upcomingVerificationExpirationList);
     }
 
     @PermitAll
     public String getVerificationDowngradedMessageBody(String proxyServerName,
             List<ControlVerification> downgradeList) {
-        StringBuilder builder = new StringBuilder();
-
-        SimpleDateFormat formatter = new SimpleDateFormat(TimeUtil.getFriendlyDateTimePattern());
-
-        ControlVerification verification = downgradeList.get(0);
-
-        builder.append("<div><b>Credited Control:</b> ");
-        builder.append(verification.getCreditedControl().getName());
-        builder.append("</div>\n<div><b>Beam Destinations:</b> ");
-        for (ControlVerification v : downgradeList) {
-            builder.append("<div>");
-            builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
-            builder.append("</div>");
-        }
-        builder.append("</div>\n<div><b>Modified On:</b> ");
-        builder.append(formatter.format(verification.getVerificationDate()));
-        builder.append("</div>\n<div><b>Modified By:</b> ");
-        builder.append(BeamAuthFunctions.formatStaff(verification.getVerifiedBy()));
-        builder.append("</div>\n<div><b>Verification:</b> ");
-        builder.append(
-                verification.getVerificationId() == 1 ? "Verified" : (verification.getVerificationId()
-                == 50 ? "Provisionally Verified" : "Not Verified"));
-        builder.append("</div>\n<div><b>Comments:</b> ");
-        builder.append(IOUtil.escapeXml(verification.getComments()));
-        builder.append("</div><div>\n\n<b>See:</b> <a href=\"https://").append(proxyServerName).append(
-                "/beam-auth/\">Beam Authorization</a></div>\n");
-
-        return builder.toString();
+        return NotificationBodies.buildVerificationDowngradedMessage(proxyServerName,
+                downgradeList);
     }
 
     @PermitAll
-    public long sendVerificationDowngradedELog(String body, String logbookServerName) throws
-            UserFriendlyException {
-        String username = checkAuthenticated();
-
+    public long sendVerificationDowngradedELog(String username, String body,
+            String logbookServerName) throws UserFriendlyException {
         String subject = System.getenv("BA_DOWNGRADED_SUBJECT");
 
         String logbooks = System.getenv("BA_BOOKS_CSV");
@@ -375,10 +313,16 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
 
         long logId;
 
+        long start = System.nanoTime();
+        boolean success = false;
+
         try {
             logId = entry.submitNow();
+            success = true;
         } catch (Exception e) {
             throw new UserFriendlyException("Unable to send elog", e);
+        } finally {
+            httpClient.record("logbook", System.nanoTime() - start, success);
         }
 
         return logId;
@@ -434,6 +378,11 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
     public void revokeExpiredAuthorizations(List<DestinationAuthorization> authorizationList) {
         LOGGER.log(Level.FINEST, "I think I've got something authorization-wise to downgrade");
         this.clearDirectorPermissionByDestinationAuthorization(authorizationList);
+
+        if (authorizationList != null) {
+            metrics.add("beamauth_revocations_total", "type", "authorization",
+                    authorizationList.size());
+        }
     }
 
     @PermitAll
@@ -456,11 +405,15 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
 
         q.executeUpdate();
 
+        verificationChangeEvent.fire(new VerificationChangeEvent(expiredIdList, 100, null));
+
         insertExpiredHistory(expiredList, modifiedDate);
 
         em.flush();
 
         clearDirectorPermissionForExpired(expiredList);
+
+        metrics.add("beamauth_revocations_total", "type", "verification", expiredIdList.size());
     }
 
     @PermitAll
@@ -481,7 +434,7 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
             reason = "downgrade";
         }
 
-        Authorization authorization = authorizationFacade.findCurrent();
+        Authorization authorization = authorizationFacade.findCurrentForUpdate();
 
         Authorization authClone = authorization.createAdminClone();
         //authClone.setDestinationAuthorizationList(new ArrayList<>());
@@ -525,12 +478,20 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
                 da.setDestinationAuthorizationPK(pk);
                 em.persist(da);
             }
+
+            authorizationFacade.advanceCurrent(authorization.getAuthorizationId(),
+                    authClone.getAuthorizationId());
+
+            changeFacade.recordChanges(authorization, authClone, newList);
+
+            authorizationChangeEvent.fire(new AuthorizationChangeEvent(authClone.getAuthorizationId(),
+                    authClone.getModifiedDate()));
         }
     }
 
     private void clearDirectorPermissionByDestinationAuthorization(
             List<DestinationAuthorization> destinationList) {
-        Authorization authorization = authorizationFacade.findCurrent();
+        Authorization authorization = authorizationFacade.findCurrentForUpdate();
 
         Authorization authClone = authorization.createAdminClone();
         //authClone.setDestinationAuthorizationList(new ArrayList<>());
@@ -569,6 +530,14 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
                 da.setDestinationAuthorizationPK(pk);
                 em.persist(da);
             }
+
+            authorizationFacade.advanceCurrent(authorization.getAuthorizationId(),
+                    authClone.getAuthorizationId());
+
+            changeFacade.recordChanges(authorization, authClone, newList);
+
+            authorizationChangeEvent.fire(new AuthorizationChangeEvent(authClone.getAuthorizationId(),
+                    authClone.getModifiedDate()));
         }
     }
 
@@ -620,12 +589,34 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
         return upcomingExpirations;
     }
 
-    @PermitAll
-    public void notifyAdmins(List<DestinationAuthorization> expiredAuthorizationList,
+    private Notice createAdminNotice(List<DestinationAuthorization> expiredAuthorizationList,
             List<ControlVerification> expiredVerificationList,
             List<DestinationAuthorization> upcomingAuthorizationExpirationList,
             List<ControlVerification> upcomingVerificationExpirationList,
-            String proxyServerName) throws MessagingException, UserFriendlyException {
+            String proxyServerName, Set<String> sentKeys) {
+        String recipient = "admins";
+        List<SentNotification> recordList = new ArrayList<>();
+
+        expiredAuthorizationList = filterUnsentAuthorizations(recipient,
+                NotificationEvent.AUTHORIZATION_EXPIRED, expiredAuthorizationList, sentKeys,
+                recordList);
+        expiredVerificationList = filterUnsentVerifications(recipient,
+                NotificationEvent.VERIFICATION_EXPIRED, expiredVerificationList, sentKeys,
+                recordList);
+        upcomingAuthorizationExpirationList = filterUnsentAuthorizations(recipient,
+                NotificationEvent.AUTHORIZATION_EXPIRING, upcomingAuthorizationExpirationList,
+                sentKeys, recordList);
+        upcomingVerificationExpirationList = filterUnsentVerifications(recipient,
+                NotificationEvent.VERIFICATION_EXPIRING, upcomingVerificationExpirationList,
+                sentKeys, recordList);
+
+        if (expiredAuthorizationList.isEmpty() && expiredVerificationList.isEmpty()
+                && upcomingAuthorizationExpirationList.isEmpty()
+                && upcomingVerificationExpirationList.isEmpty()) {
+            LOGGER.log(Level.FINEST, "Nothing new to notify admins about");
+            return null;
+        }
+
         String toCsv = System.getenv("BA_UPCOMING_EXPIRATION_EMAIL_CSV");
 
         String subject = System.getenv("BA_UPCOMING_EXPIRATION_SUBJECT");
@@ -635,17 +626,29 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
                 upcomingAuthorizationExpirationList,
                 upcomingVerificationExpirationList);
 
-        EmailService emailService = new EmailService();
-
         String sender = System.getenv("BA_EMAIL_SENDER");
 
-        emailService.sendEmail(sender, sender, toCsv, subject, body, true);
+        return new Notice(new MailDispatcher.Mail(sender, toCsv, subject, body), recordList);
     }
 
-    @PermitAll
-    public void notifyOps(List<DestinationAuthorization> expiredAuthorizationList,
+    private Notice createOpsNotice(List<DestinationAuthorization> expiredAuthorizationList,
             List<ControlVerification> expiredVerificationList,
-            String proxyServerName) throws MessagingException, UserFriendlyException {
+            String proxyServerName, Set<String> sentKeys) {
+        String recipient = "ops";
+        List<SentNotification> recordList = new ArrayList<>();
+
+        expiredAuthorizationList = filterUnsentAuthorizations(recipient,
+                NotificationEvent.AUTHORIZATION_EXPIRED, expiredAuthorizationList, sentKeys,
+                recordList);
+        expiredVerificationList = filterUnsentVerifications(recipient,
+                NotificationEvent.VERIFICATION_EXPIRED, expiredVerificationList, sentKeys,
+                recordList);
+
+        if (expiredAuthorizationList.isEmpty() && expiredVerificationList.isEmpty()) {
+            LOGGER.log(Level.FINEST, "Nothing new to notify ops about");
+            return null;
+        }
+
         String toCsv = System.getenv("BA_EXPIRED_EMAIL_CSV");
 
         String subject = System.getenv("BA_EXPIRED_SUBJECT");
@@ -653,18 +656,16 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
         String body = getExpiredMessageBody(proxyServerName, expiredAuthorizationList,
                 expiredVerificationList, null, null);
 
-        EmailService emailService = new EmailService();
-
         String sender = System.getenv("BA_EMAIL_SENDER");
 
-        emailService.sendEmail(sender, sender, toCsv, subject, body, true);
-        LOGGER.log(Level.FINEST, "notifyOps, toCsv: {0], body: {1}", new Object[]{toCsv, body});
+        LOGGER.log(Level.FINEST, "notifyOps, toCsv: {0}, body: {1}", new Object[]{toCsv, body});
+
+        return new Notice(new MailDispatcher.Mail(sender, toCsv, subject, body), recordList);
     }
 
-    @PermitAll
-    public void notifyGroups(List<ControlVerification> expiredList,
+    private List<Notice> createGroupNotices(List<ControlVerification> expiredList,
             List<ControlVerification> upcomingExpirationsList,
-            String proxyServerName) throws MessagingException, UserFriendlyException {
+            String proxyServerName, Set<String> sentKeys) {
         Map<Workgroup, List<ControlVerification>> expiredGroupMap = new HashMap<>();
         Map<Workgroup, List<ControlVerification>> upcomingExpirationGroupMap = new HashMap<>();
 
@@ -705,6 +706,10 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
         Set<Workgroup> allGroups = new HashSet<>(expiredGroupMap.keySet());
         allGroups.addAll(upcomingExpirationGroupMap.keySet());
 
+        String sender = System.getenv("BA_EMAIL_SENDER");
+
+        List<Notice> noticeList = new ArrayList<>();
+
         for (Workgroup w : allGroups) {
 
             List<String> toAddresses = new ArrayList<>();
@@ -717,33 +722,116 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
                 }
             }
 
-            List<ControlVerification> groupExpiredList = expiredGroupMap.get(w);
-            List<ControlVerification> groupUpcomingExpirationsList = upcomingExpirationGroupMap.get(
-                    w);
+            if (toAddresses.isEmpty()) {
+                continue;
+            }
 
-            String sender = System.getenv("BA_EMAIL_SENDER");
+            String recipient = "workgroup-" + w.getWorkgroupId();
+            List<SentNotification> recordList = new ArrayList<>();
+
+            List<ControlVerification> groupExpiredList = filterUnsentVerifications(recipient,
+                    NotificationEvent.VERIFICATION_EXPIRED, expiredGroupMap.get(w), sentKeys,
+                    recordList);
+            List<ControlVerification> groupUpcomingExpirationsList = filterUnsentVerifications(
+                    recipient, NotificationEvent.VERIFICATION_EXPIRING,
+                    upcomingExpirationGroupMap.get(w), sentKeys, recordList);
+
+            if (groupExpiredList.isEmpty() && groupUpcomingExpirationsList.isEmpty()) {
+                LOGGER.log(Level.FINEST, "Nothing new to notify {0} about", recipient);
+                continue;
+            }
 
             String body = getExpiredMessageBody(proxyServerName, null, groupExpiredList,
                     null, groupUpcomingExpirationsList);
 
-            if (!toAddresses.isEmpty()) {
-                EmailService emailService = new EmailService();
+            String toCsv = String.join(",", toAddresses);
 
-                String toCsv = toAddresses.get(0);
+            if("accweb.acc.jlab.org".equals(proxyServerName)) {
+                noticeList.add(new Notice(new MailDispatcher.Mail(sender, toCsv, subject, body),
+                        recordList));
+            } else {
+                LOGGER.log(Level.FINEST, "notifyGroups, toCsv: {0}, body: {1}", new Object[]{toCsv, body});
+            }
+        }
 
-                for(int i = 1; i < toAddresses.size(); i++) {
-                    toCsv = toCsv + "," + toAddresses.get(i);
+        return noticeList;
+    }
+
+    private static List<DestinationAuthorization> filterUnsentAuthorizations(String recipient,
+            NotificationEvent event, List<DestinationAuthorization> authorizationList,
+            Set<String> sentKeys, List<SentNotification> recordList) {
+        List<DestinationAuthorization> unsentList = new ArrayList<>();
+
+        if (authorizationList != null) {
+            for (DestinationAuthorization da : authorizationList) {
+                if (isUnsent(recipient, event,
+                        da.getDestinationAuthorizationPK().getBeamDestinationId(),
+                        da.getExpirationDate(), sentKeys, recordList)) {
+                    unsentList.add(da);
                 }
+            }
+        }
+
+        return unsentList;
+    }
 
-                if("accweb.acc.jlab.org".equals(proxyServerName)) {
-                    emailService.sendEmail(sender, sender, toCsv, subject, body, true);
-                } else {
-                    LOGGER.log(Level.FINEST, "notifyGroups, toCsv: {0}, body: {1}", new Object[]{toCsv, body});
+    private static List<ControlVerification> filterUnsentVerifications(String recipient,
+            NotificationEvent event, List<ControlVerification> verificationList,
+            Set<String> sentKeys, List<SentNotification> recordList) {
+        List<ControlVerification> unsentList = new ArrayList<>();
+
+        if (verificationList != null) {
+            for (ControlVerification v : verificationList) {
+                if (isUnsent(recipient, event, v.getControlVerificationId(),
+                        v.getExpirationDate(), sentKeys, recordList)) {
+                    unsentList.add(v);
                 }
             }
         }
+
+        return unsentList;
     }
 
+    /**
+     * Returns whether the recipient has not yet been sent the notice, and if
+     * not adds the record to save once it is.
+     */
+    private static boolean isUnsent(String recipient, NotificationEvent event, BigInteger itemId,
+            Date expirationDate, Set<String> sentKeys, List<SentNotification> recordList) {
+        if (expirationDate == null) {
+            return true; // Can't be keyed so always included (and never recorded)
+        }
+
+        if (sentKeys.contains(SentNotificationFacade.key(recipient, event, itemId,
+                expirationDate))) {
+            return false;
+        }
+
+        SentNotification record = new SentNotification();
+        record.setRecipient(recipient);
+        record.setEventType(event);
+        record.setItemId(itemId);
+        record.setExpirationDate(expirationDate);
+
+        recordList.add(record);
+
+        return true;
+    }
+
+    /**
+     * Emails the admins, ops (if anything expired), and the group leaders of
+     * controls with expired or expiring verifications, each about only what
+     * they have not already been sent (see SentNotificationFacade); a
+     * recipient with nothing new gets no email. The bodies are rendered here,
+     * since they read the entities of this persistence context, and then all
+     * emails are sent together by the MailDispatcher.
+     *
+     * @param expiredAuthorizationList The expired destination authorizations
+     * @param expiredVerificationList The expired verifications
+     * @param upcomingAuthorizationExpirationList The destination authorizations
+     * expiring soon
+     * @param upcomingVerificationExpirationList The verifications expiring soon
+     */
     @PermitAll
     public void notifyUsersOfExpirationsAndUpcomingExpirations(
             List<DestinationAuthorization> expiredAuthorizationList,
@@ -764,36 +852,139 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
             LOGGER.log(Level.FINEST, "Notifying users");
             String proxyServerName = System.getenv("PROXY_HOSTNAME");
 
+            Set<String> sentKeys = sentNotificationFacade.findSentKeys();
 
+            List<Notice> noticeList = new ArrayList<>();
 
             try {
                 // Admins
-                notifyAdmins(expiredAuthorizationList, expiredVerificationList,
-                        upcomingAuthorizationExpirationList,
-                        upcomingVerificationExpirationList, proxyServerName);
-
-                    // Ops
-                    if (expiredAuth || expiredVer) {
-                        notifyOps(expiredAuthorizationList, expiredVerificationList,
-                                proxyServerName);
-                    }
-
-                    // Groups
-                    if (expiredVer || upcomingVer) {
-                        notifyGroups(expiredVerificationList, upcomingVerificationExpirationList,
-                                proxyServerName);
-                    }
+                noticeList.add(createAdminNotice(expiredAuthorizationList,
+                        expiredVerificationList, upcomingAuthorizationExpirationList,
+                        upcomingVerificationExpirationList, proxyServerName, sentKeys));
+
+                // Ops
+                if (expiredAuth || expiredVer) {
+                    noticeList.add(createOpsNotice(expiredAuthorizationList,
+                            expiredVerificationList, proxyServerName, sentKeys));
+                }
 
-            } catch (MessagingException | NullPointerException | UserFriendlyException e) {
+                // Groups
+                if (expiredVer || upcomingVer) {
+                    noticeList.addAll(createGroupNotices(expiredVerificationList,
+                            upcomingVerificationExpirationList, proxyServerName, sentKeys));
+                }
+            } catch (NullPointerException e) {
                 LOGGER.log(Level.WARNING, "Unable to send email", e);
             }
+
+            noticeList.removeIf(Objects::isNull);
+
+            List<MailDispatcher.Mail> mailList = new ArrayList<>();
+
+            for (Notice notice : noticeList) {
+                mailList.add(notice.mail);
+            }
+
+            Set<MailDispatcher.Mail> sentSet = Collections.newSetFromMap(
+                    new IdentityHashMap<>());
+
+            sentSet.addAll(mailDispatcher.sendAll(mailList));
+
+            Date now = new Date();
+
+            for (Notice notice : noticeList) {
+                if (sentSet.contains(notice.mail)) {
+                    for (SentNotification record : notice.recordList) {
+                        record.setSentDate(now);
+                        sentNotificationFacade.create(record);
+                    }
+                }
+            }
         } else {
             LOGGER.log(Level.FINEST, "Nothing to notify users about");
         }
     }
 
+    /**
+     * Returns the ID and expiration date of each verified or provisionally
+     * verified control verification with an expiration for an active beam
+     * destination.
+     *
+     * @return The list of [controlVerificationId, expirationDate] pairs
+     */
+    @PermitAll
+    public List<Object[]> findVerificationExpirations() {
+        TypedQuery<Object[]> q = em.createQuery(
+                "select a.controlVerificationId, a.expirationDate from ControlVerification a where a.verificationId in (1, 50) and a.expirationDate is not null and a.beamDestination.authDestination.active = true",
+                Object[].class);
+
+        return q.getResultList();
+    }
+
+    /**
+     * Revokes the given control verifications and destination authorizations
+     * of the current authorization if they have expired as of the given date.
+     * Unlike performExpirationCheck this only looks up the given rows by key.
+     *
+     * @param controlVerificationIdList The control verification IDs to check
+     * @param beamDestinationIdList The beam destination IDs to check
+     * @param asOf The date to consider expirations against
+     */
+    @PermitAll
+    public void performExpiration(List<BigInteger> controlVerificationIdList,
+            List<BigInteger> beamDestinationIdList, Date asOf) {
+        long start = System.nanoTime();
+
+        List<DestinationAuthorization> expiredAuthorizationList = new ArrayList<>();
+
+        if (!beamDestinationIdList.isEmpty()) {
+            Authorization auth = authorizationFacade.findCurrent();
+
+            if (auth != null) {
+                TypedQuery<DestinationAuthorization> q = em.createQuery(
+                        "select a from DestinationAuthorization a where a.authorization.authorizationId = :authId and a.destinationAuthorizationPK.beamDestinationId in :destinationIds and a.expirationDate <= :asOf and a.beamMode != 'None' and a.destination.authDestination.active = true order by a.destinationAuthorizationPK.beamDestinationId asc",
+                        DestinationAuthorization.class);
+
+                q.setParameter("authId", auth.getAuthorizationId());
+                q.setParameter("destinationIds", beamDestinationIdList);
+                q.setParameter("asOf", asOf);
+
+                expiredAuthorizationList = q.getResultList();
+
+                if (!expiredAuthorizationList.isEmpty()) {
+                    revokeExpiredAuthorizations(expiredAuthorizationList);
+                }
+            }
+        }
+
+        List<ControlVerification> expiredVerificationList = new ArrayList<>();
+
+        if (!controlVerificationIdList.isEmpty()) {
+            TypedQuery<ControlVerification> q = em.createQuery(
+                    "select a from ControlVerification a join fetch a.creditedControl where a.controlVerificationId in :ids and a.expirationDate <= :asOf and a.beamDestination.authDestination.active = true and a.verificationId in (1, 50) order by a.creditedControl.weight asc",
+                    ControlVerification.class);
+
+            q.setParameter("ids", controlVerificationIdList);
+            q.setParameter("asOf", asOf);
+
+            expiredVerificationList = q.getResultList();
+
+            if (!expiredVerificationList.isEmpty()) {
+                revokeExpiredVerifications(expiredVerificationList);
+            }
+        }
+
+        notifyUsersOfExpirationsAndUpcomingExpirations(expiredAuthorizationList,
+                expiredVerificationList, null, null);
+
+        metrics.time("beamauth_expiration_check_seconds", "type", "scheduled", System.nanoTime()
+                - start);
+    }
+
     @PermitAll
     public void performExpirationCheck(boolean checkForUpcoming) {
+        long start = System.nanoTime();
+
         LOGGER.log(Level.FINEST, "Expiration Check: Director's authorizations...");
         Authorization auth = authorizationFacade.findCurrent();
         List<DestinationAuthorization> expiredAuthorizationList = checkForAuthorizedButExpired(auth);
@@ -816,6 +1007,11 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
                     "Expiration Check: Checking for upcoming verification expirations...");
             upcomingVerificationExpirationList = checkForUpcomingVerificationExpirations();
 
+            int pruned = sentNotificationFacade.deleteExpiredBefore(new Date(
+                    System.currentTimeMillis() - SENT_NOTIFICATION_RETENTION_MILLIS));
+            LOGGER.log(Level.FINEST, "Expiration Check: Pruned {0} sent notification records",
+                    pruned);
+
             LOGGER.log(Level.FINEST,
                     "Expiration Check: Checking for upcoming authorization expirations...");
             upcomingAuthorizationExpirationList = checkForUpcomingAuthorizationExpirations(auth);
@@ -824,6 +1020,9 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
         notifyUsersOfExpirationsAndUpcomingExpirations(expiredAuthorizationList,
                 expiredVerificationList, upcomingAuthorizationExpirationList,
                 upcomingVerificationExpirationList);
+
+        metrics.time("beamauth_expiration_check_seconds", "type", checkForUpcoming ? "daily"
+                : "check", System.nanoTime() - start);
     }
 
     @PermitAll
@@ -846,4 +1045,19 @@ public class ControlVerificationFacade extends AbstractFacade<ControlVerificatio
 
         return verification;
     }
+
+    /**
+     * An email along with the records of the notices in it, which are saved
+     * once it has been sent.
+     */
+    private static final class Notice {
+
+        private final MailDispatcher.Mail mail;
+        private final List<SentNotification> recordList;
+
+        private Notice(MailDispatcher.Mail mail, List<SentNotification> recordList) {
+            this.mail = mail;
+            this.recordList = recordList;
+        }
+    }
 }
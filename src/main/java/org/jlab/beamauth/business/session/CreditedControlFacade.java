@@ -10,7 +10,9 @@ import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
 import org.jlab.beamauth.persistence.entity.CreditedControl;
+import org.jlab.beamauth.persistence.model.ParticipationMatrix;
 import org.jlab.smoothness.persistence.util.JPAUtil;
 
 /**
@@ -25,6 +27,8 @@ public class CreditedControlFacade extends AbstractFacade<CreditedControl> {
 
     @EJB
     StaffFacade staffFacade;
+    @EJB
+    BeamDestinationFacade destinationFacade;
     
     @Override
     protected EntityManager getEntityManager() {
@@ -71,6 +75,34 @@ public class CreditedControlFacade extends AbstractFacade<CreditedControl> {
         return ccList;
     }
 
+    /**
+     * Builds the control participation grid with one query for the controls,
+     * one for the destinations, and one scalar projection for the cells
+     * (rather than initializing each control's verification list).
+     *
+     * @return The participation matrix
+     */
+    @PermitAll
+    public ParticipationMatrix findParticipationMatrix() {
+        TypedQuery<CreditedControl> controlQuery = em.createQuery(
+                "select a from CreditedControl a order by a.weight asc", CreditedControl.class);
+
+        List<BeamDestination> destinationList = destinationFacade.findAllForBeamAuth();
+
+        ParticipationMatrix matrix = new ParticipationMatrix(controlQuery.getResultList(),
+                destinationList);
+
+        TypedQuery<Object[]> cellQuery = em.createQuery(
+                "select a.creditedControl.creditedControlId, a.beamDestination.beamDestinationId, a.verificationId from ControlVerification a",
+                Object[].class);
+
+        for (Object[] row : cellQuery.getResultList()) {
+            matrix.put((BigInteger) row[0], (BigInteger) row[1], ((Number) row[2]).intValue());
+        }
+
+        return matrix;
+    }
+
     @RolesAllowed("oability")
     public void updateComments(BigInteger creditedControlId, String comments) {
         CreditedControl control = find(creditedControlId);
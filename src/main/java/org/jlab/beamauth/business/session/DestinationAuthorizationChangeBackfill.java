@@ -0,0 +1,91 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+/**
+ * Builds the per-destination authorization change timeline from existing
+ * authorization history shortly after startup, for any destination that does
+ * not have one yet (new install of the timeline or an earlier backfill that
+ * failed part way). Destinations are backfilled in parallel on the container's
+ * asynchronous EJB threads, each in its own transaction. New authorizations
+ * record their own changes, so once every destination is done this finds
+ * nothing to do.
+ *
+ * @author ryans
+ */
+@Singleton
+@Startup
+public class DestinationAuthorizationChangeBackfill {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            DestinationAuthorizationChangeBackfill.class.getName());
+
+    private static final long DELAY_MILLIS = 60 * 1000L;
+
+    @Resource
+    private TimerService timerService;
+    @EJB
+    DestinationAuthorizationChangeFacade changeFacade;
+
+    @PostConstruct
+    private void init() {
+        for (Timer t : timerService.getTimers()) {
+            t.cancel();
+        }
+
+        // Not in PostConstruct so deployment does not wait on reading the history
+        timerService.createSingleActionTimer(DELAY_MILLIS, new TimerConfig(null, false));
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    private void handleTimeout(Timer timer) {
+        List<BigInteger> destinationIdList = changeFacade.findBeamDestinationIdsToBackfill();
+
+        if (destinationIdList.isEmpty()) {
+            return;
+        }
+
+        LOGGER.log(Level.INFO, "Backfilling authorization change timeline of {0} destination(s)",
+                destinationIdList.size());
+
+        List<Future<Integer>> futureList = new ArrayList<>();
+
+        for (BigInteger destinationId : destinationIdList) {
+            futureList.add(changeFacade.backfill(destinationId));
+        }
+
+        int inserted = 0;
+
+        for (int i = 0; i < futureList.size(); i++) {
+            try {
+                inserted = inserted + futureList.get(i).get();
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.WARNING, "Unable to backfill authorization change timeline of destination "
+                        + destinationIdList.get(i), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        LOGGER.log(Level.INFO, "Backfilled {0} authorization change(s)", inserted);
+    }
+}
@@ -0,0 +1,301 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.PermitAll;
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+import org.jlab.beamauth.persistence.entity.Authorization;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorizationChange;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorizationPK;
+import org.jlab.beamauth.persistence.model.KeysetPage;
+
+/**
+ * Maintains and reads the per-destination authorization change timeline.
+ * Changes are recorded in the same transaction that saves a new Authorization;
+ * the timeline of existing history is built by backfill.
+ *
+ * @author ryans
+ */
+@Stateless
+public class DestinationAuthorizationChangeFacade extends AbstractFacade<DestinationAuthorizationChange> {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            DestinationAuthorizationChangeFacade.class.getName());
+
+    private static final int FLUSH_SIZE = 500;
+
+    @PersistenceContext(unitName = "beam-authorizationPU")
+    private EntityManager em;
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+
+    public DestinationAuthorizationChangeFacade() {
+        super(DestinationAuthorizationChange.class);
+    }
+
+    /**
+     * Records which destination authorizations of a newly persisted
+     * Authorization differ from the previous Authorization's.
+     *
+     * @param previous The authorization that was current before, or null
+     * @param current The new (persisted) authorization
+     * @param currentList The destination authorizations of the new
+     * authorization (persisted)
+     */
+    @PermitAll
+    public void recordChanges(Authorization previous, Authorization current,
+            List<DestinationAuthorization> currentList) {
+        Map<BigInteger, DestinationAuthorization> previousMap = new HashMap<>();
+
+        if (previous != null && previous.getDestinationAuthorizationList() != null) {
+            for (DestinationAuthorization da : previous.getDestinationAuthorizationList()) {
+                previousMap.put(da.getDestinationAuthorizationPK().getBeamDestinationId(), da);
+            }
+        }
+
+        for (DestinationAuthorization da : currentList) {
+            DestinationAuthorization before = previousMap.get(
+                    da.getDestinationAuthorizationPK().getBeamDestinationId());
+
+            if (before == null || isChange(before.getBeamMode(), before.getLaseMode(),
+                    before.getCwLimit(), before.getExpirationDate(), before.getComments(),
+                    da.getBeamMode(), da.getLaseMode(), da.getCwLimit(), da.getExpirationDate(),
+                    da.getComments())) {
+                em.persist(new DestinationAuthorizationChange(da.getDestinationAuthorizationPK(),
+                        current.getModifiedDate()));
+            }
+        }
+    }
+
+    private static boolean isChange(String beamMode, String laseMode, BigDecimal cwLimit,
+            Date expirationDate, String comments, String otherBeamMode, String otherLaseMode,
+            BigDecimal otherCwLimit, Date otherExpirationDate, String otherComments) {
+        return !Objects.equals(beamMode, otherBeamMode)
+                || !Objects.equals(laseMode, otherLaseMode)
+                || (cwLimit == null ? otherCwLimit != null
+                : otherCwLimit == null || cwLimit.compareTo(otherCwLimit) != 0)
+                || !Objects.equals(expirationDate == null ? null : expirationDate.getTime(),
+                        otherExpirationDate == null ? null : otherExpirationDate.getTime())
+                || !Objects.equals(comments, otherComments);
+    }
+
+    /**
+     * Returns the IDs of destinations whose change timeline has not been
+     * backfilled: the first authorization of a destination is always a change,
+     * and a backfill is all or nothing, so a destination whose oldest
+     * destination authorization is not in the timeline still needs one (even if
+     * newer authorizations have already recorded their changes).
+     *
+     * @return The beam destination IDs
+     */
+    @PermitAll
+    public List<BigInteger> findBeamDestinationIdsToBackfill() {
+        TypedQuery<BigInteger> q = em.createQuery(
+                "select a.destinationAuthorizationPK.beamDestinationId from DestinationAuthorization a where a.destinationAuthorizationPK.authorizationId = (select min(b.destinationAuthorizationPK.authorizationId) from DestinationAuthorization b where b.destinationAuthorizationPK.beamDestinationId = a.destinationAuthorizationPK.beamDestinationId) and not exists (select c from DestinationAuthorizationChange c where c.destinationAuthorizationPK.beamDestinationId = a.destinationAuthorizationPK.beamDestinationId and c.destinationAuthorizationPK.authorizationId = a.destinationAuthorizationPK.authorizationId)",
+                BigInteger.class);
+
+        return q.getResultList();
+    }
+
+    /**
+     * Builds the change timeline of one destination from its existing
+     * authorization history, inserting whatever is missing. Runs
+     * asynchronously in its own transaction so destinations can be backfilled
+     * in parallel, and is safe to repeat.
+     *
+     * @param beamDestinationId The beam destination ID
+     * @return The number of changes inserted
+     */
+    @Asynchronous
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Future<Integer> backfill(BigInteger beamDestinationId) {
+        TypedQuery<Object[]> q = em.createQuery(
+                "select a.destinationAuthorizationPK.authorizationId, b.modifiedDate, a.beamMode, a.laseMode, a.cwLimit, a.expirationDate, a.comments from DestinationAuthorization a join a.authorization b where a.destinationAuthorizationPK.beamDestinationId = :beamDestinationId order by b.modifiedDate asc, b.authorizationId asc",
+                Object[].class);
+
+        q.setParameter("beamDestinationId", beamDestinationId);
+
+        List<Object[]> rowList = q.getResultList();
+
+        TypedQuery<BigInteger> existingQuery = em.createQuery(
+                "select c.destinationAuthorizationPK.authorizationId from DestinationAuthorizationChange c where c.destinationAuthorizationPK.beamDestinationId = :beamDestinationId",
+                BigInteger.class);
+
+        existingQuery.setParameter("beamDestinationId", beamDestinationId);
+
+        Set<BigInteger> existing = new HashSet<>(existingQuery.getResultList());
+
+        Object[] before = null;
+        int inserted = 0;
+
+        for (Object[] row : rowList) {
+            if (before == null || isChange((String) before[2], (String) before[3],
+                    (BigDecimal) before[4], (Date) before[5], (String) before[6],
+                    (String) row[2], (String) row[3], (BigDecimal) row[4], (Date) row[5],
+                    (String) row[6])) {
+                BigInteger authorizationId = (BigInteger) row[0];
+
+                if (!existing.contains(authorizationId)) {
+                    em.persist(new DestinationAuthorizationChange(new DestinationAuthorizationPK(
+                            beamDestinationId, authorizationId), (Date) row[1]));
+
+                    if (++inserted % FLUSH_SIZE == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+            }
+
+            before = row;
+        }
+
+        LOGGER.log(Level.FINE, "Backfilled {0} of {1} authorizations of destination {2}",
+                new Object[]{inserted, rowList.size(), beamDestinationId});
+
+        return new AsyncResult<>(inserted);
+    }
+
+    @PermitAll
+    public long countHistory(BigInteger beamDestinationId) {
+        TypedQuery<Long> q = em.createQuery(
+                "select count(c) from DestinationAuthorizationChange c where c.destinationAuthorizationPK.beamDestinationId = :beamDestinationId",
+                Long.class);
+
+        q.setParameter("beamDestinationId", beamDestinationId);
+
+        return q.getSingleResult();
+    }
+
+    /**
+     * Returns a page of the changes to a destination's authorization, newest
+     * first, by seeking on (modified date, authorization ID). At most one of
+     * after and before is used; if neither is provided the first page is
+     * returned.
+     *
+     * @param beamDestinationId The beam destination ID
+     * @param after Cursor of the last row of the previous page (next page)
+     * @param before Cursor of the first row of the following page (previous
+     * page)
+     * @param maxPerPage The page size
+     * @return The page of destination authorizations (with their authorization)
+     */
+    @PermitAll
+    public KeysetPage<DestinationAuthorization> findHistory(BigInteger beamDestinationId,
+            String after, String before, int maxPerPage) {
+        Object[] afterKey = parseHistoryCursor(after);
+        Object[] beforeKey = afterKey == null ? parseHistoryCursor(before) : null;
+
+        boolean backward = beforeKey != null;
+        Object[] key = backward ? beforeKey : afterKey;
+
+        String jpql = "select c from DestinationAuthorizationChange c join fetch c.destinationAuthorization d join fetch d.authorization where c.destinationAuthorizationPK.beamDestinationId = :beamDestinationId";
+
+        if (key == null) {
+            jpql = jpql + " order by c.modifiedDate desc, c.destinationAuthorizationPK.authorizationId desc";
+        } else if (backward) {
+            jpql = jpql + " and (c.modifiedDate > :date or (c.modifiedDate = :date and c.destinationAuthorizationPK.authorizationId > :id)) order by c.modifiedDate asc, c.destinationAuthorizationPK.authorizationId asc";
+        } else {
+            jpql = jpql + " and (c.modifiedDate < :date or (c.modifiedDate = :date and c.destinationAuthorizationPK.authorizationId < :id)) order by c.modifiedDate desc, c.destinationAuthorizationPK.authorizationId desc";
+        }
+
+        TypedQuery<DestinationAuthorizationChange> q = em.createQuery(jpql,
+                DestinationAuthorizationChange.class);
+
+        q.setParameter("beamDestinationId", beamDestinationId);
+
+        if (key != null) {
+            q.setParameter("date", (Date) key[0], TemporalType.TIMESTAMP);
+            q.setParameter("id", key[1]);
+        }
+
+        List<DestinationAuthorizationChange> changeList = new ArrayList<>(q.setMaxResults(
+                maxPerPage + 1).getResultList());
+
+        boolean more = changeList.size() > maxPerPage;
+
+        if (more) {
+            changeList.remove(maxPerPage);
+        }
+
+        boolean previous;
+        boolean next;
+
+        if (backward) {
+            Collections.reverse(changeList);
+            previous = more;
+            next = true;
+        } else {
+            previous = key != null;
+            next = more;
+        }
+
+        String previousCursor = null;
+        String nextCursor = null;
+
+        if (!changeList.isEmpty()) {
+            if (previous) {
+                previousCursor = createHistoryCursor(changeList.get(0));
+            }
+
+            if (next) {
+                nextCursor = createHistoryCursor(changeList.get(changeList.size() - 1));
+            }
+        }
+
+        List<DestinationAuthorization> historyList = new ArrayList<>();
+
+        for (DestinationAuthorizationChange change : changeList) {
+            historyList.add(change.getDestinationAuthorization());
+        }
+
+        return new KeysetPage<>(historyList, previousCursor, nextCursor);
+    }
+
+    private String createHistoryCursor(DestinationAuthorizationChange change) {
+        return change.getModifiedDate().getTime() + "_"
+                + change.getDestinationAuthorizationPK().getAuthorizationId();
+    }
+
+    private Object[] parseHistoryCursor(String cursor) {
+        Object[] key = null;
+
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] tokens = cursor.split("_");
+
+            try {
+                if (tokens.length == 2) {
+                    key = new Object[]{new Date(Long.parseLong(tokens[0])), new BigInteger(tokens[1])};
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.FINE, "Ignoring invalid history cursor: {0}", cursor);
+            }
+        }
+
+        return key;
+    }
+}
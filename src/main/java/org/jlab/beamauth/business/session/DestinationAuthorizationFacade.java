@@ -1,8 +1,14 @@
 package org.jlab.beamauth.business.session;
 
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.security.PermitAll;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
 
 /**
@@ -22,5 +28,38 @@ public class DestinationAuthorizationFacade extends AbstractFacade<DestinationAu
     public DestinationAuthorizationFacade() {
         super(DestinationAuthorization.class);
     }
-    
+
+    /**
+     * Fetches the destination authorizations of an authorization for the given
+     * destinations by primary key (beam destination ID, authorization ID) in a
+     * single query rather than scanning by authorization ID.
+     *
+     * @param authorizationId The authorization ID
+     * @param beamDestinationIdList The beam destination IDs
+     * @return The destination authorizations keyed by beam destination ID
+     */
+    @PermitAll
+    public Map<BigInteger, DestinationAuthorization> findByPrimaryKey(BigInteger authorizationId,
+            List<BigInteger> beamDestinationIdList) {
+        Map<BigInteger, DestinationAuthorization> destinationAuthorizationMap = new HashMap<>();
+
+        if (authorizationId == null || beamDestinationIdList == null
+                || beamDestinationIdList.isEmpty()) {
+            return destinationAuthorizationMap;
+        }
+
+        TypedQuery<DestinationAuthorization> q = em.createQuery(
+                "select a from DestinationAuthorization a where a.destinationAuthorizationPK.beamDestinationId in :beamDestinationIdList and a.destinationAuthorizationPK.authorizationId = :authorizationId",
+                DestinationAuthorization.class);
+
+        q.setParameter("beamDestinationIdList", beamDestinationIdList);
+        q.setParameter("authorizationId", authorizationId);
+
+        for (DestinationAuthorization da : q.getResultList()) {
+            destinationAuthorizationMap.put(da.getDestinationAuthorizationPK().getBeamDestinationId(),
+                    da);
+        }
+
+        return destinationAuthorizationMap;
+    }
 }
@@ -0,0 +1,338 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.NoSuchObjectLocalException;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import org.jlab.beamauth.business.event.AuthorizationChangeEvent;
+import org.jlab.beamauth.business.event.VerificationChangeEvent;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.DestinationAuthorizationSnapshot;
+
+/**
+ * Revokes expired director's authorizations and control verifications at the
+ * moment they expire so that page views never have to. Upcoming expiration
+ * instants are kept in an in-memory priority queue built at startup from the
+ * control verifications and the current authorization, and a single-action
+ * timer is re-armed for the earliest one. When it fires only the due rows are
+ * looked up (by key) and revoked.
+ * <p>
+ * The queue is updated when verification edits commit and reloaded from the
+ * authorization snapshot when an authorization commits. As a safety net
+ * against changes made outside of this application the whole queue is rebuilt
+ * from the database periodically. The midnight upcoming expiration
+ * notifications remain the job of DailyScheduledCheck.
+ * </p>
+ *
+ * @author ryans
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ExpirationScheduledCheck {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            ExpirationScheduledCheck.class.getName());
+
+    private static final long REBUILD_INTERVAL_MILLIS = 60 * 60 * 1000L;
+    private static final long RETRY_DELAY_MILLIS = 60 * 1000L;
+
+    private final Object lock = new Object();
+    private final PriorityQueue<Expiration> queue = new PriorityQueue<>();
+    private final Map<BigInteger, Expiration> verificationMap = new HashMap<>();
+    private final Map<BigInteger, Expiration> destinationMap = new HashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean rerun = false;
+    private volatile boolean authorizationStale = true;
+    private volatile long lastRebuildMillis = 0;
+    private Timer timer;
+
+    @Resource
+    private TimerService timerService;
+    @EJB
+    ControlVerificationFacade verificationFacade;
+    @EJB
+    AuthorizationCache authorizationCache;
+
+    @PostConstruct
+    private void init() {
+        clearTimer();
+        arm(System.currentTimeMillis()); // First timeout builds the queue
+    }
+
+    private void clearTimer() {
+        LOGGER.log(Level.FINEST, "Clearing Expiration Timer");
+        for (Timer t : timerService.getTimers()) {
+            t.cancel();
+        }
+    }
+
+    /**
+     * Re-arms the single-action timer to fire at the given instant, replacing
+     * any previously armed timer.
+     *
+     * @param whenMillis The instant to fire at (past instants fire immediately)
+     */
+    private void arm(long whenMillis) {
+        synchronized (lock) {
+            if (timer != null) {
+                try {
+                    timer.cancel();
+                } catch (NoSuchObjectLocalException | IllegalStateException e) {
+                    // Already fired or cancelled
+                }
+            }
+
+            long delay = Math.max(0, whenMillis - System.currentTimeMillis());
+
+            TimerConfig config = new TimerConfig(null, false);
+            timer = timerService.createSingleActionTimer(delay, config);
+
+            LOGGER.log(Level.FINEST, "Expiration timer armed for {0}", new Date(whenMillis));
+        }
+    }
+
+    private long nextWakeupMillis() {
+        long next = lastRebuildMillis + REBUILD_INTERVAL_MILLIS;
+
+        if (authorizationStale) {
+            next = System.currentTimeMillis();
+        }
+
+        synchronized (lock) {
+            Expiration earliest = queue.peek();
+
+            if (earliest != null && earliest.millis < next) {
+                next = earliest.millis;
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Returns the earliest pending expiration in the queue.
+     *
+     * @return The next expiration or null if none
+     */
+    public Date getNextExpiration() {
+        synchronized (lock) {
+            Expiration earliest = queue.peek();
+
+            return earliest == null ? null : new Date(earliest.millis);
+        }
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    private void handleTimeout(Timer timer) {
+        if (!running.compareAndSet(false, true)) {
+            rerun = true;
+            return;
+        }
+
+        long wakeup;
+
+        try {
+            do {
+                rerun = false;
+                wakeup = check();
+            } while (rerun);
+        } finally {
+            running.set(false);
+        }
+
+        if (rerun) { // Arrived after the last loop check, but before running was cleared
+            wakeup = System.currentTimeMillis();
+        }
+
+        arm(wakeup);
+    }
+
+    private long check() {
+        try {
+            long now = System.currentTimeMillis();
+
+            if (now - lastRebuildMillis >= REBUILD_INTERVAL_MILLIS) {
+                rebuild();
+            } else if (authorizationStale) {
+                reloadAuthorizationExpirations();
+            }
+
+            List<BigInteger> verificationIdList = new ArrayList<>();
+            List<BigInteger> destinationIdList = new ArrayList<>();
+
+            synchronized (lock) {
+                while (!queue.isEmpty() && queue.peek().millis <= now) {
+                    Expiration due = queue.poll();
+
+                    if (due.verification) {
+                        verificationMap.remove(due.id);
+                        verificationIdList.add(due.id);
+                    } else {
+                        destinationMap.remove(due.id);
+                        destinationIdList.add(due.id);
+                    }
+                }
+            }
+
+            if (!verificationIdList.isEmpty() || !destinationIdList.isEmpty()) {
+                LOGGER.log(Level.FINE,
+                        "Expiration reached; verifications: {0}, destinations: {1}",
+                        new Object[]{verificationIdList, destinationIdList});
+                verificationFacade.performExpiration(verificationIdList, destinationIdList,
+                        new Date(now));
+            }
+
+            return nextWakeupMillis();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to perform expiration check; rebuilding shortly", e);
+            lastRebuildMillis = 0;
+            return System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+        }
+    }
+
+    private void rebuild() {
+        LOGGER.log(Level.FINEST, "Rebuilding expiration queue");
+
+        List<Object[]> verificationExpirations = verificationFacade.findVerificationExpirations();
+
+        synchronized (lock) {
+            for (Expiration e : verificationMap.values()) {
+                queue.remove(e);
+            }
+            verificationMap.clear();
+
+            for (Object[] row : verificationExpirations) {
+                BigInteger id = (BigInteger) row[0];
+                Date expiration = (Date) row[1];
+                add(verificationMap, new Expiration(true, id, expiration.getTime()));
+            }
+        }
+
+        reloadAuthorizationExpirations();
+
+        lastRebuildMillis = System.currentTimeMillis();
+    }
+
+    private void reloadAuthorizationExpirations() {
+        authorizationStale = false;
+
+        AuthorizationSnapshot authorization = authorizationCache.getSnapshot();
+
+        synchronized (lock) {
+            for (Expiration e : destinationMap.values()) {
+                queue.remove(e);
+            }
+            destinationMap.clear();
+
+            if (authorization != null) {
+                for (DestinationAuthorizationSnapshot da : authorization.getDestinationAuthorizationMap().values()) {
+                    Date expiration = da.getExpirationDate();
+
+                    if (!"None".equals(da.getBeamMode()) && expiration != null) {
+                        add(destinationMap, new Expiration(false, da.getBeamDestinationId(),
+                                expiration.getTime()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void add(Map<BigInteger, Expiration> map, Expiration expiration) {
+        Expiration previous = map.put(expiration.id, expiration);
+
+        if (previous != null) {
+            queue.remove(previous);
+        }
+
+        queue.add(expiration);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeAuthorizationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) AuthorizationChangeEvent event) {
+        authorizationStale = true;
+        arm(System.currentTimeMillis());
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeVerificationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) VerificationChangeEvent event) {
+        synchronized (lock) {
+            for (BigInteger id : event.getControlVerificationIdList()) {
+                Expiration previous = verificationMap.remove(id);
+
+                if (previous != null) {
+                    queue.remove(previous);
+                }
+
+                if (event.isExpirable()) {
+                    add(verificationMap, new Expiration(true, id,
+                            event.getExpirationDate().getTime()));
+                }
+            }
+        }
+
+        if (running.get()) {
+            rerun = true; // In-progress timeout will recompute its wakeup
+        } else {
+            arm(nextWakeupMillis());
+        }
+    }
+
+    /**
+     * A pending expiration of either a control verification (keyed by control
+     * verification ID) or a destination authorization of the current
+     * authorization (keyed by beam destination ID).
+     */
+    private static final class Expiration implements Comparable<Expiration> {
+
+        private final boolean verification;
+        private final BigInteger id;
+        private final long millis;
+
+        private Expiration(boolean verification, BigInteger id, long millis) {
+            this.verification = verification;
+            this.id = id;
+            this.millis = millis;
+        }
+
+        @Override
+        public int compareTo(Expiration o) {
+            int result = Long.compare(millis, o.millis);
+
+            if (result == 0) {
+                result = Boolean.compare(verification, o.verification);
+            }
+
+            if (result == 0) {
+                result = id.compareTo(o.id);
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.jlab.beamauth.business.session;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.PermitAll;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.persistence.TemporalType;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.Query;
+import org.jlab.beamauth.persistence.enumeration.HistoryExportType;
+
+/**
+ * Streams whole history tables for export. Rows are read as scalars through a
+ * forward-only cursor on a stateless session (no persistence context) and
+ * handed to the caller one at a time, so memory use does not depend on how
+ * much history is exported. Runs outside a transaction so a long export is not
+ * cut off by the transaction timeout.
+ *
+ * @author ryans
+ */
+@Stateless
+public class HistoryExportFacade {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            HistoryExportFacade.class.getName());
+
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceUnit(unitName = "beam-authorizationPU")
+    private EntityManagerFactory emf;
+
+    /**
+     * Receives export rows. Values are in the order of the export type's
+     * column names.
+     */
+    public interface RowHandler {
+
+        void handle(Object[] row) throws IOException;
+    }
+
+    /**
+     * Streams the rows of a history table modified in the given range, oldest
+     * first.
+     *
+     * @param type The history to export
+     * @param from Only rows modified at or after this date, or null
+     * @param to Only rows modified before this date, or null
+     * @param handler The row handler
+     * @return The number of rows exported
+     * @throws IOException If the handler is unable to write a row
+     */
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public long export(HistoryExportType type, Date from, Date to, RowHandler handler) throws
+            IOException {
+        String hql;
+        String modified;
+        String order;
+
+        switch (type) {
+            case AUTHORIZATION:
+                hql = "select a.authorizationId, a.authorizationDate, ab.username, a.modifiedDate, mb.username, a.comments from Authorization a left join a.authorizedBy ab left join a.modifiedBy mb";
+                modified = "a.modifiedDate";
+                order = "a.authorizationId";
+                break;
+            case DESTINATION_AUTHORIZATION:
+                hql = "select a.authorizationId, a.modifiedDate, d.destinationAuthorizationPK.beamDestinationId, b.name, d.beamMode, d.laseMode, d.cwLimit, d.expirationDate, d.comments from DestinationAuthorization d join d.authorization a left join d.destination b";
+                modified = "a.modifiedDate";
+                order = "a.authorizationId, d.destinationAuthorizationPK.beamDestinationId";
+                break;
+            case VERIFICATION_HISTORY:
+                hql = "select h.verificationHistoryId, v.controlVerificationId, c.name, b.name, h.verificationId, h.verificationDate, vb.username, h.expirationDate, h.modifiedDate, mb.username, h.comments from VerificationHistory h join h.controlVerification v left join v.creditedControl c left join v.beamDestination b left join h.verifiedBy vb left join h.modifiedBy mb";
+                modified = "h.modifiedDate";
+                order = "h.verificationHistoryId";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown export type: " + type);
+        }
+
+        String where = " where 1 = 1";
+
+        if (from != null) {
+            where = where + " and " + modified + " >= :from";
+        }
+
+        if (to != null) {
+            where = where + " and " + modified + " < :to";
+        }
+
+        hql = hql + where + " order by " + modified + " asc, " + order;
+
+        long count = 0;
+
+        try (StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession()) {
+            Query<?> q = session.createQuery(hql);
+
+            if (from != null) {
+                q.setParameter("from", from, TemporalType.TIMESTAMP);
+            }
+
+            if (to != null) {
+                q.setParameter("to", to, TemporalType.TIMESTAMP);
+            }
+
+            q.setFetchSize(FETCH_SIZE);
+            q.setReadOnly(true);
+
+            try (ScrollableResults results = q.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    handler.handle(results.get());
+                    count++;
+                }
+            }
+        }
+
+        LOGGER.log(Level.FINE, "Exported {0} {1} rows", new Object[]{count, type});
+
+        return count;
+    }
+}
@@ -0,0 +1,218 @@
+package org.jlab.beamauth.business.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import org.jlab.beamauth.business.util.SmtpTransportPool;
+import org.jlab.beamauth.business.util.SmtpTransportPool.Delivery;
+
+/**
+ * Sends batches of HTML emails (such as the expiration notifications of each
+ * group) concurrently over a small pool of SMTP connections from the mail/jlab
+ * mail session, which are reused for the whole batch and closed afterwards.
+ * The number of connections defaults to 3 and can be set with the environment
+ * variable BA_SMTP_CONNECTIONS.
+ *
+ * @author ryans
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class MailDispatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            MailDispatcher.class.getName());
+
+    private static final int DEFAULT_CONNECTIONS = 3;
+
+    private static final String LATENCY = "beamauth_notification_send_seconds";
+    private static final String FAILURES = "beamauth_notification_failures_total";
+    private static final String TYPE = "BATCH_EMAIL";
+
+    @Resource
+    ManagedExecutorService executor;
+    @EJB
+    MetricsRegistry metrics;
+
+    private volatile Session session;
+    private volatile SmtpTransportPool pool;
+
+    /**
+     * Sends the emails and waits for all of them. Failures are logged and do
+     * not stop the remaining emails.
+     *
+     * @param mailList The emails
+     * @return The emails that were sent
+     */
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public List<Mail> sendAll(List<Mail> mailList) {
+        List<Mail> sentList = new ArrayList<>(mailList.size());
+
+        if (mailList.isEmpty()) {
+            return sentList;
+        }
+
+        long start = System.currentTimeMillis();
+
+        SmtpTransportPool transportPool;
+
+        try {
+            transportPool = getPool();
+        } catch (MessagingException | NamingException e) {
+            LOGGER.log(Level.WARNING, "Unable to send email", e);
+            metrics.add(FAILURES, "type", TYPE, mailList.size());
+            return sentList;
+        }
+
+        List<Mail> createdList = new ArrayList<>(mailList.size());
+        List<MimeMessage> messageList = new ArrayList<>(mailList.size());
+
+        for (Mail mail : mailList) {
+            try {
+                messageList.add(mail.toMessage(session));
+                createdList.add(mail);
+            } catch (MessagingException e) {
+                LOGGER.log(Level.WARNING, "Unable to create email to " + mail.toCsv, e);
+                metrics.increment(FAILURES, "type", TYPE);
+            }
+        }
+
+        try {
+            List<Delivery> deliveryList = transportPool.sendAll(messageList, executor);
+
+            for (int i = 0; i < deliveryList.size(); i++) {
+                Delivery delivery = deliveryList.get(i);
+                String to = recipients(delivery.getMessage());
+
+                metrics.time(LATENCY, "type", TYPE, delivery.getMillis() * 1_000_000L);
+
+                if (delivery.isSuccess()) {
+                    sentList.add(createdList.get(i));
+                    LOGGER.log(Level.FINE, "Sent email to {0} in {1} ms", new Object[]{to,
+                        delivery.getMillis()});
+                } else {
+                    LOGGER.log(Level.WARNING, "Unable to send email to " + to + " (after "
+                            + delivery.getMillis() + " ms)", delivery.getError());
+                    metrics.increment(FAILURES, "type", TYPE);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.WARNING, "Interrupted while sending email");
+            return sentList;
+        } finally {
+            transportPool.closeIdle();
+        }
+
+        LOGGER.log(Level.INFO, "Sent {0} of {1} emails in {2} ms", new Object[]{sentList.size(),
+            mailList.size(), System.currentTimeMillis() - start});
+
+        return sentList;
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        if (pool != null) {
+            pool.closeIdle();
+        }
+    }
+
+    private SmtpTransportPool getPool() throws MessagingException, NamingException {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    session = (Session) new InitialContext().lookup("mail/jlab");
+                    pool = new SmtpTransportPool(session, connections());
+                }
+            }
+        }
+
+        return pool;
+    }
+
+    private static int connections() {
+        String value = System.getenv("BA_SMTP_CONNECTIONS");
+
+        if (value != null && !value.isEmpty()) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.WARNING,
+                        "Environment variable 'BA_SMTP_CONNECTIONS' is not a number: {0}",
+                        value);
+            }
+        }
+
+        return DEFAULT_CONNECTIONS;
+    }
+
+    private static String recipients(Message message) {
+        try {
+            return InternetAddress.toString(message.getAllRecipients());
+        } catch (MessagingException e) {
+            return "?";
+        }
+    }
+
+    /**
+     * An HTML email from the sender (also the from address) to a comma
+     * separated list of recipients.
+     */
+    public static final class Mail {
+
+        private final String sender;
+        private final String toCsv;
+        private final String subject;
+        private final String body;
+
+        public Mail(String sender, String toCsv, String subject, String body) {
+            this.sender = sender;
+            this.toCsv = toCsv;
+            this.subject = subject;
+            this.body = body;
+        }
+
+        private MimeMessage toMessage(Session session) throws MessagingException {
+            if (sender == null || sender.isEmpty()) {
+                throw new MessagingException("No sender");
+            }
+
+            if (toCsv == null || toCsv.isEmpty()) {
+                throw new MessagingException("No recipients");
+            }
+
+            MimeMessage message = new MimeMessage(session);
+
+            InternetAddress senderAddress = new InternetAddress(sender);
+
+            message.setFrom(senderAddress);
+            message.setSender(senderAddress);
+            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toCsv, false));
+            message.setSubject(subject, StandardCharsets.UTF_8.name());
+            message.setContent(body, "text/html; charset=UTF-8");
+            message.setSentDate(new Date());
+
+            return message;
+        }
+    }
+}
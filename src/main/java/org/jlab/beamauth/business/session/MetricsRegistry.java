@@ -0,0 +1,413 @@
+package org.jlab.beamauth.business.session;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.interceptor.ExcludeDefaultInterceptors;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.jlab.beamauth.business.util.Histogram;
+import org.jlab.beamauth.business.util.MetricsMXBean;
+import org.jlab.beamauth.persistence.model.CacheRegionReport;
+import org.jlab.beamauth.persistence.util.StatementCounter;
+
+/**
+ * Application metrics: latency histograms of EJB business methods (recorded
+ * by MetricsInterceptor), HTTP requests and the SQL statements each makes
+ * (RequestMetricsFilter), expiration checks, notifications and outbound calls,
+ * plus counters such as revocations and cache hits. Each metric has a single
+ * label; at most 200 label values are kept per metric and the rest are
+ * recorded as "other".
+ * <p>
+ * Exposed in the Prometheus text format at /metrics and over JMX as
+ * org.jlab.beamauth:type=Metrics. Cache hit ratios (including the
+ * second-level cache regions) are computed when read.
+ * </p>
+ *
+ * @author ryans
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@ExcludeDefaultInterceptors
+public class MetricsRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            MetricsRegistry.class.getName());
+
+    private static final String OBJECT_NAME = "org.jlab.beamauth:type=Metrics";
+    private static final int MAX_SERIES = 200;
+    private static final String OTHER = "other";
+
+    private static final String CACHE_HITS = "beamauth_cache_hits_total";
+    private static final String CACHE_MISSES = "beamauth_cache_misses_total";
+
+    private final Map<String, Family<Histogram>> histogramMap = new ConcurrentHashMap<>();
+    private final Map<String, Family<LongAdder>> counterMap = new ConcurrentHashMap<>();
+
+    private ObjectName objectName;
+
+    @EJB
+    ReferenceDataCache referenceDataCache;
+
+    @PostConstruct
+    private void init() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            objectName = new ObjectName(OBJECT_NAME);
+
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName); // Left over from a previous deployment
+            }
+
+            server.registerMBean(new View(), objectName);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Unable to register metrics MBean", e);
+            objectName = null;
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOGGER.log(Level.WARNING, "Unable to unregister metrics MBean", e);
+            }
+        }
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param name The metric name (ending in _seconds)
+     * @param labelName The label name
+     * @param labelValue The label value
+     * @param nanos The elapsed time in nanoseconds
+     */
+    @PermitAll
+    public void time(String name, String labelName, String labelValue, long nanos) {
+        observe(name, labelName, labelValue, Histogram.LATENCY_BUCKETS, nanos / 1e9);
+    }
+
+    /**
+     * Records a value in a histogram, creating it with the given buckets if
+     * needed.
+     *
+     * @param name The metric name
+     * @param labelName The label name
+     * @param labelValue The label value
+     * @param bounds The bucket bounds
+     * @param value The value
+     */
+    @PermitAll
+    public void observe(String name, String labelName, String labelValue, double[] bounds,
+            double value) {
+        family(histogramMap, name, labelName, () -> new Histogram(bounds)).series(labelValue)
+                .record(value);
+    }
+
+    /**
+     * Adds one to a counter.
+     *
+     * @param name The metric name (ending in _total)
+     * @param labelName The label name
+     * @param labelValue The label value
+     */
+    @PermitAll
+    public void increment(String name, String labelName, String labelValue) {
+        add(name, labelName, labelValue, 1);
+    }
+
+    /**
+     * Adds to a counter.
+     *
+     * @param name The metric name (ending in _total)
+     * @param labelName The label name
+     * @param labelValue The label value
+     * @param amount The amount to add
+     */
+    @PermitAll
+    public void add(String name, String labelName, String labelValue, long amount) {
+        family(counterMap, name, labelName, LongAdder::new).series(labelValue).add(amount);
+    }
+
+    /**
+     * Records a cache lookup.
+     *
+     * @param cache The cache name
+     * @param hit true if found in the cache
+     */
+    @PermitAll
+    public void cacheLookup(String cache, boolean hit) {
+        increment(hit ? CACHE_HITS : CACHE_MISSES, "cache", cache);
+    }
+
+    /**
+     * Returns all metrics in the Prometheus text exposition format.
+     *
+     * @return The text
+     */
+    @PermitAll
+    public String getText() {
+        StringBuilder builder = new StringBuilder(16 * 1024);
+
+        for (Map.Entry<String, Family<LongAdder>> entry : new TreeMap<>(counterMap).entrySet()) {
+            Family<LongAdder> family = entry.getValue();
+
+            builder.append("# TYPE ").append(entry.getKey()).append(" counter\n");
+
+            for (Map.Entry<String, LongAdder> series : family.sorted().entrySet()) {
+                appendSample(builder, entry.getKey(), family.labelName, series.getKey(), null,
+                        series.getValue().sum());
+            }
+        }
+
+        builder.append("# TYPE beamauth_sql_statements_total counter\n");
+        builder.append("beamauth_sql_statements_total ").append(StatementCounter.getTotal())
+                .append('\n');
+
+        builder.append("# TYPE beamauth_cache_hit_ratio gauge\n");
+
+        for (Map.Entry<String, Double> ratio : getCacheHitRatios().entrySet()) {
+            appendSample(builder, "beamauth_cache_hit_ratio", "cache", ratio.getKey(), null,
+                    ratio.getValue());
+        }
+
+        for (Map.Entry<String, Family<Histogram>> entry : new TreeMap<>(histogramMap)
+                .entrySet()) {
+            String name = entry.getKey();
+            Family<Histogram> family = entry.getValue();
+
+            builder.append("# TYPE ").append(name).append(" histogram\n");
+
+            for (Map.Entry<String, Histogram> series : family.sorted().entrySet()) {
+                Histogram histogram = series.getValue();
+                double[] bounds = histogram.getBounds();
+                long[] counts = histogram.getBucketCounts();
+                long cumulative = 0;
+
+                for (int i = 0; i < counts.length; i++) {
+                    cumulative += counts[i];
+
+                    appendSample(builder, name + "_bucket", family.labelName, series.getKey(),
+                            i < bounds.length ? format(bounds[i]) : "+Inf", cumulative);
+                }
+
+                appendSample(builder, name + "_sum", family.labelName, series.getKey(), null,
+                        histogram.getSum());
+                appendSample(builder, name + "_count", family.labelName, series.getKey(), null,
+                        cumulative);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private Map<String, Double> getCacheHitRatios() {
+        Map<String, Double> ratioMap = new TreeMap<>();
+
+        Family<LongAdder> hits = counterMap.get(CACHE_HITS);
+        Family<LongAdder> misses = counterMap.get(CACHE_MISSES);
+
+        Set<String> cacheSet = new HashSet<>();
+
+        if (hits != null) {
+            cacheSet.addAll(hits.seriesMap.keySet());
+        }
+
+        if (misses != null) {
+            cacheSet.addAll(misses.seriesMap.keySet());
+        }
+
+        for (String cache : cacheSet) {
+            long hitCount = sum(hits, cache);
+            long total = hitCount + sum(misses, cache);
+
+            ratioMap.put(cache, total == 0 ? 0 : (double) hitCount / total);
+        }
+
+        try {
+            List<CacheRegionReport> reportList = referenceDataCache.getRegionReportList();
+
+            for (CacheRegionReport report : reportList) {
+                ratioMap.put("l2:" + report.getRegionName(), report.getHitRatio());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Unable to read second-level cache statistics", e);
+        }
+
+        return ratioMap;
+    }
+
+    private static long sum(Family<LongAdder> family, String labelValue) {
+        LongAdder adder = family == null ? null : family.seriesMap.get(labelValue);
+
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static <T> Family<T> family(Map<String, Family<T>> map, String name,
+            String labelName, Supplier<T> factory) {
+        Family<T> family = map.get(name);
+
+        if (family == null) {
+            family = map.computeIfAbsent(name, k -> new Family<>(labelName, factory));
+        }
+
+        return family;
+    }
+
+    private static void appendSample(StringBuilder builder, String name, String labelName,
+            String labelValue, String le, double value) {
+        builder.append(name).append('{').append(labelName).append("=\"");
+
+        escape(builder, labelValue);
+
+        builder.append('"');
+
+        if (le != null) {
+            builder.append(",le=\"").append(le).append('"');
+        }
+
+        builder.append("} ").append(format(value)).append('\n');
+    }
+
+    private static void escape(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+
+        return Double.toString(value);
+    }
+
+    private static String key(String name, String labelName, String labelValue) {
+        return name + "{" + labelName + "=\"" + labelValue + "\"}";
+    }
+
+    /**
+     * A metric: its label name and one series per label value.
+     */
+    private static final class Family<T> {
+
+        private final String labelName;
+        private final Supplier<T> factory;
+        private final Map<String, T> seriesMap = new ConcurrentHashMap<>();
+
+        private Family(String labelName, Supplier<T> factory) {
+            this.labelName = labelName;
+            this.factory = factory;
+        }
+
+        private T series(String labelValue) {
+            if (labelValue == null) {
+                labelValue = "";
+            }
+
+            T series = seriesMap.get(labelValue);
+
+            if (series == null) {
+                if (seriesMap.size() >= MAX_SERIES) {
+                    labelValue = OTHER;
+                }
+
+                series = seriesMap.computeIfAbsent(labelValue, k -> factory.get());
+            }
+
+            return series;
+        }
+
+        private Map<String, T> sorted() {
+            return new TreeMap<>(seriesMap);
+        }
+    }
+
+    /**
+     * The MXBean registered with the platform MBean server. It reads the
+     * registry directly rather than through the container.
+     */
+    private final class View implements MetricsMXBean {
+
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> map = new TreeMap<>();
+
+            for (Map.Entry<String, Family<LongAdder>> entry : counterMap.entrySet()) {
+                for (Map.Entry<String, LongAdder> series : entry.getValue().seriesMap
+                        .entrySet()) {
+                    map.put(key(entry.getKey(), entry.getValue().labelName, series.getKey()),
+                            series.getValue().sum());
+                }
+            }
+
+            map.put("beamauth_sql_statements_total", StatementCounter.getTotal());
+
+            return map;
+        }
+
+        @Override
+        public Map<String, Double> getGauges() {
+            Map<String, Double> map = new TreeMap<>();
+
+            for (Map.Entry<String, Double> ratio : getCacheHitRatios().entrySet()) {
+                map.put(key("beamauth_cache_hit_ratio", "cache", ratio.getKey()),
+                        ratio.getValue());
+            }
+
+            return map;
+        }
+
+        @Override
+        public Map<String, Histogram.Summary> getHistograms() {
+            Map<String, Histogram.Summary> map = new TreeMap<>();
+
+            for (Map.Entry<String, Family<Histogram>> entry : histogramMap.entrySet()) {
+                for (Map.Entry<String, Histogram> series : entry.getValue().seriesMap
+                        .entrySet()) {
+                    map.put(key(entry.getKey(), entry.getValue().labelName, series.getKey()),
+                            series.getValue().summarize());
+                }
+            }
+
+            return map;
+        }
+    }
+}
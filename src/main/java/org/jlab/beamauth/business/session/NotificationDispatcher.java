@@ -0,0 +1,201 @@
+package org.jlab.beamauth.business.session;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.NoSuchObjectLocalException;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import org.jlab.beamauth.business.event.OutboxMessageEvent;
+import org.jlab.beamauth.persistence.entity.OutboxMessage;
+
+/**
+ * Delivers queued outbox messages (emails and eLog entries) on a container
+ * timer thread so that saving an authorization or verification does not wait
+ * on the mail server, puppet-show, or the logbook server. A single-action timer
+ * is armed immediately when a message commits and otherwise for the earliest
+ * pending retry. Failed deliveries are retried with exponential backoff.
+ * <p>
+ * Delivery is at-least-once: if a message is sent but recording it as sent
+ * fails it will be sent again.
+ * </p>
+ *
+ * @author ryans
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class NotificationDispatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            NotificationDispatcher.class.getName());
+
+    private static final int BATCH_SIZE = 20;
+
+    private final Object lock = new Object();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean rerun = false;
+    private Timer timer;
+
+    @Resource
+    private TimerService timerService;
+    @EJB
+    OutboxMessageFacade outboxFacade;
+    @EJB
+    AuthorizationFacade authorizationFacade;
+    @EJB
+    ControlVerificationFacade verificationFacade;
+    @EJB
+    MetricsRegistry metrics;
+
+    @PostConstruct
+    private void init() {
+        clearTimer();
+        arm(System.currentTimeMillis()); // Deliver anything left over from before a restart
+    }
+
+    private void clearTimer() {
+        LOGGER.log(Level.FINEST, "Clearing Notification Timer");
+        for (Timer t : timerService.getTimers()) {
+            t.cancel();
+        }
+    }
+
+    private void arm(long whenMillis) {
+        synchronized (lock) {
+            if (timer != null) {
+                try {
+                    timer.cancel();
+                } catch (NoSuchObjectLocalException | IllegalStateException e) {
+                    // Already fired or cancelled
+                }
+            }
+
+            long delay = Math.max(0, whenMillis - System.currentTimeMillis());
+
+            TimerConfig config = new TimerConfig(null, false);
+            timer = timerService.createSingleActionTimer(delay, config);
+        }
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeOutboxMessage(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) OutboxMessageEvent event) {
+        LOGGER.log(Level.FINEST, "Message queued: {0}", event);
+
+        if (running.get()) {
+            rerun = true;
+        } else {
+            arm(System.currentTimeMillis());
+        }
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    private void handleTimeout(Timer timer) {
+        if (!running.compareAndSet(false, true)) {
+            rerun = true;
+            return;
+        }
+
+        Date next = null;
+
+        try {
+            do {
+                rerun = false;
+                deliverDue();
+            } while (rerun);
+
+            next = outboxFacade.findNextAttemptDate();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unable to process notification outbox", e);
+            next = new Date(System.currentTimeMillis() + 60 * 1000L);
+        } finally {
+            running.set(false);
+        }
+
+        if (rerun) {
+            next = new Date();
+        }
+
+        if (next != null) {
+            arm(next.getTime());
+        }
+    }
+
+    private void deliverDue() {
+        List<OutboxMessage> messageList;
+
+        do {
+            messageList = outboxFacade.findDue(new Date(), BATCH_SIZE);
+
+            for (OutboxMessage message : messageList) {
+                deliver(message);
+            }
+        } while (messageList.size() == BATCH_SIZE);
+    }
+
+    private void deliver(OutboxMessage message) {
+        String proxyServerName = System.getenv("PROXY_HOSTNAME");
+        String logbookServerName = System.getenv("LOGBOOK_HOSTNAME");
+
+        Long logId = null;
+
+        String type = String.valueOf(message.getMessageType());
+        long start = System.nanoTime();
+
+        try {
+            switch (message.getMessageType()) {
+                case NEW_AUTHORIZATION_EMAIL:
+                    authorizationFacade.sendOpsNewAuthorizationEmail(proxyServerName);
+                    break;
+                case NEW_AUTHORIZATION_ELOG:
+                    logId = authorizationFacade.sendELog(message.getAuthor(),
+                            message.getAuthorizationId(), proxyServerName, logbookServerName);
+                    break;
+                case VERIFICATION_DOWNGRADED_EMAIL:
+                    verificationFacade.sendVerificationDowngradedEmail(message.getBody());
+                    break;
+                case VERIFICATION_DOWNGRADED_ELOG:
+                    logId = verificationFacade.sendVerificationDowngradedELog(message.getAuthor(),
+                            message.getBody(), logbookServerName);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown message type: "
+                            + message.getMessageType());
+            }
+        } catch (Exception e) {
+            metrics.time("beamauth_notification_send_seconds", "type", type, System.nanoTime()
+                    - start);
+            metrics.increment("beamauth_notification_failures_total", "type", type);
+            LOGGER.log(Level.WARNING, "Unable to deliver outbox message "
+                    + message.getOutboxMessageId(), e);
+            outboxFacade.markAttemptFailed(message.getOutboxMessageId(), String.valueOf(
+                    e.getMessage()));
+            return;
+        }
+
+        metrics.time("beamauth_notification_send_seconds", "type", type, System.nanoTime()
+                - start);
+
+        LOGGER.log(Level.FINE, "Delivered outbox message {0} ({1})",
+                new Object[]{message.getOutboxMessageId(), message.getMessageType()});
+
+        outboxFacade.markSent(message.getOutboxMessageId(), logId);
+    }
+}
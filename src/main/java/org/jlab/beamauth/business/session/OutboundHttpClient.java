@@ -0,0 +1,200 @@
+package org.jlab.beamauth.business.session;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+/**
+ * HTTPS client for calls to internal services (e.g. puppet-show). One
+ * java.net.http.HttpClient is kept per target host, so connections are kept
+ * alive and TLS sessions resumed between calls instead of building a new
+ * SSLContext and handshaking every time. The relaxed trust (these services use
+ * self-signed certificates) is confined to these clients rather than swapped
+ * into the JVM-wide HttpsURLConnection defaults.
+ * <p>
+ * Latency is recorded per target name in the MetricsRegistry, including for
+ * calls made by other libraries (e.g. the logbook client) via
+ * {@link #record(String, long, boolean)}.
+ * The request timeout defaults to 30 seconds and can be set with the
+ * environment variable BA_HTTP_TIMEOUT_SECONDS.
+ * </p>
+ *
+ * @author ryans
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class OutboundHttpClient {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            OutboundHttpClient.class.getName());
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(timeoutSeconds());
+
+    private final Map<String, HttpClient> clientMap = new ConcurrentHashMap<>();
+
+    @EJB
+    MetricsRegistry metrics;
+
+    private static long timeoutSeconds() {
+        String value = System.getenv("BA_HTTP_TIMEOUT_SECONDS");
+
+        if (value != null && !value.isEmpty()) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.WARNING,
+                        "Environment variable 'BA_HTTP_TIMEOUT_SECONDS' is not a number: {0}",
+                        value);
+            }
+        }
+
+        return 30;
+    }
+
+    /**
+     * Fetches a URL with GET.
+     *
+     * @param target The target name latency is recorded under
+     * @param uri The URL
+     * @return The response body
+     * @throws IOException If the request fails, times out, or the response
+     * status is not 200
+     */
+    @PermitAll
+    public byte[] getBytes(String target, URI uri) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+
+        LOGGER.log(Level.FINEST, "Fetching URL: {0}", uri);
+
+        long start = System.nanoTime();
+        boolean success = false;
+
+        try {
+            HttpResponse<byte[]> response = clientFor(uri.getHost()).send(request,
+                    HttpResponse.BodyHandlers.ofByteArray());
+
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected response status " + response.statusCode()
+                        + " from " + target);
+            }
+
+            success = true;
+
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + target, e);
+        } finally {
+            record(target, System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * Records the latency of a call to a target.
+     *
+     * @param target The target name
+     * @param nanos The elapsed time in nanoseconds
+     * @param success true if the call succeeded
+     */
+    @PermitAll
+    public void record(String target, long nanos, boolean success) {
+        metrics.time("beamauth_outbound_call_seconds", "target", target, nanos);
+
+        if (!success) {
+            metrics.increment("beamauth_outbound_failures_total", "target", target);
+        }
+
+        LOGGER.log(Level.FINE, "{0} call took {1} ms ({2})", new Object[]{target,
+            nanos / 1_000_000, success ? "ok" : "failed"});
+    }
+
+    private HttpClient clientFor(String host) throws IOException {
+        HttpClient client = clientMap.get(host);
+
+        if (client == null) {
+            SSLContext context;
+
+            try {
+                context = SSLContext.getInstance("TLS");
+                context.init(null, new TrustManager[]{new TrustyTrustManager()}, null);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Unable to initialize SSLContext", e);
+            }
+
+            client = HttpClient.newBuilder()
+                    .sslContext(context)
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+
+            HttpClient existing = clientMap.putIfAbsent(host, client);
+
+            if (existing != null) {
+                client = existing;
+            }
+        }
+
+        return client;
+    }
+
+    /**
+     * Trusts every certificate regardless of attributes or host name. It is an
+     * X509ExtendedTrustManager so the JSSE does not add its own host name
+     * check on top.
+     */
+    private static final class TrustyTrustManager extends X509ExtendedTrustManager {
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType,
+                Socket socket) {
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType,
+                Socket socket) {
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType,
+                SSLEngine engine) {
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType,
+                SSLEngine engine) {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
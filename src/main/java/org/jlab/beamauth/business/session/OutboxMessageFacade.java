@@ -0,0 +1,156 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.PermitAll;
+import javax.ejb.Stateless;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import org.jlab.beamauth.business.event.OutboxMessageEvent;
+import org.jlab.beamauth.persistence.entity.OutboxMessage;
+import org.jlab.beamauth.persistence.enumeration.OutboxMessageStatus;
+import org.jlab.beamauth.persistence.enumeration.OutboxMessageType;
+
+/**
+ * Persistent queue of outbound notifications. Messages are enqueued in the
+ * caller's transaction so that a notification exists if and only if the
+ * change it describes committed.
+ *
+ * @author ryans
+ */
+@Stateless
+public class OutboxMessageFacade extends AbstractFacade<OutboxMessage> {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            OutboxMessageFacade.class.getName());
+
+    public static final int MAX_ATTEMPTS = 10;
+    private static final long INITIAL_BACKOFF_MILLIS = 60 * 1000L;
+    private static final long MAX_BACKOFF_MILLIS = 60 * 60 * 1000L;
+
+    @PersistenceContext(unitName = "beam-authorizationPU")
+    private EntityManager em;
+    @Inject
+    Event<OutboxMessageEvent> outboxMessageEvent;
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+
+    public OutboxMessageFacade() {
+        super(OutboxMessage.class);
+    }
+
+    @PermitAll
+    public void enqueue(OutboxMessageType type, String author, String body) {
+        enqueue(type, author, body, null);
+    }
+
+    /**
+     * Queues a message about a specific authorization, which is rendered from
+     * that authorization when delivered rather than whatever is current then.
+     *
+     * @param type The message type
+     * @param author The author
+     * @param body The body or null
+     * @param authorizationId The authorization ID or null
+     */
+    @PermitAll
+    public void enqueue(OutboxMessageType type, String author, String body,
+            BigInteger authorizationId) {
+        Date now = new Date();
+
+        OutboxMessage message = new OutboxMessage();
+        message.setMessageType(type);
+        message.setStatus(OutboxMessageStatus.PENDING);
+        message.setAuthor(author);
+        message.setBody(body);
+        message.setAuthorizationId(authorizationId);
+        message.setAttempts(0);
+        message.setCreatedDate(now);
+        message.setNextAttemptDate(now);
+
+        create(message);
+
+        outboxMessageEvent.fire(new OutboxMessageEvent(message.getOutboxMessageId()));
+    }
+
+    @PermitAll
+    public List<OutboxMessage> findDue(Date asOf, int max) {
+        TypedQuery<OutboxMessage> q = em.createQuery(
+                "select m from OutboxMessage m where m.status = :status and m.nextAttemptDate <= :asOf order by m.nextAttemptDate asc, m.outboxMessageId asc",
+                OutboxMessage.class);
+
+        q.setParameter("status", OutboxMessageStatus.PENDING);
+        q.setParameter("asOf", asOf);
+
+        return q.setMaxResults(max).getResultList();
+    }
+
+    @PermitAll
+    public Date findNextAttemptDate() {
+        TypedQuery<Date> q = em.createQuery(
+                "select min(m.nextAttemptDate) from OutboxMessage m where m.status = :status",
+                Date.class);
+
+        q.setParameter("status", OutboxMessageStatus.PENDING);
+
+        return q.getSingleResult();
+    }
+
+    @PermitAll
+    public void markSent(BigInteger outboxMessageId, Long logId) {
+        OutboxMessage message = find(outboxMessageId);
+
+        if (message == null) {
+            return;
+        }
+
+        message.setAttempts(message.getAttempts() + 1);
+        message.setStatus(OutboxMessageStatus.SENT);
+        message.setSentDate(new Date());
+        message.setLogId(logId);
+        message.setLastError(null);
+    }
+
+    /**
+     * Records a failed delivery attempt and schedules the next one with
+     * exponential backoff, or gives up once MAX_ATTEMPTS is reached.
+     *
+     * @param outboxMessageId The message ID
+     * @param error The reason the attempt failed
+     */
+    @PermitAll
+    public void markAttemptFailed(BigInteger outboxMessageId, String error) {
+        OutboxMessage message = find(outboxMessageId);
+
+        if (message == null) {
+            return;
+        }
+
+        int attempts = message.getAttempts() + 1;
+
+        if (error != null && error.length() > 2048) {
+            error = error.substring(0, 2048);
+        }
+
+        message.setAttempts(attempts);
+        message.setLastError(error);
+
+        if (attempts >= MAX_ATTEMPTS) {
+            message.setStatus(OutboxMessageStatus.FAILED);
+            LOGGER.log(Level.SEVERE, "Giving up on outbox message {0} after {1} attempts",
+                    new Object[]{outboxMessageId, attempts});
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << (attempts - 1));
+            message.setNextAttemptDate(new Date(System.currentTimeMillis() + backoff));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.NoSuchObjectLocalException;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import org.jlab.beamauth.business.event.AuthorizationChangeEvent;
+import org.jlab.beamauth.business.event.VerificationChangeEvent;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.PermissionsChange;
+
+/**
+ * Publishes the per-destination permissions that changed whenever an
+ * authorization or control verification commits. Listeners (the permissions
+ * event stream) are handed only the destinations whose beam mode, CW limit,
+ * expiration, or verification status differ from what was last published.
+ * <p>
+ * Work is done on a container timer thread so committing transactions are not
+ * delayed, and a burst of commits (an expiration check revoking many
+ * verifications) is coalesced into a single comparison. While anyone is
+ * listening the comparison is also repeated every minute to pick up changes
+ * committed on other cluster members; with no listeners nothing is queried.
+ * Listeners must not block.
+ * </p>
+ *
+ * @author ryans
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PermissionsChangeBroadcaster {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            PermissionsChangeBroadcaster.class.getName());
+
+    private static final long RECONCILE_MILLIS = 60 * 1000L;
+
+    private final Object lock = new Object();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final CopyOnWriteArrayList<Consumer<List<PermissionsChange>>> listeners
+            = new CopyOnWriteArrayList<>();
+    private volatile boolean rerun = false;
+    private Timer timer;
+    private Map<BigInteger, PermissionsChange> published = null; // Guarded by running
+    private long sequence = 0; // Guarded by running
+
+    @Resource
+    private TimerService timerService;
+    @EJB
+    AuthorizationFacade authorizationFacade;
+    @EJB
+    BeamDestinationFacade beamDestinationFacade;
+
+    @PostConstruct
+    private void init() {
+        clearTimer();
+    }
+
+    private void clearTimer() {
+        LOGGER.log(Level.FINEST, "Clearing Permissions Change Timer");
+        for (Timer t : timerService.getTimers()) {
+            t.cancel();
+        }
+    }
+
+    private void arm(long delayMillis) {
+        synchronized (lock) {
+            if (timer != null) {
+                try {
+                    timer.cancel();
+                } catch (NoSuchObjectLocalException | IllegalStateException e) {
+                    // Already fired or cancelled
+                }
+            }
+
+            TimerConfig config = new TimerConfig(null, false);
+            timer = timerService.createSingleActionTimer(delayMillis, config);
+        }
+    }
+
+    /**
+     * Registers a listener to be handed each batch of changes. Registering a
+     * listener that is already registered does nothing.
+     *
+     * @param listener The listener
+     */
+    @PermitAll
+    public void addListener(Consumer<List<PermissionsChange>> listener) {
+        boolean first = listeners.isEmpty();
+
+        if (listeners.addIfAbsent(listener) && first) {
+            arm(0); // Record what listeners start from and resume reconciling
+        }
+    }
+
+    @PermitAll
+    public void removeListener(Consumer<List<PermissionsChange>> listener) {
+        listeners.remove(listener);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeAuthorizationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) AuthorizationChangeEvent event) {
+        requestPublish();
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeVerificationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) VerificationChangeEvent event) {
+        requestPublish();
+    }
+
+    private void requestPublish() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        if (running.get()) {
+            rerun = true;
+        } else {
+            arm(0);
+        }
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    private void handleTimeout(Timer timer) {
+        if (!running.compareAndSet(false, true)) {
+            rerun = true;
+            return;
+        }
+
+        long next = RECONCILE_MILLIS;
+
+        try {
+            do {
+                rerun = false;
+                publishChanges();
+            } while (rerun);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unable to publish permissions changes", e);
+        } finally {
+            running.set(false);
+        }
+
+        if (rerun) {
+            next = 0;
+        }
+
+        if (!listeners.isEmpty()) {
+            arm(next);
+        }
+    }
+
+    private void publishChanges() {
+        if (listeners.isEmpty()) {
+            published = null; // Nobody to compare for; start over when someone listens
+            return;
+        }
+
+        AuthorizationSnapshot authorization = authorizationFacade.findCurrentSnapshot();
+        List<BeamDestination> destinationList = beamDestinationFacade.findAllForBeamAuth();
+
+        Map<BigInteger, PermissionsChange> current = new HashMap<>();
+        List<PermissionsChange> changeList = new ArrayList<>();
+
+        for (BeamDestination destination : destinationList) {
+            PermissionsChange change = new PermissionsChange(destination, authorization);
+
+            PermissionsChange previous = published == null ? null : published.get(
+                    change.getBeamDestinationId());
+
+            if (change.isSamePermissions(previous)) {
+                change = previous;
+            } else {
+                change = change.withSequence(++sequence);
+                changeList.add(change);
+            }
+
+            current.put(change.getBeamDestinationId(), change);
+        }
+
+        boolean baseline = published == null;
+
+        published = current;
+
+        // The first comparison only records where listeners start from (they loaded the page)
+        if (baseline || changeList.isEmpty()) {
+            return;
+        }
+
+        LOGGER.log(Level.FINE, "Publishing {0} permissions change(s)", changeList.size());
+
+        List<PermissionsChange> unmodifiable = Collections.unmodifiableList(changeList);
+
+        for (Consumer<List<PermissionsChange>> listener : listeners) {
+            try {
+                listener.accept(unmodifiable);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Permissions change listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import org.jlab.beamauth.business.event.VerificationChangeEvent;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.DataVersion;
+import org.jlab.beamauth.persistence.model.DestinationAuthorizationSnapshot;
+
+/**
+ * Computes the data version of the permissions page without querying on each
+ * request: the current authorization ID (from the AuthorizationCache), a
+ * counter of committed verification changes, and how many of the displayed
+ * expirations have entered the "Expiring Soon" window and how many have
+ * passed, since that label depends on the time of day rather than on a write.
+ * The displayed expirations are those of every destination authorization of
+ * the current authorization (whatever the beam mode) and the destination
+ * verification expirations, which are reloaded once after each verification
+ * change. Both figures only grow as time passes, so any label appearing or
+ * disappearing changes the token.
+ * <p>
+ * The counter is per server so the token also contains a random nonce chosen
+ * at startup; a token issued by another cluster member or before a restart
+ * never matches. Callers must obtain the version before loading the data they
+ * render so that a concurrent change can only make the token older than the
+ * content, never newer.
+ * </p>
+ *
+ * @author ryans
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PermissionsVersion {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            PermissionsVersion.class.getName());
+
+    private final String nonce = Long.toString(ThreadLocalRandom.current().nextLong()
+            & Long.MAX_VALUE, 36);
+    private final AtomicLong verificationCounter = new AtomicLong();
+    private final AtomicReference<DataVersion> current = new AtomicReference<>();
+    private final AtomicReference<VerificationExpirations> verificationExpirations
+            = new AtomicReference<>();
+
+    @EJB
+    AuthorizationCache authorizationCache;
+    @EJB
+    BeamDestinationFacade destinationFacade;
+
+    /**
+     * Returns the current data version. The last modified instant is
+     * strictly increasing (in whole seconds, the resolution of HTTP dates)
+     * each time the token changes.
+     *
+     * @return The version
+     */
+    @PermitAll
+    public DataVersion getVersion() {
+        long now = System.currentTimeMillis();
+
+        long verifications = verificationCounter.get();
+
+        AuthorizationSnapshot authorization = authorizationCache.getSnapshot();
+
+        BigInteger authorizationId = authorization == null ? BigInteger.ZERO
+                : authorization.getAuthorizationId();
+
+        long until = twoDaysFrom(now);
+
+        int started = 0; // Expiring soon or expired
+        int expired = 0;
+
+        if (authorization != null) {
+            for (DestinationAuthorizationSnapshot da : authorization
+                    .getDestinationAuthorizationMap().values()) {
+                Date expiration = da.getExpirationDate();
+
+                if (expiration != null && expiration.getTime() < until) {
+                    started++;
+
+                    if (expiration.getTime() <= now) {
+                        expired++;
+                    }
+                }
+            }
+        }
+
+        for (long millis : getVerificationExpirations(verifications)) {
+            if (millis < until) {
+                started++;
+
+                if (millis <= now) {
+                    expired++;
+                }
+            }
+        }
+
+        String token = nonce + "-" + authorizationId + "-" + verifications + "-" + started + "."
+                + expired;
+
+        DataVersion previous = current.get();
+
+        if (previous != null && previous.getToken().equals(token)) {
+            return previous;
+        }
+
+        long lastModified = now;
+
+        if (previous != null && lastModified / 1000 <= previous.getLastModifiedMillis() / 1000) {
+            lastModified = (previous.getLastModifiedMillis() / 1000 + 1) * 1000;
+        }
+
+        DataVersion version = new DataVersion(token, lastModified);
+
+        if (current.compareAndSet(previous, version)) {
+            LOGGER.log(Level.FINEST, "Permissions data version changed: {0}", token);
+        }
+
+        return version;
+    }
+
+    private long[] getVerificationExpirations(long verifications) {
+        VerificationExpirations expirations = verificationExpirations.get();
+
+        if (expirations == null || expirations.verifications != verifications) {
+            List<Date> dateList = destinationFacade.findVerificationExpirations();
+
+            long[] millis = new long[dateList.size()];
+
+            for (int i = 0; i < millis.length; i++) {
+                millis[i] = dateList.get(i).getTime();
+            }
+
+            expirations = new VerificationExpirations(verifications, millis);
+
+            verificationExpirations.set(expirations);
+        }
+
+        return expirations.millis;
+    }
+
+    /**
+     * Matches the window of BeamAuthFunctions.twoDaysFromNow.
+     */
+    private static long twoDaysFrom(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        cal.add(Calendar.DATE, 2);
+        return cal.getTimeInMillis();
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeVerificationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) VerificationChangeEvent event) {
+        verificationCounter.incrementAndGet();
+    }
+
+    /**
+     * The destination verification expirations as of a value of the
+     * verification change counter.
+     */
+    private static final class VerificationExpirations {
+
+        private final long verifications;
+        private final long[] millis;
+
+        private VerificationExpirations(long verifications, long[] millis) {
+            this.verifications = verifications;
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.jlab.beamauth.business.session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.DeclareRoles;
+import javax.annotation.security.PermitAll;
+import javax.annotation.security.RolesAllowed;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.jlab.beamauth.persistence.model.CacheRegionReport;
+
+/**
+ * Statistics and a full eviction for the second-level cache of reference
+ * entities (Staff, Workgroup, ResponsibleGroup, CreditedControl,
+ * BeamDestination, BeamAuthDestination). Changes made through the
+ * EntityManager keep the read-write regions current on their own; rows
+ * changed directly in the database age out of the read-only regions or are
+ * dropped with evictAll (a POST to /cache-statistics).
+ *
+ * @author ryans
+ */
+@Stateless
+@DeclareRoles({"oability"})
+public class ReferenceDataCache {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            ReferenceDataCache.class.getName());
+
+    @PersistenceUnit(unitName = "beam-authorizationPU")
+    private EntityManagerFactory emf;
+
+    @RolesAllowed("oability")
+    public void evictAll() {
+        LOGGER.log(Level.INFO, "Evicting all second-level cache regions");
+        emf.getCache().evictAll();
+    }
+
+    @PermitAll
+    public List<CacheRegionReport> getRegionReportList() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+
+        Arrays.sort(regionNames);
+
+        List<CacheRegionReport> reportList = new ArrayList<>();
+
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+
+            if (region != null) {
+                reportList.add(new CacheRegionReport(regionName, region.getHitCount(),
+                        region.getMissCount(), region.getPutCount(),
+                        region.getElementCountInMemory()));
+            }
+        }
+
+        return reportList;
+    }
+}
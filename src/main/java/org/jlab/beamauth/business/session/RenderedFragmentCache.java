@@ -0,0 +1,111 @@
+package org.jlab.beamauth.business.session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.security.PermitAll;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import org.jlab.beamauth.business.event.AuthorizationChangeEvent;
+import org.jlab.beamauth.business.event.VerificationChangeEvent;
+
+/**
+ * Holds rendered page fragments that are the same for every viewer (such as
+ * the destination permissions tables) for a single data version (see
+ * PermissionsVersion). A fragment is only returned for the version it was
+ * rendered at; storing a fragment for a different version discards everything
+ * cached for the old one, as does any committed write.
+ *
+ * @author ryans
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class RenderedFragmentCache {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            RenderedFragmentCache.class.getName());
+
+    private final AtomicReference<Generation> generation = new AtomicReference<>(
+            new Generation(null));
+
+    @EJB
+    MetricsRegistry metrics;
+
+    /**
+     * Returns the fragment rendered for the given key at the given version.
+     *
+     * @param version The data version token
+     * @param key The fragment key
+     * @return The rendered fragment or null if not cached
+     */
+    @PermitAll
+    public String get(String version, String key) {
+        Generation current = generation.get();
+
+        String fragment = version.equals(current.version) ? current.fragmentMap.get(key) : null;
+
+        metrics.cacheLookup("rendered-fragment", fragment != null);
+
+        return fragment;
+    }
+
+    /**
+     * Stores a fragment rendered from data at (or newer than) the given
+     * version.
+     *
+     * @param version The data version token
+     * @param key The fragment key
+     * @param fragment The rendered fragment
+     */
+    @PermitAll
+    public void put(String version, String key, String fragment) {
+        Generation current = generation.get();
+
+        if (!version.equals(current.version)) {
+            Generation next = new Generation(version);
+
+            if (generation.compareAndSet(current, next)) {
+                LOGGER.log(Level.FINEST, "Rendered fragments now for version {0}", version);
+                current = next;
+            } else {
+                current = generation.get();
+
+                if (!version.equals(current.version)) {
+                    return; // Lost to another version; not worth caching
+                }
+            }
+        }
+
+        current.fragmentMap.put(key, fragment);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeAuthorizationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) AuthorizationChangeEvent event) {
+        generation.set(new Generation(null));
+    }
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void observeVerificationChange(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) VerificationChangeEvent event) {
+        generation.set(new Generation(null));
+    }
+
+    private static final class Generation {
+
+        private final String version;
+        private final Map<String, String> fragmentMap = new ConcurrentHashMap<>();
+
+        private Generation(String version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.jlab.beamauth.business.session;
+
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.security.PermitAll;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import org.jlab.beamauth.persistence.entity.SentNotification;
+import org.jlab.beamauth.persistence.enumeration.NotificationEvent;
+
+/**
+ * Remembers which expiration notices each recipient has already been sent so
+ * the daily sweep only emails what is new (or whose expiration date changed)
+ * instead of repeating the whole upcoming expiration list every day.
+ *
+ * @author ryans
+ */
+@Stateless
+public class SentNotificationFacade extends AbstractFacade<SentNotification> {
+
+    @PersistenceContext(unitName = "beam-authorizationPU")
+    private EntityManager em;
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+
+    public SentNotificationFacade() {
+        super(SentNotification.class);
+    }
+
+    /**
+     * Returns the key of a notice; see {@link #findSentKeys()}.
+     *
+     * @param recipient The recipient
+     * @param event The event
+     * @param itemId The beam destination or control verification ID
+     * @param expirationDate The expiration date
+     * @return The key
+     */
+    public static String key(String recipient, NotificationEvent event, BigInteger itemId,
+            Date expirationDate) {
+        // Whole seconds as the database DATE column stores them
+        return recipient + "|" + event + "|" + itemId + "|" + (expirationDate.getTime() / 1000);
+    }
+
+    /**
+     * Returns the keys of all notices already sent.
+     *
+     * @return The set of keys
+     */
+    @PermitAll
+    public Set<String> findSentKeys() {
+        TypedQuery<SentNotification> q = em.createQuery(
+                "select s from SentNotification s", SentNotification.class);
+
+        List<SentNotification> sentList = q.getResultList();
+
+        Set<String> keySet = new HashSet<>();
+
+        for (SentNotification s : sentList) {
+            keySet.add(key(s.getRecipient(), s.getEventType(), s.getItemId(),
+                    s.getExpirationDate()));
+        }
+
+        return keySet;
+    }
+
+    /**
+     * Deletes the records of notices about expiration dates before the given
+     * date. Those items have been revoked since, so they won't come up again.
+     *
+     * @param before The cutoff
+     * @return The number of records deleted
+     */
+    @PermitAll
+    public int deleteExpiredBefore(Date before) {
+        return em.createQuery(
+                "delete from SentNotification s where s.expirationDate < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+}
@@ -1,13 +1,18 @@
 package org.jlab.beamauth.business.session;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.annotation.security.PermitAll;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import org.jlab.beamauth.persistence.entity.VerificationHistory;
+import org.jlab.beamauth.persistence.model.KeysetPage;
 
 /**
  *
@@ -15,6 +20,9 @@ import org.jlab.beamauth.persistence.entity.VerificationHistory;
  */
 @Stateless
 public class VerificationHistoryFacade extends AbstractFacade<VerificationHistory> {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            VerificationHistoryFacade.class.getName());
     @PersistenceContext(unitName = "beam-authorizationPU")
     private EntityManager em;
 
@@ -27,13 +35,94 @@ public class VerificationHistoryFacade extends AbstractFacade<VerificationHistor
         super(VerificationHistory.class);
     }
 
+    /**
+     * Returns a page of verification history, newest first, by seeking on the
+     * verification history ID instead of skipping an offset. At most one of
+     * after and before is used; if neither is provided the first page is
+     * returned.
+     *
+     * @param controlVerificationId The control verification ID
+     * @param after Cursor of the last row of the previous page (next page)
+     * @param before Cursor of the first row of the following page (previous
+     * page)
+     * @param maxPerPage The page size
+     * @return The page
+     */
     @PermitAll
-    public List<VerificationHistory> findHistory(BigInteger controlVerificationId, int offset, int maxPerPage) { // join fetch a.controlVerification b join fetch b.creditedControl
-        TypedQuery<VerificationHistory> q = em.createQuery("select a from VerificationHistory a where a.controlVerification.controlVerificationId = :id order by a.verificationHistoryId desc", VerificationHistory.class);
-        
+    public KeysetPage<VerificationHistory> findHistory(BigInteger controlVerificationId,
+            String after, String before, int maxPerPage) {
+        BigInteger afterKey = parseHistoryCursor(after);
+        BigInteger beforeKey = afterKey == null ? parseHistoryCursor(before) : null;
+
+        boolean backward = beforeKey != null;
+        BigInteger key = backward ? beforeKey : afterKey;
+
+        String jpql = "select a from VerificationHistory a where a.controlVerification.controlVerificationId = :id";
+
+        if (key == null) {
+            jpql = jpql + " order by a.verificationHistoryId desc";
+        } else if (backward) {
+            jpql = jpql + " and a.verificationHistoryId > :key order by a.verificationHistoryId asc";
+        } else {
+            jpql = jpql + " and a.verificationHistoryId < :key order by a.verificationHistoryId desc";
+        }
+
+        TypedQuery<VerificationHistory> q = em.createQuery(jpql, VerificationHistory.class);
+
         q.setParameter("id", controlVerificationId);
-        
-        return q.setFirstResult(offset).setMaxResults(maxPerPage).getResultList();
+
+        if (key != null) {
+            q.setParameter("key", key);
+        }
+
+        List<VerificationHistory> historyList = new ArrayList<>(q.setMaxResults(maxPerPage + 1).getResultList());
+
+        boolean more = historyList.size() > maxPerPage;
+
+        if (more) {
+            historyList.remove(maxPerPage);
+        }
+
+        boolean previous;
+        boolean next;
+
+        if (backward) {
+            Collections.reverse(historyList);
+            previous = more;
+            next = true;
+        } else {
+            previous = key != null;
+            next = more;
+        }
+
+        String previousCursor = null;
+        String nextCursor = null;
+
+        if (!historyList.isEmpty()) {
+            if (previous) {
+                previousCursor = historyList.get(0).getVerificationHistoryId().toString();
+            }
+
+            if (next) {
+                nextCursor = historyList.get(historyList.size() - 1).getVerificationHistoryId().toString();
+            }
+        }
+
+        return new KeysetPage<>(historyList, previousCursor, nextCursor);
+    }
+
+    private BigInteger parseHistoryCursor(String cursor) {
+        BigInteger key = null;
+
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                key = new BigInteger(cursor);
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.FINE, "Ignoring invalid history cursor: {0}", cursor);
+            }
+        }
+
+        return key;
     }
 
     @PermitAll
@@ -0,0 +1,177 @@
+package org.jlab.beamauth.business.util;
+
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-bucket histogram safe for concurrent recording. Each bucket counts
+ * the values less than or equal to its upper bound (and greater than the
+ * previous bound); a final bucket counts everything above the last bound.
+ * Quantiles are estimated as the upper bound of the bucket they fall in.
+ *
+ * @author ryans
+ */
+public final class Histogram {
+
+    /**
+     * Bucket bounds for latencies in seconds.
+     */
+    public static final double[] LATENCY_BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+        0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    /**
+     * Bucket bounds for small counts such as SQL statements per request.
+     */
+    public static final double[] COUNT_BUCKETS = {0, 1, 2, 5, 10, 20, 50, 100, 200, 500,
+        1000};
+
+    private final double[] bounds;
+    private final LongAdder[] buckets;
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAccumulator max = new DoubleAccumulator(Math::max, 0);
+
+    /**
+     * Creates a histogram.
+     *
+     * @param bounds The ascending upper bounds of the buckets
+     */
+    public Histogram(double[] bounds) {
+        this.bounds = bounds.clone();
+        this.buckets = new LongAdder[bounds.length + 1];
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(double value) {
+        int i = 0;
+
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+
+        buckets[i].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public double[] getBounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * Returns the number of values in each bucket, the last one being the
+     * overflow bucket.
+     *
+     * @return The bucket counts (not cumulative)
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        return counts;
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    public double getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns a point in time summary of the histogram.
+     *
+     * @return The summary
+     */
+    public Summary summarize() {
+        long[] counts = getBucketCounts();
+
+        long count = 0;
+
+        for (long c : counts) {
+            count += c;
+        }
+
+        double maxValue = getMax();
+
+        return new Summary(count, getSum(), maxValue, quantile(counts, count, 0.5, maxValue),
+                quantile(counts, count, 0.95, maxValue), quantile(counts, count, 0.99, maxValue));
+    }
+
+    private double quantile(long[] counts, long count, double q, double maxValue) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(q * count);
+        long seen = 0;
+
+        for (int i = 0; i < bounds.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                return Math.min(bounds[i], maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    /**
+     * Count, sum, maximum and estimated median, 95th and 99th percentile of
+     * the recorded values.
+     */
+    public static final class Summary {
+
+        private final long count;
+        private final double sum;
+        private final double max;
+        private final double p50;
+        private final double p95;
+        private final double p99;
+
+        private Summary(long count, double sum, double max, double p50, double p95, double p99) {
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP95() {
+            return p95;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+    }
+}
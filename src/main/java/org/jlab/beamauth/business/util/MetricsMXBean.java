@@ -0,0 +1,19 @@
+package org.jlab.beamauth.business.util;
+
+import java.util.Map;
+
+/**
+ * JMX view of the application metrics (see MetricsRegistry), registered as
+ * org.jlab.beamauth:type=Metrics. Keys are series names in the form
+ * name{label="value"}.
+ *
+ * @author ryans
+ */
+public interface MetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Double> getGauges();
+
+    Map<String, Histogram.Summary> getHistograms();
+}
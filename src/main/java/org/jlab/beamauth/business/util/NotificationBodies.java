@@ -0,0 +1,193 @@
+package org.jlab.beamauth.business.util;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.entity.ControlVerification;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.presentation.util.BeamAuthFunctions;
+import org.jlab.smoothness.business.util.IOUtil;
+import org.jlab.smoothness.business.util.TimeUtil;
+
+/**
+ * Builds the HTML bodies of the expiration and verification downgraded
+ * notifications. Dates are formatted with a shared (thread-safe) java.time
+ * formatter and the destinations of destination authorizations are taken from
+ * a map the caller loaded in one query instead of one lazy load per row.
+ *
+ * @author ryans
+ */
+public final class NotificationBodies {
+
+    private static final DateTimeFormatter FRIENDLY_FORMATTER = DateTimeFormatter.ofPattern(
+            TimeUtil.getFriendlyDateTimePattern()).withZone(ZoneId.systemDefault());
+
+    private NotificationBodies() {
+        // Can't instantiate publicly
+    }
+
+    /**
+     * Builds the body of an expired / expiring soon notification. Any of the
+     * lists may be null.
+     *
+     * @param proxyServerName The host name of the link back to the app
+     * @param destinationMap The destinations of the destination authorizations
+     * keyed by ID
+     * @param expiredAuthorizationList The expired destination authorizations
+     * @param expiredVerificationList The expired verifications
+     * @param upcomingAuthorizationExpirationList The destination authorizations
+     * expiring soon
+     * @param upcomingVerificationExpirationList The verifications expiring soon
+     * @return The HTML body
+     */
+    public static String buildExpiredMessage(String proxyServerName,
+            Map<BigInteger, BeamDestination> destinationMap,
+            List<DestinationAuthorization> expiredAuthorizationList,
+            List<ControlVerification> expiredVerificationList,
+            List<DestinationAuthorization> upcomingAuthorizationExpirationList,
+            List<ControlVerification> upcomingVerificationExpirationList) {
+        StringBuilder builder = new StringBuilder();
+
+        if (expiredAuthorizationList != null && !expiredAuthorizationList.isEmpty()) {
+            builder.append("<h1>--- Expired Director's Authorizations ---</h1>\n");
+            for (DestinationAuthorization authorization : expiredAuthorizationList) {
+                builder.append("</div>\n<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(destinationOf(authorization,
+                        destinationMap)));
+                builder.append("</div>\n<div><b>Expired On:</b> ");
+                builder.append(format(authorization.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(
+                        authorization.getComments() == null ? "" : authorization.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+        }
+
+        if (expiredVerificationList != null && !expiredVerificationList.isEmpty()) {
+            builder.append("<h1>--- Expired Credited Control Verifications ---</h1>\n");
+
+            for (ControlVerification v : expiredVerificationList) {
+
+                builder.append("<div><b>Credited Control:</b> ");
+                builder.append(v.getCreditedControl().getName());
+                builder.append("</div>\n<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
+                builder.append("</div>\n<div><b>Verified On:</b> ");
+                builder.append(format(v.getVerificationDate()));
+                builder.append("</div>\n<div><b>Verified By:</b> ");
+                builder.append(BeamAuthFunctions.formatStaff(v.getVerifiedBy()));
+                builder.append("</div>\n<div><b>Expired On:</b> ");
+                builder.append(format(v.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(v.getComments() == null ? "" : v.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+
+            builder.append("<br/><br/>\n");
+        }
+
+        if (upcomingAuthorizationExpirationList != null
+                && !upcomingAuthorizationExpirationList.isEmpty()) {
+            builder.append("<h1>--- Director's Authorizations Expiring Soon ---</h1>\n");
+
+            for (DestinationAuthorization authorization : upcomingAuthorizationExpirationList) {
+
+                builder.append("<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(destinationOf(authorization,
+                        destinationMap)));
+                builder.append("</div>\n<div><b>Expires On:</b> ");
+                builder.append(format(authorization.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(
+                        authorization.getComments() == null ? "" : authorization.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+
+            builder.append("<br/><br/>\n");
+        }
+
+        if (upcomingVerificationExpirationList != null
+                && !upcomingVerificationExpirationList.isEmpty()) {
+            builder.append("<h1>--- Credited Control Verifications Expiring Soon ---</h1>\n");
+
+            for (ControlVerification v : upcomingVerificationExpirationList) {
+
+                builder.append("<div><b>Credited Control:</b> ");
+                builder.append(v.getCreditedControl().getName());
+                builder.append("</div>\n<div><b>Beam Destination:</b> ");
+                builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
+                builder.append("</div>\n<div><b>Verified On:</b> ");
+                builder.append(format(v.getVerificationDate()));
+                builder.append("</div>\n<div><b>Verified By:</b> ");
+                builder.append(BeamAuthFunctions.formatStaff(v.getVerifiedBy()));
+                builder.append("</div>\n<div><b>Expiring On:</b> ");
+                builder.append(format(v.getExpirationDate()));
+                builder.append("</div>\n<div><b>Comments:</b> ");
+                builder.append(IOUtil.escapeXml(v.getComments() == null ? "" : v.getComments()));
+                builder.append("<br/><br/>\n");
+            }
+        }
+
+        builder.append("<br/><br/>\n");
+        builder.append("</div><div>\n\n<b>See:</b> <a href=\"https://").append(proxyServerName).append(
+                "/beam-auth/\">Beam Authorization</a></div>\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Builds the body of a verification downgraded notification. The
+     * verifications all share the same control, status, and comments.
+     *
+     * @param proxyServerName The host name of the link back to the app
+     * @param downgradeList The downgraded verifications (at least one)
+     * @return The HTML body
+     */
+    public static String buildVerificationDowngradedMessage(String proxyServerName,
+            List<ControlVerification> downgradeList) {
+        StringBuilder builder = new StringBuilder();
+
+        ControlVerification verification = downgradeList.get(0);
+
+        builder.append("<div><b>Credited Control:</b> ");
+        builder.append(verification.getCreditedControl().getName());
+        builder.append("</div>\n<div><b>Beam Destinations:</b> ");
+        for (ControlVerification v : downgradeList) {
+            builder.append("<div>");
+            builder.append(BeamAuthFunctions.formatDestination(v.getBeamDestination()));
+            builder.append("</div>");
+        }
+        builder.append("</div>\n<div><b>Modified On:</b> ");
+        builder.append(format(verification.getVerificationDate()));
+        builder.append("</div>\n<div><b>Modified By:</b> ");
+        builder.append(BeamAuthFunctions.formatStaff(verification.getVerifiedBy()));
+        builder.append("</div>\n<div><b>Verification:</b> ");
+        builder.append(
+                verification.getVerificationId() == 1 ? "Verified" : (verification.getVerificationId()
+                == 50 ? "Provisionally Verified" : "Not Verified"));
+        builder.append("</div>\n<div><b>Comments:</b> ");
+        builder.append(IOUtil.escapeXml(verification.getComments()));
+        builder.append("</div><div>\n\n<b>See:</b> <a href=\"https://").append(proxyServerName).append(
+                "/beam-auth/\">Beam Authorization</a></div>\n");
+
+        return builder.toString();
+    }
+
+    private static BeamDestination destinationOf(DestinationAuthorization da,
+            Map<BigInteger, BeamDestination> destinationMap) {
+        BeamDestination destination = destinationMap == null ? null : destinationMap.get(
+                da.getDestinationAuthorizationPK().getBeamDestinationId());
+
+        return destination == null ? da.getDestination() : destination;
+    }
+
+    private static String format(Date date) {
+        // java.sql.Date does not support toInstant
+        return FRIENDLY_FORMATTER.format(Instant.ofEpochMilli(date.getTime()));
+    }
+}
@@ -0,0 +1,491 @@
+package org.jlab.beamauth.business.util;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.model.ActiveDestinations;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.DestinationAuthorizationSnapshot;
+import org.jlab.beamauth.persistence.view.BeamDestinationVerification;
+import org.jlab.beamauth.presentation.util.BeamAuthFunctions;
+import org.jlab.smoothness.business.util.TimeUtil;
+
+/**
+ * Draws the permissions tables (CEBAF, LERF, and UITF), notes, and signature
+ * into a PNG with Java2D, for attaching to the new authorization eLog without a
+ * round trip through the puppet-show headless browser. The content matches the
+ * read-only permissions page; the styling is only an approximation of it.
+ *
+ * @author ryans
+ */
+public final class PermissionsImageRenderer {
+
+    private static final DateTimeFormatter FRIENDLY_FORMATTER = DateTimeFormatter.ofPattern(
+            TimeUtil.getFriendlyDateTimePattern()).withZone(ZoneId.systemDefault());
+
+    private static final long EXPIRING_SOON_MILLIS = 2L * 24 * 60 * 60 * 1000;
+
+    private static final String[] MACHINES = {"CEBAF", "LERF", "UITF"};
+    private static final String[] HEADERS = {"Beam Destination", "Approval", "Beam Mode",
+        "Current Limit", "Comment", "Expiration", "Credited Controls\nStatus"};
+    private static final int COMMENT_COLUMN = 4;
+
+    private static final Font TITLE_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 20);
+    private static final Font HEADING_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 16);
+    private static final Font HEADER_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 12);
+    private static final Font CELL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+
+    private static final Color TEXT = Color.BLACK;
+    private static final Color GRID = new Color(0xBBBBBB);
+    private static final Color HEADER_BACKGROUND = new Color(0xDDDDDD);
+    private static final Color STRIPE_BACKGROUND = new Color(0xF2F2F2);
+    private static final Color VERIFIED = new Color(0x2E7D32);
+    private static final Color PROVISIONAL = new Color(0xB8860B);
+    private static final Color NOT_VERIFIED = new Color(0xC62828);
+
+    private static final int MARGIN = 16;
+    private static final int PADDING = 6;
+    private static final int HEADING_GAP = 8;
+    private static final int MAX_COMMENT_WIDTH = 320;
+
+    private PermissionsImageRenderer() {
+        // Can't instantiate publicly
+    }
+
+    /**
+     * Renders the permissions as a PNG.
+     *
+     * @param authorization The current authorization, or null if there is none
+     * @param destinations The active destinations with their verification
+     * status
+     * @param now The time "expiring soon" is relative to in millis
+     * @return The PNG bytes
+     * @throws IOException If the image can not be encoded
+     */
+    public static byte[] renderPng(AuthorizationSnapshot authorization,
+            ActiveDestinations destinations, long now) throws IOException {
+        Map<BigInteger, DestinationAuthorizationSnapshot> destinationAuthorizationMap
+                = authorization == null ? Collections.emptyMap()
+                : authorization.getDestinationAuthorizationMap();
+
+        // A scratch image just for measuring text before the real size is known
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scratch.createGraphics();
+
+        Layout layout;
+
+        try {
+            layout = new Layout(g.getFontMetrics(HEADER_FONT), g.getFontMetrics(CELL_FONT),
+                    g.getFontMetrics(TITLE_FONT), g.getFontMetrics(HEADING_FONT));
+
+            NumberFormat numberFormat = NumberFormat.getNumberInstance();
+
+            for (String machine : MACHINES) {
+                List<Cell[]> rowList = new ArrayList<>();
+
+                for (BeamDestination destination : destinations.getDestinationList(machine)) {
+                    rowList.add(toRow(destination, destinationAuthorizationMap.get(
+                            destination.getBeamDestinationId()), destinations.getUnitsMap().get(
+                            destination.getBeamDestinationId()), numberFormat, now));
+                }
+
+                layout.addTable(machine, rowList);
+            }
+
+            String comments = authorization == null ? null : authorization.getComments();
+
+            layout.setNotes(comments == null || comments.isEmpty() ? "None" : comments);
+            layout.setSignature(authorization == null ? "None" : "Authorized by "
+                    + BeamAuthFunctions.formatStaff(authorization.getAuthorizedBy()) + " on "
+                    + format(authorization.getAuthorizationDate()));
+        } finally {
+            g.dispose();
+        }
+
+        BufferedImage image = new BufferedImage(layout.getWidth(), layout.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+
+        g = image.createGraphics();
+
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+
+            layout.draw(g);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+        ImageIO.write(image, "png", out);
+
+        return out.toByteArray();
+    }
+
+    private static Cell[] toRow(BeamDestination destination,
+            DestinationAuthorizationSnapshot da, String units, NumberFormat numberFormat,
+            long now) {
+        BeamDestinationVerification verification = destination.getVerification();
+        Integer verificationId = verification == null ? null : verification.getVerificationId();
+
+        boolean verified = verificationId != null && verificationId == 1;
+        boolean provisional = verificationId != null && verificationId == 50;
+
+        String beamMode = da == null || da.getBeamMode() == null ? "None" : da.getBeamMode();
+
+        boolean approved = (verified || provisional) && !"None".equals(beamMode);
+
+        String limit = "";
+
+        if (da != null && da.getCwLimit() != null) {
+            limit = numberFormat.format(da.getCwLimit()) + " " + (units == null ? "uA" : units);
+        } else if (!"None".equals(beamMode)) {
+            limit = "Dump Power Limited";
+        }
+
+        Date expiration = da == null ? null : da.getExpirationDate();
+
+        Cell[] row = new Cell[HEADERS.length];
+
+        row[0] = new Cell(BeamAuthFunctions.formatDestination(destination), TEXT);
+        row[1] = new Cell(approved ? "Approved" : "Not Approved", approved ? VERIFIED
+                : NOT_VERIFIED);
+        row[2] = new Cell(beamMode, TEXT);
+        row[3] = new Cell(limit, TEXT);
+        row[4] = new Cell(da == null ? "" : da.getComments(), TEXT);
+        row[5] = new Cell(withExpiringSoon(format(expiration), expiration, now), TEXT);
+        row[6] = new Cell(withExpiringSoon(verified ? "Verified" : (provisional
+                ? "Provisionally Verified" : "Not Verified"), verification == null ? null
+                : verification.getExpirationDate(), now), verified ? VERIFIED : (provisional
+                ? PROVISIONAL : NOT_VERIFIED));
+
+        return row;
+    }
+
+    private static String withExpiringSoon(String text, Date expiration, long now) {
+        if (expiration != null && expiration.getTime() > now
+                && expiration.getTime() < now + EXPIRING_SOON_MILLIS) {
+            return text + "\n(Expiring Soon)";
+        }
+
+        return text;
+    }
+
+    private static String format(Date date) {
+        // java.sql.Date does not support toInstant
+        return date == null ? "" : FRIENDLY_FORMATTER.format(Instant.ofEpochMilli(date.getTime()));
+    }
+
+    /**
+     * Splits text into lines at newlines and, if a maximum width is given,
+     * between words so no line is wider than it (unless a single word is).
+     */
+    private static List<String> wrap(String text, FontMetrics metrics, int maxWidth) {
+        List<String> lineList = new ArrayList<>();
+
+        if (text == null || text.isEmpty()) {
+            lineList.add("");
+            return lineList;
+        }
+
+        for (String paragraph : text.split("\\r?\\n", -1)) {
+            if (maxWidth <= 0 || metrics.stringWidth(paragraph) <= maxWidth) {
+                lineList.add(paragraph);
+                continue;
+            }
+
+            StringBuilder line = new StringBuilder();
+
+            for (String word : paragraph.split(" ")) {
+                if (line.length() > 0 && metrics.stringWidth(line + " " + word) > maxWidth) {
+                    lineList.add(line.toString());
+                    line.setLength(0);
+                }
+
+                if (line.length() > 0) {
+                    line.append(' ');
+                }
+
+                line.append(word);
+            }
+
+            lineList.add(line.toString());
+        }
+
+        return lineList;
+    }
+
+    private static int maxWidth(List<String> lineList, FontMetrics metrics) {
+        int width = 0;
+
+        for (String line : lineList) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+
+        return width;
+    }
+
+    private static void drawLines(Graphics2D g, List<String> lineList, FontMetrics metrics,
+            int x, int y) {
+        int baseline = y + metrics.getAscent();
+
+        for (String line : lineList) {
+            g.drawString(line, x, baseline);
+            baseline = baseline + metrics.getHeight();
+        }
+    }
+
+    private static final class Cell {
+
+        private final String text;
+        private final Color color;
+        private List<String> lineList;
+
+        private Cell(String text, Color color) {
+            this.text = text;
+            this.color = color;
+        }
+    }
+
+    private static final class Table {
+
+        private final String title;
+        private final List<Cell[]> rowList;
+        private final int[] rowHeights;
+
+        private Table(String title, List<Cell[]> rowList) {
+            this.title = title;
+            this.rowList = rowList;
+            this.rowHeights = new int[rowList.size()];
+        }
+    }
+
+    /**
+     * Measures everything first (column widths are shared by all tables so
+     * they line up) and then draws at the measured positions.
+     */
+    private static final class Layout {
+
+        private static final String TITLE = "Beam Authorization Permissions";
+
+        private final FontMetrics headerMetrics;
+        private final FontMetrics cellMetrics;
+        private final FontMetrics titleMetrics;
+        private final FontMetrics headingMetrics;
+
+        private final List<String>[] headerList;
+        private final int[] columnWidths = new int[HEADERS.length];
+        private final int headerHeight;
+        private final List<Table> tableList = new ArrayList<>();
+
+        private String notes;
+        private String signature;
+        private List<String> notesLineList;
+
+        @SuppressWarnings("unchecked")
+        private Layout(FontMetrics headerMetrics, FontMetrics cellMetrics,
+                FontMetrics titleMetrics, FontMetrics headingMetrics) {
+            this.headerMetrics = headerMetrics;
+            this.cellMetrics = cellMetrics;
+            this.titleMetrics = titleMetrics;
+            this.headingMetrics = headingMetrics;
+
+            headerList = new List[HEADERS.length];
+
+            int lines = 1;
+
+            for (int i = 0; i < HEADERS.length; i++) {
+                headerList[i] = wrap(HEADERS[i], headerMetrics, 0);
+                columnWidths[i] = maxWidth(headerList[i], headerMetrics) + 2 * PADDING;
+                lines = Math.max(lines, headerList[i].size());
+            }
+
+            headerHeight = lines * headerMetrics.getHeight() + 2 * PADDING;
+        }
+
+        private void addTable(String title, List<Cell[]> rowList) {
+            Table table = new Table(title, rowList);
+
+            for (int r = 0; r < rowList.size(); r++) {
+                int lines = 1;
+
+                for (int i = 0; i < HEADERS.length; i++) {
+                    Cell cell = rowList.get(r)[i];
+
+                    cell.lineList = wrap(cell.text, cellMetrics, i == COMMENT_COLUMN
+                            ? MAX_COMMENT_WIDTH : 0);
+                    columnWidths[i] = Math.max(columnWidths[i], maxWidth(cell.lineList,
+                            cellMetrics) + 2 * PADDING);
+                    lines = Math.max(lines, cell.lineList.size());
+                }
+
+                table.rowHeights[r] = lines * cellMetrics.getHeight() + 2 * PADDING;
+            }
+
+            tableList.add(table);
+        }
+
+        private void setNotes(String notes) {
+            this.notes = notes;
+        }
+
+        private void setSignature(String signature) {
+            this.signature = signature;
+        }
+
+        private int getTableWidth() {
+            int width = 0;
+
+            for (int columnWidth : columnWidths) {
+                width = width + columnWidth;
+            }
+
+            return width;
+        }
+
+        private int getWidth() {
+            int width = Math.max(getTableWidth(), titleMetrics.stringWidth(TITLE));
+
+            width = Math.max(width, cellMetrics.stringWidth(signature));
+
+            return width + 2 * MARGIN;
+        }
+
+        private List<String> getNotesLineList() {
+            if (notesLineList == null) {
+                notesLineList = wrap(notes, cellMetrics, getWidth() - 2 * MARGIN);
+            }
+
+            return notesLineList;
+        }
+
+        private int getHeight() {
+            int height = MARGIN + titleMetrics.getHeight() + HEADING_GAP;
+
+            for (Table table : tableList) {
+                height = height + headingMetrics.getHeight() + HEADING_GAP + headerHeight;
+
+                for (int rowHeight : table.rowHeights) {
+                    height = height + rowHeight;
+                }
+
+                height = height + HEADING_GAP;
+            }
+
+            height = height + 2 * (headingMetrics.getHeight() + HEADING_GAP);
+            height = height + getNotesLineList().size() * cellMetrics.getHeight() + HEADING_GAP;
+            height = height + cellMetrics.getHeight() + MARGIN;
+
+            return height;
+        }
+
+        private void draw(Graphics2D g) {
+            int tableWidth = getTableWidth();
+            int y = MARGIN;
+
+            g.setColor(TEXT);
+            g.setFont(TITLE_FONT);
+            g.drawString(TITLE, MARGIN, y + titleMetrics.getAscent());
+            y = y + titleMetrics.getHeight() + HEADING_GAP;
+
+            for (Table table : tableList) {
+                y = drawHeading(g, table.title, y);
+
+                int tableTop = y;
+
+                g.setColor(HEADER_BACKGROUND);
+                g.fillRect(MARGIN, y, tableWidth, headerHeight);
+                g.setColor(TEXT);
+                g.setFont(HEADER_FONT);
+
+                int x = MARGIN;
+
+                for (int i = 0; i < HEADERS.length; i++) {
+                    drawLines(g, headerList[i], headerMetrics, x + PADDING, y + PADDING);
+                    x = x + columnWidths[i];
+                }
+
+                y = y + headerHeight;
+
+                g.setFont(CELL_FONT);
+
+                for (int r = 0; r < table.rowList.size(); r++) {
+                    if (r % 2 == 1) {
+                        g.setColor(STRIPE_BACKGROUND);
+                        g.fillRect(MARGIN, y, tableWidth, table.rowHeights[r]);
+                    }
+
+                    x = MARGIN;
+
+                    for (int i = 0; i < HEADERS.length; i++) {
+                        Cell cell = table.rowList.get(r)[i];
+
+                        g.setColor(cell.color);
+                        drawLines(g, cell.lineList, cellMetrics, x + PADDING, y + PADDING);
+                        x = x + columnWidths[i];
+                    }
+
+                    y = y + table.rowHeights[r];
+
+                    g.setColor(GRID);
+                    g.drawLine(MARGIN, y, MARGIN + tableWidth, y);
+                }
+
+                g.setColor(GRID);
+                g.drawRect(MARGIN, tableTop, tableWidth, y - tableTop);
+                g.drawLine(MARGIN, tableTop + headerHeight, MARGIN + tableWidth, tableTop
+                        + headerHeight);
+
+                x = MARGIN;
+
+                for (int i = 0; i < HEADERS.length - 1; i++) {
+                    x = x + columnWidths[i];
+                    g.drawLine(x, tableTop, x, y);
+                }
+
+                y = y + HEADING_GAP;
+            }
+
+            y = drawHeading(g, "Notes", y);
+
+            g.setColor(TEXT);
+            g.setFont(CELL_FONT);
+            drawLines(g, getNotesLineList(), cellMetrics, MARGIN, y);
+            y = y + getNotesLineList().size() * cellMetrics.getHeight() + HEADING_GAP;
+
+            y = drawHeading(g, "Digital Signature", y);
+
+            g.setColor(TEXT);
+            g.setFont(CELL_FONT);
+            drawLines(g, Collections.singletonList(signature), cellMetrics, MARGIN, y);
+        }
+
+        private int drawHeading(Graphics2D g, String heading, int y) {
+            g.setColor(TEXT);
+            g.setFont(HEADING_FONT);
+            g.drawString(heading, MARGIN, y + headingMetrics.getAscent());
+
+            return y + headingMetrics.getHeight() + HEADING_GAP;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.jlab.beamauth.business.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+/**
+ * A fixed number of SMTP transports of one mail session, each of which stays
+ * connected across the messages it sends, so a batch of messages is sent over
+ * a few connections instead of one connection (and handshake) per message.
+ * Messages of a batch are sent concurrently, one per transport at a time.
+ * <p>
+ * The session can point at any SMTP server, including an in-process stand-in
+ * on localhost.
+ * </p>
+ *
+ * @author ryans
+ */
+public final class SmtpTransportPool {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            SmtpTransportPool.class.getName());
+
+    private final BlockingQueue<Transport> idleQueue;
+
+    /**
+     * Creates a pool. No connections are opened until a message is sent.
+     *
+     * @param session The mail session
+     * @param size The number of transports (concurrent connections)
+     * @throws MessagingException If the session has no SMTP transport
+     */
+    public SmtpTransportPool(Session session, int size) throws MessagingException {
+        idleQueue = new ArrayBlockingQueue<>(size);
+
+        for (int i = 0; i < size; i++) {
+            idleQueue.add(session.getTransport("smtp"));
+        }
+    }
+
+    /**
+     * Sends the messages concurrently using the given executor and waits for
+     * all of them. A message that fails does not stop the others.
+     *
+     * @param messageList The messages
+     * @param executor The executor to send with
+     * @return The outcome of each message, in the same order
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public List<Delivery> sendAll(List<? extends Message> messageList, ExecutorService executor)
+            throws InterruptedException {
+        List<Future<Delivery>> futureList = new ArrayList<>(messageList.size());
+
+        for (Message message : messageList) {
+            futureList.add(executor.submit(() -> send(message)));
+        }
+
+        List<Delivery> deliveryList = new ArrayList<>(futureList.size());
+
+        for (int i = 0; i < futureList.size(); i++) {
+            try {
+                deliveryList.add(futureList.get(i).get());
+            } catch (ExecutionException e) {
+                deliveryList.add(new Delivery(messageList.get(i), 0, e.getCause()));
+            }
+        }
+
+        return deliveryList;
+    }
+
+    /**
+     * Sends one message over the next idle transport, waiting for one to become
+     * idle if necessary.
+     *
+     * @param message The message
+     * @return The outcome
+     * @throws InterruptedException If interrupted while waiting for a transport
+     */
+    public Delivery send(Message message) throws InterruptedException {
+        Transport transport = idleQueue.take();
+
+        long start = System.nanoTime();
+        Exception error = null;
+
+        try {
+            if (!transport.isConnected()) { // Never connected or dropped by the server
+                transport.connect();
+            }
+
+            message.saveChanges();
+
+            Address[] recipients = message.getAllRecipients();
+
+            if (recipients == null || recipients.length == 0) {
+                throw new MessagingException("Message has no recipients");
+            }
+
+            transport.sendMessage(message, recipients);
+        } catch (MessagingException | RuntimeException e) {
+            error = e;
+            closeQuietly(transport); // Don't reuse a connection in an unknown state
+        } finally {
+            idleQueue.add(transport);
+        }
+
+        return new Delivery(message, (System.nanoTime() - start) / 1_000_000, error);
+    }
+
+    /**
+     * Disconnects all idle transports. They reconnect on next use.
+     */
+    public void closeIdle() {
+        List<Transport> transportList = new ArrayList<>();
+
+        idleQueue.drainTo(transportList);
+
+        for (Transport transport : transportList) {
+            closeQuietly(transport);
+            idleQueue.add(transport);
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            LOGGER.log(Level.FINE, "Unable to close SMTP transport", e);
+        }
+    }
+
+    /**
+     * The outcome of sending a message: how long it took and the error, if any.
+     */
+    public static final class Delivery {
+
+        private final Message message;
+        private final long millis;
+        private final Throwable error;
+
+        private Delivery(Message message, long millis, Throwable error) {
+            this.message = message;
+            this.millis = millis;
+            this.error = error;
+        }
+
+        public Message getMessage() {
+            return message;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.jlab.beamauth.persistence.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jlab.beamauth.persistence.util.YnStringToBoolean;
 
 import javax.persistence.*;
@@ -7,6 +9,8 @@ import java.math.BigInteger;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "beamauth.beamAuthDestination")
 @Table(name = "BEAM_AUTH_DESTINATION", schema = "BEAM_AUTH_OWNER")
 public class BeamAuthDestination {
     private BigInteger beamDestinationId;
@@ -0,0 +1,91 @@
+package org.jlab.beamauth.persistence.entity;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+/**
+ * The single row that points at the authorization currently in effect. It is
+ * moved in the same transaction that inserts a new Authorization, so finding
+ * the current authorization is a primary key lookup rather than a sort of the
+ * authorization history, and writers of new authorizations have one row to
+ * lock and compare-and-set.
+ *
+ * @author ryans
+ */
+@Entity
+@Table(name = "CURRENT_AUTHORIZATION", schema = "BEAM_AUTH_OWNER")
+public class CurrentAuthorization implements Serializable {
+
+    /**
+     * The ID of the only row.
+     */
+    public static final BigInteger ID = BigInteger.ONE;
+
+    private static final long serialVersionUID = 1L;
+    @Id
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "CURRENT_AUTHORIZATION_ID", nullable = false)
+    private BigInteger currentAuthorizationId;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "AUTHORIZATION_ID", nullable = false)
+    private BigInteger authorizationId;
+
+    public CurrentAuthorization() {
+    }
+
+    public CurrentAuthorization(BigInteger authorizationId) {
+        this.currentAuthorizationId = ID;
+        this.authorizationId = authorizationId;
+    }
+
+    public BigInteger getCurrentAuthorizationId() {
+        return currentAuthorizationId;
+    }
+
+    public void setCurrentAuthorizationId(BigInteger currentAuthorizationId) {
+        this.currentAuthorizationId = currentAuthorizationId;
+    }
+
+    public BigInteger getAuthorizationId() {
+        return authorizationId;
+    }
+
+    public void setAuthorizationId(BigInteger authorizationId) {
+        this.authorizationId = authorizationId;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (currentAuthorizationId != null ? currentAuthorizationId.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof CurrentAuthorization)) {
+            return false;
+        }
+        CurrentAuthorization other = (CurrentAuthorization) object;
+        if ((this.currentAuthorizationId == null && other.currentAuthorizationId != null)
+                || (this.currentAuthorizationId != null && !this.currentAuthorizationId.equals(
+                other.currentAuthorizationId))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "org.jlab.beamauth.persistence.entity.CurrentAuthorization[ authorizationId="
+                + authorizationId + " ]";
+    }
+}
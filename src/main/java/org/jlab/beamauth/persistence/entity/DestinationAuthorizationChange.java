@@ -0,0 +1,105 @@
+package org.jlab.beamauth.persistence.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinColumns;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Marks a DestinationAuthorization that differs from the same destination's
+ * authorization in the previous Authorization (beam mode, lase mode, CW limit,
+ * expiration, or comments), so the history of a single destination can be
+ * listed without reading every mostly-unchanged copy. The modified date is
+ * copied from the Authorization so the timeline of a destination is an index
+ * range scan.
+ *
+ * @author ryans
+ */
+@Entity
+@Table(name = "DESTINATION_AUTH_CHANGE", schema = "BEAM_AUTH_OWNER")
+public class DestinationAuthorizationChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    @EmbeddedId
+    protected DestinationAuthorizationPK destinationAuthorizationPK;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "MODIFIED_DATE", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date modifiedDate;
+    @JoinColumns({
+        @JoinColumn(name = "BEAM_DESTINATION_ID", referencedColumnName = "BEAM_DESTINATION_ID",
+                nullable = false, insertable = false, updatable = false),
+        @JoinColumn(name = "AUTHORIZATION_ID", referencedColumnName = "AUTHORIZATION_ID",
+                nullable = false, insertable = false, updatable = false)})
+    @OneToOne(fetch = FetchType.LAZY)
+    private DestinationAuthorization destinationAuthorization;
+
+    public DestinationAuthorizationChange() {
+    }
+
+    public DestinationAuthorizationChange(DestinationAuthorizationPK destinationAuthorizationPK,
+            Date modifiedDate) {
+        this.destinationAuthorizationPK = new DestinationAuthorizationPK(
+                destinationAuthorizationPK.getBeamDestinationId(),
+                destinationAuthorizationPK.getAuthorizationId());
+        this.modifiedDate = modifiedDate;
+    }
+
+    public DestinationAuthorizationPK getDestinationAuthorizationPK() {
+        return destinationAuthorizationPK;
+    }
+
+    public void setDestinationAuthorizationPK(DestinationAuthorizationPK destinationAuthorizationPK) {
+        this.destinationAuthorizationPK = destinationAuthorizationPK;
+    }
+
+    public Date getModifiedDate() {
+        return modifiedDate;
+    }
+
+    public void setModifiedDate(Date modifiedDate) {
+        this.modifiedDate = modifiedDate;
+    }
+
+    public DestinationAuthorization getDestinationAuthorization() {
+        return destinationAuthorization;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (destinationAuthorizationPK != null ? destinationAuthorizationPK.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof DestinationAuthorizationChange)) {
+            return false;
+        }
+        DestinationAuthorizationChange other = (DestinationAuthorizationChange) object;
+        if ((this.destinationAuthorizationPK == null && other.destinationAuthorizationPK != null)
+                || (this.destinationAuthorizationPK != null && !this.destinationAuthorizationPK.equals(
+                other.destinationAuthorizationPK))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "org.jlab.beamauth.persistence.entity.DestinationAuthorizationChange[ destinationAuthorizationPK="
+                + destinationAuthorizationPK + " ]";
+    }
+}
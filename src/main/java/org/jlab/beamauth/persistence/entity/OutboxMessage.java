@@ -0,0 +1,206 @@
+package org.jlab.beamauth.persistence.entity;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Date;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import org.jlab.beamauth.persistence.enumeration.OutboxMessageStatus;
+import org.jlab.beamauth.persistence.enumeration.OutboxMessageType;
+
+/**
+ * An outbound notification (email or eLog entry) queued in the same
+ * transaction as the change it describes and delivered later by the
+ * NotificationDispatcher.
+ *
+ * @author ryans
+ */
+@Entity
+@Table(name = "OUTBOX_MESSAGE", schema = "BEAM_AUTH_OWNER")
+public class OutboxMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    @Id
+    @SequenceGenerator(name = "OutboxMessageId", sequenceName = "OUTBOX_MESSAGE_ID", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "OutboxMessageId")
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "OUTBOX_MESSAGE_ID", nullable = false, precision = 22, scale = 0)
+    private BigInteger outboxMessageId;
+    @Basic(optional = false)
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "MESSAGE_TYPE", nullable = false, length = 32)
+    private OutboxMessageType messageType;
+    @Basic(optional = false)
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 16)
+    private OutboxMessageStatus status;
+    @Size(max = 64)
+    @Column(name = "AUTHOR", length = 64)
+    private String author;
+    @Lob
+    @Column(name = "BODY")
+    private String body;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "ATTEMPTS", nullable = false)
+    private int attempts;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "CREATED_DATE", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdDate;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "NEXT_ATTEMPT_DATE", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date nextAttemptDate;
+    @Column(name = "SENT_DATE")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date sentDate;
+    @Column(name = "LOG_ID")
+    private Long logId;
+    @Column(name = "AUTHORIZATION_ID", precision = 22, scale = 0)
+    private BigInteger authorizationId;
+    @Size(max = 2048)
+    @Column(name = "LAST_ERROR", length = 2048)
+    private String lastError;
+
+    public OutboxMessage() {
+    }
+
+    public BigInteger getOutboxMessageId() {
+        return outboxMessageId;
+    }
+
+    public void setOutboxMessageId(BigInteger outboxMessageId) {
+        this.outboxMessageId = outboxMessageId;
+    }
+
+    public OutboxMessageType getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(OutboxMessageType messageType) {
+        this.messageType = messageType;
+    }
+
+    public OutboxMessageStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxMessageStatus status) {
+        this.status = status;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Date getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    public void setNextAttemptDate(Date nextAttemptDate) {
+        this.nextAttemptDate = nextAttemptDate;
+    }
+
+    public Date getSentDate() {
+        return sentDate;
+    }
+
+    public void setSentDate(Date sentDate) {
+        this.sentDate = sentDate;
+    }
+
+    public Long getLogId() {
+        return logId;
+    }
+
+    public void setLogId(Long logId) {
+        this.logId = logId;
+    }
+
+    public BigInteger getAuthorizationId() {
+        return authorizationId;
+    }
+
+    public void setAuthorizationId(BigInteger authorizationId) {
+        this.authorizationId = authorizationId;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (outboxMessageId != null ? outboxMessageId.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof OutboxMessage)) {
+            return false;
+        }
+        OutboxMessage other = (OutboxMessage) object;
+        if ((this.outboxMessageId == null && other.outboxMessageId != null) || (this.outboxMessageId != null && !this.outboxMessageId.equals(other.outboxMessageId))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "org.jlab.beamauth.persistence.entity.OutboxMessage[ outboxMessageId=" + outboxMessageId + " ]";
+    }
+}
@@ -0,0 +1,140 @@
+package org.jlab.beamauth.persistence.entity;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Date;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import org.jlab.beamauth.persistence.enumeration.NotificationEvent;
+
+/**
+ * Record that a recipient has been notified of an expiration event of an item
+ * (a beam destination or control verification) with a given expiration date.
+ * Unique by all four; a changed expiration date is a new notice.
+ *
+ * @author ryans
+ */
+@Entity
+@Table(name = "SENT_NOTIFICATION", schema = "BEAM_AUTH_OWNER")
+public class SentNotification implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    @Id
+    @SequenceGenerator(name = "SentNotificationId", sequenceName = "SENT_NOTIFICATION_ID", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SentNotificationId")
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "SENT_NOTIFICATION_ID", nullable = false, precision = 22, scale = 0)
+    private BigInteger sentNotificationId;
+    @Basic(optional = false)
+    @NotNull
+    @Size(min = 1, max = 64)
+    @Column(name = "RECIPIENT", nullable = false, length = 64)
+    private String recipient;
+    @Basic(optional = false)
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "EVENT_TYPE", nullable = false, length = 32)
+    private NotificationEvent eventType;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "ITEM_ID", nullable = false, precision = 22, scale = 0)
+    private BigInteger itemId;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "EXPIRATION_DATE", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date expirationDate;
+    @Basic(optional = false)
+    @NotNull
+    @Column(name = "SENT_DATE", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date sentDate;
+
+    public SentNotification() {
+    }
+
+    public BigInteger getSentNotificationId() {
+        return sentNotificationId;
+    }
+
+    public void setSentNotificationId(BigInteger sentNotificationId) {
+        this.sentNotificationId = sentNotificationId;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public NotificationEvent getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(NotificationEvent eventType) {
+        this.eventType = eventType;
+    }
+
+    public BigInteger getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(BigInteger itemId) {
+        this.itemId = itemId;
+    }
+
+    public Date getExpirationDate() {
+        return expirationDate;
+    }
+
+    public void setExpirationDate(Date expirationDate) {
+        this.expirationDate = expirationDate;
+    }
+
+    public Date getSentDate() {
+        return sentDate;
+    }
+
+    public void setSentDate(Date sentDate) {
+        this.sentDate = sentDate;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += (sentNotificationId != null ? sentNotificationId.hashCode() : 0);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof SentNotification)) {
+            return false;
+        }
+        SentNotification other = (SentNotification) object;
+        if ((this.sentNotificationId == null && other.sentNotificationId != null) || (this.sentNotificationId != null && !this.sentNotificationId.equals(other.sentNotificationId))) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "org.jlab.beamauth.persistence.entity.SentNotification[ sentNotificationId=" + sentNotificationId + " ]";
+    }
+}
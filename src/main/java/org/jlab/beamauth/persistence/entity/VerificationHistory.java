@@ -27,7 +27,7 @@ import javax.validation.constraints.NotNull;
 public class VerificationHistory implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @SequenceGenerator(name="VerificationHistoryId", sequenceName="VERIFICATION_HISTORY_ID", allocationSize=1)
+    @SequenceGenerator(name="VerificationHistoryId", sequenceName="VERIFICATION_HISTORY_ID", allocationSize=50)
     @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="VerificationHistoryId")         
     @Basic(optional = false)
     @NotNull
@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.List;
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -14,12 +15,16 @@ import javax.persistence.OrderBy;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  *
  * @author ryans
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "beamauth.workgroup")
 @Table(name="WORKGROUP")
 public class Workgroup implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -37,6 +42,7 @@ public class Workgroup implements Serializable {
         @JoinColumn(name = "WORKGROUP_ID", referencedColumnName = "WORKGROUP_ID", nullable = false)}, inverseJoinColumns = {
         @JoinColumn(name = "STAFF_ID", referencedColumnName = "STAFF_ID", nullable = false)})   
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "beamauth.workgroup.groupLeaderList")
     @OrderBy("lastname asc")
     private List<Staff> groupLeaderList;    
     
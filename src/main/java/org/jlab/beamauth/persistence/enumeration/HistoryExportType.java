@@ -0,0 +1,32 @@
+package org.jlab.beamauth.persistence.enumeration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The history tables that can be exported, with the column names of their
+ * export rows in order.
+ *
+ * @author ryans
+ */
+public enum HistoryExportType {
+    AUTHORIZATION("authorization_id", "authorization_date", "authorized_by", "modified_date",
+            "modified_by", "comments"),
+    DESTINATION_AUTHORIZATION("authorization_id", "modified_date", "beam_destination_id",
+            "beam_destination", "beam_mode", "lase_mode", "cw_limit", "expiration_date",
+            "comments"),
+    VERIFICATION_HISTORY("verification_history_id", "control_verification_id",
+            "credited_control", "beam_destination", "verification_id", "verification_date",
+            "verified_by", "expiration_date", "modified_date", "modified_by", "comments");
+
+    private final List<String> columnNameList;
+
+    private HistoryExportType(String... columnNames) {
+        this.columnNameList = Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    public List<String> getColumnNameList() {
+        return columnNameList;
+    }
+}
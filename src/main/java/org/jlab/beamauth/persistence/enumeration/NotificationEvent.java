@@ -0,0 +1,15 @@
+package org.jlab.beamauth.persistence.enumeration;
+
+/**
+ * The kinds of expiration notice that are remembered once sent so they are
+ * not repeated. Authorization events are about a beam destination, and
+ * verification events about a control verification.
+ *
+ * @author ryans
+ */
+public enum NotificationEvent {
+    AUTHORIZATION_EXPIRED,
+    AUTHORIZATION_EXPIRING,
+    VERIFICATION_EXPIRED,
+    VERIFICATION_EXPIRING
+}
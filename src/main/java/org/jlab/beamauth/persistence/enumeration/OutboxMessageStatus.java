@@ -0,0 +1,13 @@
+package org.jlab.beamauth.persistence.enumeration;
+
+/**
+ * Delivery status of an outbox message. A message is PENDING until it is
+ * delivered (SENT) or it has run out of retry attempts (FAILED).
+ *
+ * @author ryans
+ */
+public enum OutboxMessageStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
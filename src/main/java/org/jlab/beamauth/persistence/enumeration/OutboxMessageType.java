@@ -0,0 +1,13 @@
+package org.jlab.beamauth.persistence.enumeration;
+
+/**
+ * The kinds of outbound notification that are queued in the outbox.
+ *
+ * @author ryans
+ */
+public enum OutboxMessageType {
+    NEW_AUTHORIZATION_EMAIL,
+    NEW_AUTHORIZATION_ELOG,
+    VERIFICATION_DOWNGRADED_EMAIL,
+    VERIFICATION_DOWNGRADED_ELOG
+}
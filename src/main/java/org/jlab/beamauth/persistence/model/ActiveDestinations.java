@@ -0,0 +1,71 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+
+/**
+ * The active beam authorization destinations grouped by machine (in weight
+ * order) along with the current limit units of each, as needed by the
+ * permissions tables.
+ *
+ * @author ryans
+ */
+public final class ActiveDestinations {
+
+    private final List<BeamDestination> destinationList;
+    private final Map<String, List<BeamDestination>> machineMap;
+    private final Map<BigInteger, String> unitsMap;
+
+    public ActiveDestinations(List<BeamDestination> destinationList) {
+        Map<String, List<BeamDestination>> machines = new LinkedHashMap<>();
+        Map<BigInteger, String> units = new HashMap<>();
+
+        for (BeamDestination destination : destinationList) {
+            String machine = destination.getAuthDestination().getMachine();
+
+            machines.computeIfAbsent(machine, k -> new ArrayList<>()).add(destination);
+            units.put(destination.getBeamDestinationId(),
+                    destination.getAuthDestination().getCurrentLimitUnits());
+        }
+
+        for (Map.Entry<String, List<BeamDestination>> entry : machines.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        this.destinationList = Collections.unmodifiableList(new ArrayList<>(destinationList));
+        this.machineMap = Collections.unmodifiableMap(machines);
+        this.unitsMap = Collections.unmodifiableMap(units);
+    }
+
+    public List<BeamDestination> getDestinationList() {
+        return destinationList;
+    }
+
+    public List<BeamDestination> getDestinationList(String machine) {
+        List<BeamDestination> destinationList = machineMap.get(machine);
+
+        return destinationList == null ? Collections.emptyList() : destinationList;
+    }
+
+    public List<BeamDestination> getCebafDestinationList() {
+        return getDestinationList("CEBAF");
+    }
+
+    public List<BeamDestination> getLerfDestinationList() {
+        return getDestinationList("LERF");
+    }
+
+    public List<BeamDestination> getUitfDestinationList() {
+        return getDestinationList("UITF");
+    }
+
+    public Map<BigInteger, String> getUnitsMap() {
+        return unitsMap;
+    }
+}
@@ -0,0 +1,97 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.jlab.beamauth.persistence.entity.Authorization;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.persistence.entity.Staff;
+
+/**
+ * Immutable copy of an Authorization and its destination authorizations keyed
+ * by beam destination ID. Property names match the entity so views can render
+ * either one.
+ *
+ * @author ryans
+ */
+public final class AuthorizationSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BigInteger authorizationId;
+    private final long authorizationMillis;
+    private final long modifiedMillis;
+    private final Staff authorizedBy;
+    private final Staff modifiedBy;
+    private final String comments;
+    private final Map<BigInteger, DestinationAuthorizationSnapshot> destinationAuthorizationMap;
+
+    public AuthorizationSnapshot(Authorization authorization) {
+        this.authorizationId = authorization.getAuthorizationId();
+        this.authorizationMillis = authorization.getAuthorizationDate().getTime();
+        this.modifiedMillis = authorization.getModifiedDate().getTime();
+        this.authorizedBy = copy(authorization.getAuthorizedBy());
+        this.modifiedBy = copy(authorization.getModifiedBy());
+        this.comments = authorization.getComments();
+
+        Map<BigInteger, DestinationAuthorizationSnapshot> map = new HashMap<>();
+
+        if (authorization.getDestinationAuthorizationList() != null) {
+            for (DestinationAuthorization da : authorization.getDestinationAuthorizationList()) {
+                DestinationAuthorizationSnapshot snapshot = new DestinationAuthorizationSnapshot(da);
+                map.put(snapshot.getBeamDestinationId(), snapshot);
+            }
+        }
+
+        this.destinationAuthorizationMap = Collections.unmodifiableMap(map);
+    }
+
+    private static Staff copy(Staff staff) {
+        Staff other = null;
+
+        if (staff != null) {
+            other = new Staff(staff.getStaffId());
+            other.setUsername(staff.getUsername());
+            other.setFirstname(staff.getFirstname());
+            other.setLastname(staff.getLastname());
+        }
+
+        return other;
+    }
+
+    public BigInteger getAuthorizationId() {
+        return authorizationId;
+    }
+
+    public Date getAuthorizationDate() {
+        return new Date(authorizationMillis);
+    }
+
+    public Date getModifiedDate() {
+        return new Date(modifiedMillis);
+    }
+
+    public Staff getAuthorizedBy() {
+        return copy(authorizedBy);
+    }
+
+    public Staff getModifiedBy() {
+        return copy(modifiedBy);
+    }
+
+    public String getComments() {
+        return comments;
+    }
+
+    public Map<BigInteger, DestinationAuthorizationSnapshot> getDestinationAuthorizationMap() {
+        return destinationAuthorizationMap;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorizationSnapshot[ authorizationId=" + authorizationId + " ]";
+    }
+}
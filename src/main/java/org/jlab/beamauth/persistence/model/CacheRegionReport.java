@@ -0,0 +1,60 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.io.Serializable;
+
+/**
+ * Hit / miss counts of a single second-level cache region since startup (or
+ * since statistics were last cleared).
+ *
+ * @author ryans
+ */
+public final class CacheRegionReport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String regionName;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long elementCount;
+
+    public CacheRegionReport(String regionName, long hitCount, long missCount, long putCount,
+            long elementCount) {
+        this.regionName = regionName;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.elementCount = elementCount;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Returns the fraction of lookups served from the cache.
+     *
+     * @return The hit ratio between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+}
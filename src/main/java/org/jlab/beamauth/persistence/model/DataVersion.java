@@ -0,0 +1,41 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A token that changes whenever what the permissions page shows may have
+ * changed, along with the instant this server first saw it. Used as the
+ * validators (ETag and Last-Modified) for conditional GETs.
+ *
+ * @author ryans
+ */
+public final class DataVersion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String token;
+    private final long lastModifiedMillis;
+
+    public DataVersion(String token, long lastModifiedMillis) {
+        this.token = token;
+        this.lastModifiedMillis = lastModifiedMillis;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    public Date getLastModified() {
+        return new Date(lastModifiedMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "DataVersion[ token=" + token + " ]";
+    }
+}
@@ -0,0 +1,65 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+
+/**
+ * Immutable copy of a DestinationAuthorization. Property names match the
+ * entity so views can render either one.
+ *
+ * @author ryans
+ */
+public final class DestinationAuthorizationSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BigInteger beamDestinationId;
+    private final String beamMode;
+    private final String laseMode;
+    private final BigDecimal cwLimit;
+    private final String comments;
+    private final Long expirationMillis;
+
+    public DestinationAuthorizationSnapshot(DestinationAuthorization da) {
+        this.beamDestinationId = da.getDestinationAuthorizationPK().getBeamDestinationId();
+        this.beamMode = da.getBeamMode();
+        this.laseMode = da.getLaseMode();
+        this.cwLimit = da.getCwLimit();
+        this.comments = da.getComments();
+        this.expirationMillis = da.getExpirationDate() == null ? null
+                : da.getExpirationDate().getTime();
+    }
+
+    public BigInteger getBeamDestinationId() {
+        return beamDestinationId;
+    }
+
+    public String getBeamMode() {
+        return beamMode;
+    }
+
+    public String getLaseMode() {
+        return laseMode;
+    }
+
+    public BigDecimal getCwLimit() {
+        return cwLimit;
+    }
+
+    public String getComments() {
+        return comments;
+    }
+
+    public Date getExpirationDate() {
+        return expirationMillis == null ? null : new Date(expirationMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "DestinationAuthorizationSnapshot[ beamDestinationId=" + beamDestinationId
+                + ", beamMode=" + beamMode + " ]";
+    }
+}
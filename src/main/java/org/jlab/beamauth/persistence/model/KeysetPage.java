@@ -0,0 +1,46 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a history list fetched by seeking on the sort key rather than by
+ * offset. The cursors are opaque tokens to pass back as the "before" (previous
+ * page) or "after" (next page) parameter; a null cursor means there is no page
+ * in that direction.
+ *
+ * @author ryans
+ * @param <T> The row type
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> list;
+    private final String previousCursor;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> list, String previousCursor, String nextCursor) {
+        this.list = Collections.unmodifiableList(list);
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getList() {
+        return list;
+    }
+
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isPrevious() {
+        return previousCursor != null;
+    }
+
+    public boolean isNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,74 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.entity.CreditedControl;
+
+/**
+ * Credited control by beam destination grid. Each cell holds the verification
+ * ID of the control verification linking the two, or zero if the control does
+ * not participate in the destination.
+ *
+ * @author ryans
+ */
+public final class ParticipationMatrix {
+
+    private final List<CreditedControl> controlList;
+    private final List<BeamDestination> destinationList;
+    private final int[][] verificationIds;
+    private final Map<BigInteger, Integer> controlIndexMap = new HashMap<>();
+    private final Map<BigInteger, Integer> destinationIndexMap = new HashMap<>();
+
+    public ParticipationMatrix(List<CreditedControl> controlList,
+            List<BeamDestination> destinationList) {
+        this.controlList = Collections.unmodifiableList(controlList);
+        this.destinationList = Collections.unmodifiableList(destinationList);
+        this.verificationIds = new int[controlList.size()][destinationList.size()];
+
+        for (int i = 0; i < controlList.size(); i++) {
+            controlIndexMap.put(controlList.get(i).getCreditedControlId(), i);
+        }
+
+        for (int i = 0; i < destinationList.size(); i++) {
+            destinationIndexMap.put(destinationList.get(i).getBeamDestinationId(), i);
+        }
+    }
+
+    /**
+     * Records a control verification. Verifications of controls or
+     * destinations not in the matrix (inactive destinations) are ignored.
+     *
+     * @param creditedControlId The credited control ID
+     * @param beamDestinationId The beam destination ID
+     * @param verificationId The verification ID
+     */
+    public void put(BigInteger creditedControlId, BigInteger beamDestinationId,
+            int verificationId) {
+        Integer row = controlIndexMap.get(creditedControlId);
+        Integer column = destinationIndexMap.get(beamDestinationId);
+
+        if (row != null && column != null) {
+            verificationIds[row][column] = verificationId;
+        }
+    }
+
+    public List<CreditedControl> getControlList() {
+        return controlList;
+    }
+
+    public List<BeamDestination> getDestinationList() {
+        return destinationList;
+    }
+
+    public int getVerificationId(int row, int column) {
+        return verificationIds[row][column];
+    }
+
+    public boolean isParticipating(int row, int column) {
+        return verificationIds[row][column] != 0;
+    }
+}
@@ -0,0 +1,147 @@
+package org.jlab.beamauth.persistence.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Objects;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.view.BeamDestinationVerification;
+
+/**
+ * Immutable permissions of a single active beam destination: the director's
+ * authorization (beam mode, lase mode, CW limit, expiration) and the
+ * destination's verification status. A change is published whenever any of
+ * these differ from what was last published; the sequence orders changes on
+ * this server.
+ *
+ * @author ryans
+ */
+public final class PermissionsChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long sequence;
+    private final BigInteger beamDestinationId;
+    private final String name;
+    private final BigInteger authorizationId;
+    private final String beamMode;
+    private final String laseMode;
+    private final BigDecimal cwLimit;
+    private final Long expirationMillis;
+    private final Integer verificationId;
+    private final Long verificationExpirationMillis;
+
+    public PermissionsChange(BeamDestination destination, AuthorizationSnapshot authorization) {
+        this.sequence = 0;
+        this.beamDestinationId = destination.getBeamDestinationId();
+        this.name = destination.getName();
+
+        DestinationAuthorizationSnapshot da = authorization == null ? null
+                : authorization.getDestinationAuthorizationMap().get(beamDestinationId);
+
+        this.authorizationId = authorization == null ? null : authorization.getAuthorizationId();
+        this.beamMode = da == null ? null : da.getBeamMode();
+        this.laseMode = da == null ? null : da.getLaseMode();
+        this.cwLimit = da == null ? null : da.getCwLimit();
+        this.expirationMillis = da == null || da.getExpirationDate() == null ? null
+                : da.getExpirationDate().getTime();
+
+        BeamDestinationVerification verification = destination.getVerification();
+
+        this.verificationId = verification == null ? null : verification.getVerificationId();
+        this.verificationExpirationMillis = verification == null
+                || verification.getExpirationDate() == null ? null
+                : verification.getExpirationDate().getTime();
+    }
+
+    private PermissionsChange(PermissionsChange other, long sequence) {
+        this.sequence = sequence;
+        this.beamDestinationId = other.beamDestinationId;
+        this.name = other.name;
+        this.authorizationId = other.authorizationId;
+        this.beamMode = other.beamMode;
+        this.laseMode = other.laseMode;
+        this.cwLimit = other.cwLimit;
+        this.expirationMillis = other.expirationMillis;
+        this.verificationId = other.verificationId;
+        this.verificationExpirationMillis = other.verificationExpirationMillis;
+    }
+
+    /**
+     * Returns a copy of this change with the given sequence number.
+     *
+     * @param sequence The sequence number
+     * @return The numbered change
+     */
+    public PermissionsChange withSequence(long sequence) {
+        return new PermissionsChange(this, sequence);
+    }
+
+    /**
+     * Whether the permissions of the destination are the same as another
+     * change, ignoring the sequence and authorization ID (a new authorization
+     * that leaves a destination alone is not a change to that destination).
+     *
+     * @param other The other change, may be null
+     * @return true if the destination permissions are the same
+     */
+    public boolean isSamePermissions(PermissionsChange other) {
+        return other != null
+                && Objects.equals(beamDestinationId, other.beamDestinationId)
+                && Objects.equals(beamMode, other.beamMode)
+                && Objects.equals(laseMode, other.laseMode)
+                && (cwLimit == null ? other.cwLimit == null
+                : other.cwLimit != null && cwLimit.compareTo(other.cwLimit) == 0)
+                && Objects.equals(expirationMillis, other.expirationMillis)
+                && Objects.equals(verificationId, other.verificationId)
+                && Objects.equals(verificationExpirationMillis, other.verificationExpirationMillis);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public BigInteger getBeamDestinationId() {
+        return beamDestinationId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigInteger getAuthorizationId() {
+        return authorizationId;
+    }
+
+    public String getBeamMode() {
+        return beamMode;
+    }
+
+    public String getLaseMode() {
+        return laseMode;
+    }
+
+    public BigDecimal getCwLimit() {
+        return cwLimit;
+    }
+
+    public Date getExpirationDate() {
+        return expirationMillis == null ? null : new Date(expirationMillis);
+    }
+
+    public Integer getVerificationId() {
+        return verificationId;
+    }
+
+    public Date getVerificationExpirationDate() {
+        return verificationExpirationMillis == null ? null : new Date(
+                verificationExpirationMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionsChange[ sequence=" + sequence + ", beamDestinationId="
+                + beamDestinationId + " ]";
+    }
+}
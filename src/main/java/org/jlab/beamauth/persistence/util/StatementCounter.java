@@ -0,0 +1,98 @@
+package org.jlab.beamauth.persistence.util;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares, in total and for the current
+ * thread between {@link #begin()} and {@link #end()} (such as for one HTTP
+ * request), along with the time spent executing them (see StatementTimer).
+ * Registered with the property hibernate.session_factory.statement_inspector
+ * in persistence.xml; the SQL is returned unchanged.
+ *
+ * @author ryans
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final LongAdder TOTAL = new LongAdder();
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        TOTAL.increment();
+
+        Usage usage = CURRENT.get();
+
+        if (usage != null) {
+            usage.statements++;
+        }
+
+        return sql;
+    }
+
+    /**
+     * Starts counting the statements of the current thread.
+     */
+    public static void begin() {
+        CURRENT.set(new Usage());
+    }
+
+    /**
+     * Returns the statements of the current thread so far.
+     *
+     * @return The usage since begin, or null if not counting
+     */
+    public static Usage current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     *
+     * @return The usage since begin
+     */
+    public static Usage end() {
+        Usage usage = CURRENT.get();
+
+        CURRENT.remove();
+
+        return usage == null ? new Usage() : usage;
+    }
+
+    /**
+     * Returns the number of statements prepared since startup.
+     *
+     * @return The total
+     */
+    public static long getTotal() {
+        return TOTAL.sum();
+    }
+
+    static void addNanos(long nanos) {
+        Usage usage = CURRENT.get();
+
+        if (usage != null) {
+            usage.nanos += nanos;
+        }
+    }
+
+    /**
+     * The number of statements and the time spent executing them on one
+     * thread.
+     */
+    public static final class Usage {
+
+        private int statements;
+        private long nanos;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.jlab.beamauth.persistence.util;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time each JDBC statement (or batch) takes to execute to the
+ * current thread's StatementCounter usage. Hibernate creates one per session;
+ * registered with the property hibernate.session.events.auto in
+ * persistence.xml.
+ *
+ * @author ryans
+ */
+public class StatementTimer extends BaseSessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private long start;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        StatementCounter.addNanos(System.nanoTime() - start);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        StatementCounter.addNanos(System.nanoTime() - start);
+    }
+}
@@ -2,15 +2,16 @@ package org.jlab.beamauth.presentation.controller;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
-import java.util.List;
 import javax.ejb.EJB;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.jlab.beamauth.business.session.AuthorizationCache;
 import org.jlab.beamauth.business.session.AuthorizationFacade;
 import org.jlab.beamauth.persistence.entity.Authorization;
+import org.jlab.beamauth.persistence.model.KeysetPage;
 import org.jlab.smoothness.presentation.util.Paginator;
 import org.jlab.smoothness.presentation.util.ParamConverter;
 import org.jlab.smoothness.presentation.util.ParamUtil;
@@ -24,6 +25,8 @@ public class AuthorizationHistoryController extends HttpServlet {
 
     @EJB
     AuthorizationFacade historyFacade;
+    @EJB
+    AuthorizationCache authorizationCache;
     
     /**
      * Handles the HTTP
@@ -38,13 +41,19 @@ public class AuthorizationHistoryController extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
-        int offset = ParamUtil.convertAndValidateNonNegativeInt(request, "offset", 0);
+        int offset = ParamUtil.convertAndValidateNonNegativeInt(request, "offset", 0); // Only used to label rows
+        String after = request.getParameter("after");
+        String before = request.getParameter("before");
         int maxPerPage = 10;        
         
-        List<Authorization> historyList = historyFacade.findHistory(offset, maxPerPage);
-        Long totalRecords = historyFacade.countHistory();
+        KeysetPage<Authorization> page = historyFacade.findHistory(after, before, maxPerPage);
+        long totalRecords = authorizationCache.getHistoryCount();
+
+        if (!page.isPrevious()) {
+            offset = 0;
+        }
 
-        Paginator paginator = new Paginator(totalRecords.intValue(), offset, maxPerPage);
+        Paginator paginator = new Paginator((int) totalRecords, offset, maxPerPage);
         
         DecimalFormat formatter = new DecimalFormat("###,###");
         
@@ -61,7 +70,8 @@ public class AuthorizationHistoryController extends HttpServlet {
         }            
         
         request.setAttribute("selectionMessage", selectionMessage);
-        request.setAttribute("historyList", historyList);
+        request.setAttribute("historyList", page.getList());
+        request.setAttribute("page", page);
         request.setAttribute("paginator", paginator);
 
         request.getRequestDispatcher("/WEB-INF/views/permissions/authorization-history.jsp").forward(request, response);
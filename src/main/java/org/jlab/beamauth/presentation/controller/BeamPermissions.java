@@ -7,9 +7,11 @@ import java.math.BigInteger;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ejb.EJB;
@@ -23,13 +25,17 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.registry.infomodel.User;
 
+import org.jlab.beamauth.business.session.AuthorizationCache;
 import org.jlab.beamauth.business.session.AuthorizationFacade;
 import org.jlab.beamauth.business.session.BeamDestinationFacade;
-import org.jlab.beamauth.business.session.ControlVerificationFacade;
-import org.jlab.beamauth.persistence.entity.Authorization;
-import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.business.session.PermissionsVersion;
 import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
 import org.jlab.beamauth.persistence.entity.DestinationAuthorizationPK;
+import org.jlab.beamauth.persistence.model.ActiveDestinations;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.DataVersion;
+import org.jlab.beamauth.persistence.model.DestinationAuthorizationSnapshot;
+import org.jlab.beamauth.presentation.util.ConditionalGet;
 import org.jlab.smoothness.business.exception.UserFriendlyException;
 import org.jlab.smoothness.business.util.TimeUtil;
 import org.jlab.smoothness.presentation.util.ParamConverter;
@@ -46,9 +52,11 @@ public class BeamPermissions extends HttpServlet {
     @EJB
     AuthorizationFacade authorizationFacade;
     @EJB
+    AuthorizationCache authorizationCache;
+    @EJB
     BeamDestinationFacade beamDestinationFacade;
     @EJB
-    ControlVerificationFacade verificationFacade;
+    PermissionsVersion permissionsVersion;
 
     /**
      * Handles the HTTP <code>GET</code> method.
@@ -62,23 +70,34 @@ public class BeamPermissions extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
-        verificationFacade.performExpirationCheck(false);
+        // Obtained before loading what is rendered so the tag is never newer than the content
+        DataVersion version = permissionsVersion.getVersion();
+
+        boolean editable = request.isUserInRole("oability");
 
-        Authorization authorization = authorizationFacade.findCurrent();
+        String etag = "html-" + version.getToken() + "-" + (editable ? "e" : "r") + "-"
+                + Integer.toHexString(Objects.hashCode(request.getRemoteUser()));
+
+        if (ConditionalGet.isNotModified(request, response, etag,
+                version.getLastModifiedMillis())) {
+            return;
+        }
 
-        List<BeamDestination> cebafDestinationList = beamDestinationFacade.findCebafDestinations();
-        List<BeamDestination> lerfDestinationList = beamDestinationFacade.findLerfDestinations();
-        List<BeamDestination> uitfDestinationList = beamDestinationFacade.findUitfDestinations();
+        AuthorizationSnapshot authorization = authorizationCache.getSnapshot();
 
-        Map<BigInteger, DestinationAuthorization> destinationAuthorizationMap
-                = authorizationFacade.createDestinationAuthorizationMap(authorization);
+        ActiveDestinations destinations = beamDestinationFacade.findActiveDestinations();
 
-        request.setAttribute("unitsMap", authorizationFacade.getUnitsMap());
+        Map<BigInteger, DestinationAuthorizationSnapshot> destinationAuthorizationMap
+                = authorization == null ? Collections.emptyMap()
+                : authorization.getDestinationAuthorizationMap();
+
+        request.setAttribute("unitsMap", destinations.getUnitsMap());
         request.setAttribute("authorization", authorization);
-        request.setAttribute("cebafDestinationList", cebafDestinationList);
-        request.setAttribute("lerfDestinationList", lerfDestinationList);
-        request.setAttribute("uitfDestinationList", uitfDestinationList);
+        request.setAttribute("cebafDestinationList", destinations.getCebafDestinationList());
+        request.setAttribute("lerfDestinationList", destinations.getLerfDestinationList());
+        request.setAttribute("uitfDestinationList", destinations.getUitfDestinationList());
         request.setAttribute("destinationAuthorizationMap", destinationAuthorizationMap);
+        request.setAttribute("permissionsVersion", version); // Key of the cached tables
 
         request.getRequestDispatcher("WEB-INF/views/permissions.jsp").forward(request, response);
     }
@@ -97,7 +116,6 @@ public class BeamPermissions extends HttpServlet {
             throws ServletException, IOException {
 
         String errorReason = null;
-        Long logId = null;
 
         String comments = request.getParameter("comments");
         
@@ -117,7 +135,8 @@ public class BeamPermissions extends HttpServlet {
                 = convertDestinationAuthorizationList(request);
 
         try {
-            authorizationFacade.saveAuthorization(comments, destinationAuthorizationList);
+            authorizationFacade.saveAuthorization(comments, destinationAuthorizationList,
+                    sendNotifications);
         } catch (UserFriendlyException e) {
             errorReason = e.getMessage();
             LOGGER.log(Level.WARNING, "Unable to save authorization", e);
@@ -126,38 +145,13 @@ public class BeamPermissions extends HttpServlet {
             LOGGER.log(Level.SEVERE, errorReason, e);
         }
 
-        if (errorReason == null && sendNotifications) {
-            String proxyServerName = System.getenv("PROXY_HOSTNAME");
-
-            try {
-                authorizationFacade.sendOpsNewAuthorizationEmail(proxyServerName);
-            } catch(UserFriendlyException e) {
-                errorReason = "Authorization was saved, but we were unable to send to ops an email.  ";
-                LOGGER.log(Level.SEVERE, errorReason, e);
-            }
-
-            try {
-                String logbookServerName = System.getenv(
-                        "LOGBOOK_HOSTNAME");
-
-                logId = authorizationFacade.sendELog(proxyServerName, logbookServerName);
-            } catch (Exception e) {
-                errorReason = "Authorization was saved, but we were unable to send to eLog";
-                LOGGER.log(Level.SEVERE, errorReason, e);
-            }
-        }
-
         response.setContentType("application/json");
 
         PrintWriter pw = response.getWriter();
 
         JsonObjectBuilder builder = Json.createObjectBuilder();
 
-        if (errorReason == null) {
-            if(logId != null) {
-                builder.add("logId", logId);
-            }
-        } else {
+        if (errorReason != null) {
             builder.add("error", errorReason);
         }
 
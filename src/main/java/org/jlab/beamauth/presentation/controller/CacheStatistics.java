@@ -0,0 +1,103 @@
+package org.jlab.beamauth.presentation.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ejb.EJB;
+import javax.ejb.EJBAccessException;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jlab.beamauth.business.session.ReferenceDataCache;
+import org.jlab.beamauth.persistence.model.CacheRegionReport;
+
+/**
+ * Reports second-level cache hit ratio per region as JSON. A POST evicts all
+ * regions, which is needed after reference data is edited directly in the
+ * database.
+ *
+ * @author ryans
+ */
+@WebServlet(name = "CacheStatistics", urlPatterns = {"/cache-statistics"})
+public class CacheStatistics extends HttpServlet {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            CacheStatistics.class.getName());
+    @EJB
+    ReferenceDataCache referenceDataCache;
+
+    /**
+     * Handles the HTTP <code>GET</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        List<CacheRegionReport> reportList = referenceDataCache.getRegionReportList();
+
+        JsonArrayBuilder regions = Json.createArrayBuilder();
+
+        for (CacheRegionReport report : reportList) {
+            regions.add(Json.createObjectBuilder()
+                    .add("region", report.getRegionName())
+                    .add("hits", report.getHitCount())
+                    .add("misses", report.getMissCount())
+                    .add("puts", report.getPutCount())
+                    .add("elements", report.getElementCount())
+                    .add("hitRatio", report.getHitRatio()));
+        }
+
+        write(response, Json.createObjectBuilder().add("regions", regions));
+    }
+
+    /**
+     * Handles the HTTP <code>POST</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+
+        try {
+            referenceDataCache.evictAll();
+        } catch (EJBAccessException e) {
+            builder.add("error", "Not authorized");
+            LOGGER.log(Level.WARNING, "Not authorized to evict cache", e);
+        }
+
+        write(response, builder);
+    }
+
+    private void write(HttpServletResponse response, JsonObjectBuilder builder) throws
+            IOException {
+        response.setContentType("application/json");
+
+        PrintWriter pw = response.getWriter();
+
+        pw.print(builder.build().toString());
+
+        pw.flush();
+
+        boolean error = pw.checkError();
+
+        if (error) {
+            LOGGER.log(Level.SEVERE, "PrintWriter Error");
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package org.jlab.beamauth.presentation.controller;
 
 import java.io.IOException;
-import java.util.List;
 import javax.ejb.EJB;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import org.jlab.beamauth.business.session.BeamDestinationFacade;
 import org.jlab.beamauth.business.session.CreditedControlFacade;
-import org.jlab.beamauth.persistence.entity.BeamDestination;
-import org.jlab.beamauth.persistence.entity.CreditedControl;
+import org.jlab.beamauth.persistence.model.ParticipationMatrix;
 
 /**
  *
@@ -22,8 +19,6 @@ public class ControlParticipation extends HttpServlet {
 
     @EJB
     CreditedControlFacade ccFacade;
-    @EJB
-    BeamDestinationFacade destinationFacade;
     
     /**
      * Handles the HTTP
@@ -38,11 +33,11 @@ public class ControlParticipation extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
-        List<BeamDestination> destinationList = destinationFacade.findAllForBeamAuth();
-        List<CreditedControl> ccList = ccFacade.findAllWithVerificationList();
+        ParticipationMatrix matrix = ccFacade.findParticipationMatrix();
         
-        request.setAttribute("destinationList", destinationList);
-        request.setAttribute("ccList", ccList);
+        request.setAttribute("destinationList", matrix.getDestinationList());
+        request.setAttribute("ccList", matrix.getControlList());
+        request.setAttribute("matrix", matrix);
 
         request.getRequestDispatcher("WEB-INF/views/control-participation.jsp").forward(request, response);
     }
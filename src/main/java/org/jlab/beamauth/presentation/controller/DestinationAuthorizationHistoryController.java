@@ -0,0 +1,112 @@
+package org.jlab.beamauth.presentation.controller;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.util.Collections;
+import java.util.List;
+import javax.ejb.EJB;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jlab.beamauth.business.session.BeamDestinationFacade;
+import org.jlab.beamauth.business.session.DestinationAuthorizationChangeFacade;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.persistence.model.ActiveDestinations;
+import org.jlab.beamauth.persistence.model.KeysetPage;
+import org.jlab.smoothness.presentation.util.Paginator;
+import org.jlab.smoothness.presentation.util.ParamConverter;
+import org.jlab.smoothness.presentation.util.ParamUtil;
+
+/**
+ * The authorization history of a single beam destination: only the
+ * authorizations that changed its beam mode, lase mode, CW limit, expiration,
+ * or comments.
+ *
+ * @author ryans
+ */
+@WebServlet(name = "DestinationAuthorizationHistoryController", urlPatterns = {"/permissions/destination-authorization-history"})
+public class DestinationAuthorizationHistoryController extends HttpServlet {
+
+    @EJB
+    DestinationAuthorizationChangeFacade changeFacade;
+    @EJB
+    BeamDestinationFacade beamDestinationFacade;
+
+    /**
+     * Handles the HTTP
+     * <code>GET</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        BigInteger beamDestinationId = ParamConverter.convertBigInteger(request, "beamDestinationId");
+        int offset = ParamUtil.convertAndValidateNonNegativeInt(request, "offset", 0); // Only used to label rows
+        String after = request.getParameter("after");
+        String before = request.getParameter("before");
+        int maxPerPage = 10;
+
+        ActiveDestinations destinations = beamDestinationFacade.findActiveDestinations();
+
+        BeamDestination destination = null;
+
+        for (BeamDestination d : destinations.getDestinationList()) {
+            if (d.getBeamDestinationId().equals(beamDestinationId)) {
+                destination = d;
+                break;
+            }
+        }
+
+        List<DestinationAuthorization> historyList = Collections.emptyList();
+        KeysetPage<DestinationAuthorization> page = null;
+        Paginator paginator = null;
+        String selectionMessage = null;
+
+        if (destination != null) {
+            page = changeFacade.findHistory(beamDestinationId, after, before, maxPerPage);
+            long totalRecords = changeFacade.countHistory(beamDestinationId);
+
+            if (!page.isPrevious()) {
+                offset = 0;
+            }
+
+            paginator = new Paginator((int) totalRecords, offset, maxPerPage);
+
+            DecimalFormat formatter = new DecimalFormat("###,###");
+
+            selectionMessage = "All Changes";
+
+            if (paginator.getTotalRecords() < maxPerPage && offset == 0) {
+                selectionMessage = selectionMessage + " {" + formatter.format(
+                        paginator.getTotalRecords()) + "}";
+            } else {
+                selectionMessage = selectionMessage + " {"
+                        + formatter.format(paginator.getStartNumber())
+                        + " - " + formatter.format(paginator.getEndNumber())
+                        + " of " + formatter.format(paginator.getTotalRecords()) + "}";
+            }
+
+            historyList = page.getList();
+        }
+
+        request.setAttribute("destinationList", destinations.getDestinationList());
+        request.setAttribute("destination", destination);
+        request.setAttribute("units", destination == null ? null : destinations.getUnitsMap().get(
+                beamDestinationId));
+        request.setAttribute("selectionMessage", selectionMessage);
+        request.setAttribute("historyList", historyList);
+        request.setAttribute("page", page);
+        request.setAttribute("paginator", paginator);
+
+        request.getRequestDispatcher("/WEB-INF/views/permissions/destination-authorization-history.jsp").forward(request, response);
+    }
+}
@@ -2,8 +2,13 @@ package org.jlab.beamauth.presentation.controller;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.ejb.EJB;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -11,23 +16,35 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.jlab.beamauth.business.session.AuthorizationFacade;
+import org.jlab.beamauth.business.session.AuthorizationTimeline;
 import org.jlab.beamauth.business.session.BeamDestinationFacade;
+import org.jlab.beamauth.business.session.DestinationAuthorizationFacade;
 import org.jlab.beamauth.persistence.entity.Authorization;
 import org.jlab.beamauth.persistence.entity.BeamDestination;
 import org.jlab.beamauth.persistence.entity.DestinationAuthorization;
+import org.jlab.beamauth.persistence.model.ActiveDestinations;
 import org.jlab.smoothness.presentation.util.ParamConverter;
 
 /**
+ * Shows the destination authorizations of a historic authorization, chosen
+ * either by ID or as the one in effect at a given date and time (asOf).
  *
  * @author ryans
  */
 @WebServlet(name = "DestinationsAuthorizationHistoryController", urlPatterns = {"/permissions/destinations-authorization-history"})
 public class DestinationsAuthorizationHistoryController extends HttpServlet {
 
+    private static final Logger LOGGER = Logger.getLogger(
+            DestinationsAuthorizationHistoryController.class.getName());
+
     @EJB
     AuthorizationFacade authorizationFacade;
     @EJB
+    AuthorizationTimeline authorizationTimeline;
+    @EJB
     BeamDestinationFacade beamDestinationFacade;
+    @EJB
+    DestinationAuthorizationFacade destinationAuthorizationFacade;
     
     /**
      * Handles the HTTP
@@ -43,23 +60,58 @@ public class DestinationsAuthorizationHistoryController extends HttpServlet {
             throws ServletException, IOException {
         
         BigInteger authorizationId = ParamConverter.convertBigInteger(request, "authorizationId");
+
+        boolean lookupById = authorizationId != null;
+
+        Date asOf = null;
+        String message = null;
+
+        if (authorizationId == null) {
+            try {
+                asOf = ParamConverter.convertFriendlyDateTime(request, "asOf");
+            } catch (ParseException e) {
+                LOGGER.log(Level.FINE, "Unable to parse asOf date", e);
+                message = "Unable to parse date: " + request.getParameter("asOf");
+            }
+
+            if (asOf != null) {
+                authorizationId = authorizationTimeline.findAuthorizationIdAsOf(asOf.toInstant());
+
+                if (authorizationId == null) {
+                    message = "No Authorization was in effect at that time";
+                }
+            }
+        }
         
         Authorization authorization = null;
         
         if(authorizationId != null) {
             authorization = authorizationFacade.find(authorizationId);
         }
+
+        if (lookupById && authorization == null) {
+            message = "No Authorization found with ID: " + authorizationId;
+        }
         
-        List<BeamDestination> cebafDestinationList = beamDestinationFacade.findCebafDestinations();
-        List<BeamDestination> lerfDestinationList = beamDestinationFacade.findLerfDestinations();
+        ActiveDestinations destinations = beamDestinationFacade.findActiveDestinations();
+
+        List<BigInteger> beamDestinationIdList = new ArrayList<>();
+
+        for (BeamDestination destination : destinations.getDestinationList()) {
+            beamDestinationIdList.add(destination.getBeamDestinationId());
+        }
         
         Map<BigInteger, DestinationAuthorization> destinationAuthorizationMap
-                = authorizationFacade.createDestinationAuthorizationMap(authorization);
+                = destinationAuthorizationFacade.findByPrimaryKey(
+                        authorization == null ? null : authorization.getAuthorizationId(),
+                        beamDestinationIdList);
 
-        request.setAttribute("unitsMap", authorizationFacade.getUnitsMap());
+        request.setAttribute("unitsMap", destinations.getUnitsMap());
         request.setAttribute("authorization", authorization);
-        request.setAttribute("cebafDestinationList", cebafDestinationList);
-        request.setAttribute("lerfDestinationList", lerfDestinationList);
+        request.setAttribute("asOf", asOf);
+        request.setAttribute("message", message);
+        request.setAttribute("cebafDestinationList", destinations.getCebafDestinationList());
+        request.setAttribute("lerfDestinationList", destinations.getLerfDestinationList());
         request.setAttribute("destinationAuthorizationMap", destinationAuthorizationMap);
 
         request.getRequestDispatcher("/WEB-INF/views/permissions/destinations-authorization-history.jsp").forward(request, response);
@@ -0,0 +1,250 @@
+package org.jlab.beamauth.presentation.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import javax.ejb.EJB;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jlab.beamauth.business.session.HistoryExportFacade;
+import org.jlab.beamauth.persistence.enumeration.HistoryExportType;
+import org.jlab.smoothness.presentation.util.ParamConverter;
+
+/**
+ * Exports the full authorization, destination authorization, or verification
+ * history as CSV or NDJSON (one JSON object per line), e.g.
+ * /export/authorizations.csv or /export/verification-history.ndjson. Optional
+ * from (inclusive) and to (exclusive) parameters limit the export by modified
+ * date.
+ * <p>
+ * Rows are written to the response as they are read from the database, so
+ * the export starts immediately and memory use is constant regardless of the
+ * amount of history. The response is gzip-compressed when the client accepts
+ * it.
+ * </p>
+ *
+ * @author ryans
+ */
+@WebServlet(name = "HistoryExport", urlPatterns = {"/export/*"})
+public class HistoryExport extends HttpServlet {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            HistoryExport.class.getName());
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @EJB
+    HistoryExportFacade exportFacade;
+
+    /**
+     * Handles the HTTP <code>GET</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String path = request.getPathInfo();
+
+        String name = path == null ? "" : path.substring(1);
+        int dot = name.lastIndexOf('.');
+
+        HistoryExportType type = dot < 0 ? null : toType(name.substring(0, dot));
+        String format = dot < 0 ? "" : name.substring(dot + 1);
+
+        if (type == null || !("csv".equals(format) || "ndjson".equals(format))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Date from;
+        Date to;
+
+        try {
+            from = ParamConverter.convertFriendlyDateTime(request, "from");
+            to = ParamConverter.convertFriendlyDateTime(request, "to");
+        } catch (ParseException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unable to parse date");
+            return;
+        }
+
+        boolean csv = "csv".equals(format);
+
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + name + "\"");
+        response.setHeader("Cache-Control", "no-store");
+        response.setHeader("Vary", "Accept-Encoding");
+
+        OutputStream out = response.getOutputStream();
+
+        if (acceptsGzip(request)) {
+            response.setHeader("Content-Encoding", "gzip");
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+
+        List<String> columnNameList = type.getColumnNameList();
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out,
+                StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            HistoryExportFacade.RowHandler handler;
+
+            if (csv) {
+                writeCsvRow(writer, columnNameList.toArray());
+                handler = row -> writeCsvRow(writer, row);
+            } else {
+                // One provider lookup per export rather than per row
+                JsonGeneratorFactory factory = Json.createGeneratorFactory(null);
+
+                handler = row -> writeJsonRow(factory, writer, columnNameList, row);
+            }
+
+            exportFacade.export(type, from, to, handler);
+        } catch (IOException e) {
+            // Usually the client went away; the response is committed so nothing else to do
+            LOGGER.log(Level.FINE, "Export of " + name + " aborted", e);
+        } catch (RuntimeException e) {
+            if (response.isCommitted()) {
+                // Too late for an error page; the truncated download is the only signal
+                LOGGER.log(Level.SEVERE, "Export of " + name + " failed", e);
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    private static HistoryExportType toType(String name) {
+        switch (name) {
+            case "authorizations":
+                return HistoryExportType.AUTHORIZATION;
+            case "destination-authorizations":
+                return HistoryExportType.DESTINATION_AUTHORIZATION;
+            case "verification-history":
+                return HistoryExportType.VERIFICATION_HISTORY;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+
+            Object value = row[i];
+
+            if (value == null) {
+                continue;
+            }
+
+            String text = value instanceof Date ? toIsoString((Date) value) : value.toString();
+
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                    || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+
+        writer.write("\r\n");
+    }
+
+    private static void writeJsonRow(JsonGeneratorFactory factory, Writer writer,
+            List<String> columnNameList, Object[] row) throws IOException {
+        // The generator is closed below to flush it; NonClosingWriter keeps the response writer open
+        JsonGenerator gen = factory.createGenerator(new NonClosingWriter(writer));
+
+        gen.writeStartObject();
+
+        for (int i = 0; i < row.length; i++) {
+            String key = columnNameList.get(i);
+            Object value = row[i];
+
+            if (value == null) {
+                gen.writeNull(key);
+            } else if (value instanceof BigInteger) {
+                gen.write(key, (BigInteger) value);
+            } else if (value instanceof BigDecimal) {
+                gen.write(key, (BigDecimal) value);
+            } else if (value instanceof Date) {
+                gen.write(key, toIsoString((Date) value));
+            } else {
+                gen.write(key, value.toString());
+            }
+        }
+
+        gen.writeEnd();
+        gen.close();
+
+        writer.write('\n');
+    }
+
+    private static String toIsoString(Date date) {
+        // java.sql.Date does not support toInstant
+        return Instant.ofEpochMilli(date.getTime()).toString();
+    }
+
+    /**
+     * Lets a JsonGenerator be closed (which flushes its own buffer) per row
+     * without closing the underlying response writer.
+     */
+    private static final class NonClosingWriter extends Writer {
+
+        private final Writer writer;
+
+        private NonClosingWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            writer.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            writer.write(str, off, len);
+        }
+
+        @Override
+        public void flush() {
+            // The response writer is flushed as its buffer fills
+        }
+
+        @Override
+        public void close() {
+            // Left open for the next row
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.jlab.beamauth.presentation.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ejb.EJB;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jlab.beamauth.business.session.MetricsRegistry;
+
+/**
+ * Reports the application metrics (see MetricsRegistry) in the Prometheus
+ * text format.
+ *
+ * @author ryans
+ */
+@WebServlet(name = "Metrics", urlPatterns = {"/metrics"})
+public class Metrics extends HttpServlet {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            Metrics.class.getName());
+    @EJB
+    MetricsRegistry metrics;
+
+    /**
+     * Handles the HTTP <code>GET</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String text = metrics.getText();
+
+        response.setContentType("text/plain; version=0.0.4; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+
+        PrintWriter pw = response.getWriter();
+
+        pw.print(text);
+
+        pw.flush();
+
+        boolean error = pw.checkError();
+
+        if (error) {
+            LOGGER.log(Level.SEVERE, "PrintWriter Error");
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package org.jlab.beamauth.presentation.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jlab.beamauth.business.session.PermissionsChangeBroadcaster;
+import org.jlab.beamauth.persistence.model.PermissionsChange;
+
+/**
+ * Server-Sent Events stream of changes to the permissions of active beam
+ * destinations. Each change is sent as a "destination" event whose data is a
+ * JSON object with the destination's current beam mode, lase mode, CW limit,
+ * expiration, and verification status (same names as /permissions.json).
+ * Clients should load /permissions.json (or the page) whenever the stream
+ * (re)connects; missed events are not replayed.
+ * <p>
+ * Connections are held with async servlets and written with non-blocking I/O
+ * so an idle connection uses no container thread. Events are formatted once
+ * and queued to every connection; a client that falls too far behind is
+ * disconnected (and its EventSource reconnects).
+ * </p>
+ *
+ * @author ryans
+ */
+@WebServlet(name = "PermissionsEvents", urlPatterns = {"/permissions/events"},
+        asyncSupported = true)
+public class PermissionsEvents extends HttpServlet {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            PermissionsEvents.class.getName());
+
+    private static final int MAX_CONNECTIONS = 1000;
+    private static final int MAX_PENDING_MESSAGES = 100;
+    private static final long TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final byte[] PREAMBLE = "retry: 10000\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Consumer<List<PermissionsChange>> listener = this::publish;
+    private ScheduledFuture<?> heartbeat;
+
+    @EJB
+    PermissionsChangeBroadcaster broadcaster;
+    @Resource
+    ManagedScheduledExecutorService executor;
+
+    @Override
+    public void init() throws ServletException {
+        // Keeps proxies from closing idle streams and finds clients that went away
+        heartbeat = executor.scheduleAtFixedRate(() -> send(HEARTBEAT), HEARTBEAT_SECONDS,
+                HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+
+        broadcaster.removeListener(listener);
+
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Handles the HTTP <code>GET</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (connections.size() >= MAX_CONNECTIONS) {
+            response.setHeader("Retry-After", "60");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext context = request.startAsync();
+        context.setTimeout(TIMEOUT_MILLIS);
+
+        Connection connection = new Connection(context, response.getOutputStream());
+
+        context.addListener(connection);
+
+        connections.add(connection);
+
+        broadcaster.addListener(listener); // No-op if already registered
+
+        connection.getOutputStream().setWriteListener(connection);
+    }
+
+    private void publish(List<PermissionsChange> changeList) {
+        if (connections.isEmpty()) {
+            broadcaster.removeListener(listener); // Stop the broadcaster querying for nobody
+
+            if (connections.isEmpty()) {
+                return;
+            }
+
+            broadcaster.addListener(listener); // Someone connected meanwhile
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        for (PermissionsChange change : changeList) {
+            builder.append("id: ").append(change.getSequence()).append('\n');
+            builder.append("event: destination\n");
+            builder.append("data: ").append(toJson(change)).append("\n\n");
+        }
+
+        send(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void send(byte[] message) {
+        for (Connection connection : connections) {
+            connection.send(message);
+        }
+    }
+
+    private static String toJson(PermissionsChange change) {
+        JsonObjectBuilder builder = Json.createObjectBuilder()
+                .add("id", change.getBeamDestinationId());
+        addString(builder, "name", change.getName());
+
+        if (change.getAuthorizationId() == null) {
+            builder.addNull("authorizationId");
+        } else {
+            builder.add("authorizationId", change.getAuthorizationId());
+        }
+
+        addString(builder, "beamMode", change.getBeamMode());
+        addString(builder, "laseMode", change.getLaseMode());
+
+        if (change.getCwLimit() == null) {
+            builder.addNull("cwLimit");
+        } else {
+            builder.add("cwLimit", change.getCwLimit());
+        }
+
+        addDate(builder, "expirationDate", change.getExpirationDate());
+
+        if (change.getVerificationId() == null) {
+            builder.addNull("verificationId");
+        } else {
+            builder.add("verificationId", change.getVerificationId());
+        }
+
+        addDate(builder, "verificationExpirationDate", change.getVerificationExpirationDate());
+
+        return builder.build().toString();
+    }
+
+    private static void addString(JsonObjectBuilder builder, String name, String value) {
+        if (value == null) {
+            builder.addNull(name);
+        } else {
+            builder.add(name, value);
+        }
+    }
+
+    private static void addDate(JsonObjectBuilder builder, String name, Date value) {
+        if (value == null) {
+            builder.addNull(name);
+        } else {
+            builder.add(name, Instant.ofEpochMilli(value.getTime()).toString());
+        }
+    }
+
+    /**
+     * One client. Messages are queued and written only while the container
+     * reports the output stream ready; when it is not, the container calls
+     * onWritePossible once it is and the queue is drained then.
+     */
+    private final class Connection implements WriteListener, AsyncListener {
+
+        private final AsyncContext context;
+        private final ServletOutputStream out;
+        private final Queue<byte[]> pending = new ArrayDeque<>();
+        private boolean writable = false;
+        private boolean closed = false;
+
+        private Connection(AsyncContext context, ServletOutputStream out) {
+            this.context = context;
+            this.out = out;
+            pending.add(PREAMBLE);
+        }
+
+        private ServletOutputStream getOutputStream() {
+            return out;
+        }
+
+        private void send(byte[] message) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+
+                if (pending.size() >= MAX_PENDING_MESSAGES) {
+                    LOGGER.log(Level.FINE, "Disconnecting slow permissions event client");
+                    close();
+                    return;
+                }
+
+                pending.add(message);
+            }
+
+            drain();
+        }
+
+        private synchronized void drain() {
+            if (closed || !writable) {
+                return;
+            }
+
+            try {
+                boolean wrote = false;
+
+                while (out.isReady()) {
+                    byte[] message = pending.poll();
+
+                    if (message == null) {
+                        if (wrote) {
+                            out.flush();
+                        }
+                        return;
+                    }
+
+                    out.write(message);
+                    wrote = true;
+                }
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.log(Level.FINEST, "Unable to write permissions event", e);
+                close();
+            }
+        }
+
+        private synchronized void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            pending.clear();
+            connections.remove(this);
+
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            synchronized (this) {
+                writable = true;
+            }
+
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            LOGGER.log(Level.FINEST, "Permissions event stream error", t);
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+
+            connections.remove(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close(); // The client reconnects
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Not restarted
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.jlab.beamauth.presentation.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ejb.EJB;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jlab.beamauth.business.session.AuthorizationCache;
+import org.jlab.beamauth.business.session.BeamDestinationFacade;
+import org.jlab.beamauth.business.session.PermissionsVersion;
+import org.jlab.beamauth.persistence.entity.BeamDestination;
+import org.jlab.beamauth.persistence.entity.Staff;
+import org.jlab.beamauth.persistence.model.ActiveDestinations;
+import org.jlab.beamauth.persistence.model.AuthorizationSnapshot;
+import org.jlab.beamauth.persistence.model.DataVersion;
+import org.jlab.beamauth.persistence.model.DestinationAuthorizationSnapshot;
+import org.jlab.beamauth.persistence.view.BeamDestinationVerification;
+import org.jlab.beamauth.presentation.util.ConditionalGet;
+
+/**
+ * The current permissions (director's authorization and verification status of
+ * each active destination) as JSON for control room displays and other
+ * pollers. Supports conditional GET with the same data version as the
+ * permissions page so an unchanged poll is answered with 304 Not Modified.
+ * Dates are ISO-8601 instants.
+ *
+ * @author ryans
+ */
+@WebServlet(name = "PermissionsJson", urlPatterns = {"/permissions.json"})
+public class PermissionsJson extends HttpServlet {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            PermissionsJson.class.getName());
+    @EJB
+    AuthorizationCache authorizationCache;
+    @EJB
+    BeamDestinationFacade beamDestinationFacade;
+    @EJB
+    PermissionsVersion permissionsVersion;
+
+    /**
+     * Handles the HTTP <code>GET</code> method.
+     *
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        // Obtained before loading what is written so the tag is never newer than the content
+        DataVersion version = permissionsVersion.getVersion();
+
+        if (ConditionalGet.isNotModified(request, response, "json-" + version.getToken(),
+                version.getLastModifiedMillis())) {
+            return;
+        }
+
+        AuthorizationSnapshot authorization = authorizationCache.getSnapshot();
+
+        ActiveDestinations destinations = beamDestinationFacade.findActiveDestinations();
+
+        Map<BigInteger, DestinationAuthorizationSnapshot> destinationAuthorizationMap
+                = authorization == null ? Collections.emptyMap()
+                : authorization.getDestinationAuthorizationMap();
+
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+
+        builder.add("version", version.getToken());
+
+        if (authorization == null) {
+            builder.addNull("authorization");
+        } else {
+            JsonObjectBuilder authorizationBuilder = Json.createObjectBuilder()
+                    .add("id", authorization.getAuthorizationId());
+            addDate(authorizationBuilder, "authorizationDate", authorization.getAuthorizationDate());
+            addDate(authorizationBuilder, "modifiedDate", authorization.getModifiedDate());
+            addString(authorizationBuilder, "authorizedBy", username(
+                    authorization.getAuthorizedBy()));
+            addString(authorizationBuilder, "comments", authorization.getComments());
+            builder.add("authorization", authorizationBuilder);
+        }
+
+        JsonArrayBuilder destinationArray = Json.createArrayBuilder();
+
+        for (BeamDestination destination : destinations.getDestinationList()) {
+            JsonObjectBuilder destinationBuilder = Json.createObjectBuilder()
+                    .add("id", destination.getBeamDestinationId());
+            addString(destinationBuilder, "name", destination.getName());
+            addString(destinationBuilder, "machine", destination.getAuthDestination().getMachine());
+            addString(destinationBuilder, "units",
+                    destination.getAuthDestination().getCurrentLimitUnits());
+
+            DestinationAuthorizationSnapshot da = destinationAuthorizationMap.get(
+                    destination.getBeamDestinationId());
+
+            if (da == null) {
+                destinationBuilder.addNull("beamMode");
+                destinationBuilder.addNull("laseMode");
+                destinationBuilder.addNull("cwLimit");
+                destinationBuilder.addNull("expirationDate");
+                destinationBuilder.addNull("comments");
+            } else {
+                addString(destinationBuilder, "beamMode", da.getBeamMode());
+                addString(destinationBuilder, "laseMode", da.getLaseMode());
+                if (da.getCwLimit() == null) {
+                    destinationBuilder.addNull("cwLimit");
+                } else {
+                    destinationBuilder.add("cwLimit", da.getCwLimit());
+                }
+                addDate(destinationBuilder, "expirationDate", da.getExpirationDate());
+                addString(destinationBuilder, "comments", da.getComments());
+            }
+
+            BeamDestinationVerification verification = destination.getVerification();
+
+            if (verification == null || verification.getVerificationId() == null) {
+                destinationBuilder.addNull("verificationId");
+                destinationBuilder.addNull("verificationExpirationDate");
+            } else {
+                destinationBuilder.add("verificationId", verification.getVerificationId());
+                addDate(destinationBuilder, "verificationExpirationDate",
+                        verification.getExpirationDate());
+            }
+
+            destinationArray.add(destinationBuilder);
+        }
+
+        builder.add("destinations", destinationArray);
+
+        response.setContentType("application/json");
+
+        PrintWriter pw = response.getWriter();
+
+        pw.print(builder.build().toString());
+
+        pw.flush();
+
+        boolean error = pw.checkError();
+
+        if (error) {
+            LOGGER.log(Level.SEVERE, "PrintWriter Error");
+        }
+    }
+
+    private static String username(Staff staff) {
+        return staff == null ? null : staff.getUsername();
+    }
+
+    private static void addString(JsonObjectBuilder builder, String name, String value) {
+        if (value == null) {
+            builder.addNull(name);
+        } else {
+            builder.add(name, value);
+        }
+    }
+
+    private static void addDate(JsonObjectBuilder builder, String name, Date value) {
+        if (value == null) {
+            builder.addNull(name);
+        } else {
+            builder.add(name, Instant.ofEpochMilli(value.getTime()).toString());
+        }
+    }
+}
@@ -3,7 +3,6 @@ package org.jlab.beamauth.presentation.controller;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.text.DecimalFormat;
-import java.util.List;
 import javax.ejb.EJB;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -15,6 +14,7 @@ import org.jlab.beamauth.business.session.CreditedControlFacade;
 import org.jlab.beamauth.business.session.VerificationHistoryFacade;
 import org.jlab.beamauth.persistence.entity.ControlVerification;
 import org.jlab.beamauth.persistence.entity.VerificationHistory;
+import org.jlab.beamauth.persistence.model.KeysetPage;
 import org.jlab.smoothness.presentation.util.Paginator;
 import org.jlab.smoothness.presentation.util.ParamConverter;
 import org.jlab.smoothness.presentation.util.ParamUtil;
@@ -47,13 +47,19 @@ public class VerificationHistoryController extends HttpServlet {
             throws ServletException, IOException {
         
         BigInteger controlVerificationId = ParamConverter.convertBigInteger(request, "controlVerificationId");
-        int offset = ParamUtil.convertAndValidateNonNegativeInt(request, "offset", 0);
+        int offset = ParamUtil.convertAndValidateNonNegativeInt(request, "offset", 0); // Only used to label rows
+        String after = request.getParameter("after");
+        String before = request.getParameter("before");
         int maxPerPage = 10;        
         
         ControlVerification verification = verificationFacade.findWithCreditedControl(controlVerificationId);
         
-        List<VerificationHistory> historyList = historyFacade.findHistory(controlVerificationId, offset, maxPerPage);        
+        KeysetPage<VerificationHistory> page = historyFacade.findHistory(controlVerificationId, after, before, maxPerPage);        
         Long totalRecords = historyFacade.countHistory(controlVerificationId);
+
+        if (!page.isPrevious()) {
+            offset = 0;
+        }
         
         Paginator paginator = new Paginator(totalRecords.intValue(), offset, maxPerPage);
         
@@ -73,7 +79,8 @@ public class VerificationHistoryController extends HttpServlet {
         
         request.setAttribute("selectionMessage", selectionMessage);        
         request.setAttribute("verification", verification);
-        request.setAttribute("historyList", historyList);
+        request.setAttribute("historyList", page.getList());
+        request.setAttribute("page", page);
         request.setAttribute("paginator", paginator);
 
         request.getRequestDispatcher("/WEB-INF/views/credited-controls/verification-history.jsp").forward(request, response);
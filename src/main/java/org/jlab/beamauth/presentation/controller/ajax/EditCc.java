@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.math.BigInteger;
 import java.util.Date;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.ejb.EJB;
@@ -14,7 +13,6 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.jlab.beamauth.business.session.ControlVerificationFacade;
-import org.jlab.beamauth.persistence.entity.ControlVerification;
 import org.jlab.smoothness.business.exception.UserFriendlyException;
 import org.jlab.smoothness.presentation.util.ParamConverter;
 
@@ -44,8 +42,6 @@ public class EditCc extends HttpServlet {
             throws ServletException, IOException {
         String errorReason = null;
 
-        List<ControlVerification> downgradeList = null;
-
         try {
             BigInteger[] verificationIdArray = ParamConverter.convertBigIntegerArray(request, "verificationIdArray[]");
             Integer verificationId = ParamConverter.convertInteger(request, "verificationId");
@@ -54,7 +50,7 @@ public class EditCc extends HttpServlet {
             Date expirationDate = ParamConverter.convertFriendlyDateTime(request, "expirationDate");
             String comments = request.getParameter("comments");
 
-            downgradeList = verificationFacade.edit(verificationIdArray, verificationId, verificationDate, verifiedByUsername, expirationDate, comments);
+            verificationFacade.edit(verificationIdArray, verificationId, verificationDate, verifiedByUsername, expirationDate, comments);
         } catch(UserFriendlyException e) {
             errorReason = e.getMessage();
             logger.log(Level.FINE, "Unable to edit control verification", e);
@@ -63,32 +59,6 @@ public class EditCc extends HttpServlet {
             logger.log(Level.SEVERE, errorReason, e);
         }
 
-        Long logId = null;
-
-        if (errorReason == null && downgradeList != null && !downgradeList.isEmpty()) {
-            String proxyServerName = System.getenv("PROXY_HOSTNAME");
-            String body = verificationFacade.getVerificationDowngradedMessageBody(proxyServerName, downgradeList);
-
-            try {
-                String logbookServerName = System.getenv("LOGBOOK_HOSTNAME");
-                logId = verificationFacade.sendVerificationDowngradedELog(body, logbookServerName);
-            } catch (Exception e) {
-                errorReason = "Edit saved, but unable to create elog";
-                logger.log(Level.SEVERE, errorReason, e);
-            }
-
-            if (errorReason == null) {
-                try {
-                    verificationFacade.sendVerificationDowngradedEmail(body);
-                } catch (Exception e) {
-                    errorReason = "Edit saved and elog entry created, but unable to send email";
-                    logger.log(Level.SEVERE, errorReason, e);
-                }
-            }
-            
-            errorReason = null; // Telling user an email or elog wasn't sent is annoying
-        }
-
         response.setContentType("text/xml");
 
         PrintWriter pw = response.getWriter();
@@ -96,7 +66,7 @@ public class EditCc extends HttpServlet {
         String xml;
 
         if (errorReason == null) {
-            xml = "<response><span class=\"status\">Success</span><span class=\"logid\">" + (logId == null ? "" : logId) + "</span></response>";
+            xml = "<response><span class=\"status\">Success</span><span class=\"logid\"></span></response>";
         } else {
             xml = "<response><span class=\"status\">Error</span><span "
                     + "class=\"reason\">" + errorReason + "</span></response>";
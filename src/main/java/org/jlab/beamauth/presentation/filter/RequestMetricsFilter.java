@@ -0,0 +1,204 @@
+package org.jlab.beamauth.presentation.filter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ejb.EJB;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletMapping;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.MappingMatch;
+import org.jlab.beamauth.business.session.MetricsRegistry;
+import org.jlab.beamauth.business.util.Histogram;
+import org.jlab.beamauth.persistence.util.StatementCounter;
+
+/**
+ * Records the latency of each HTTP request, the number of SQL statements it
+ * made and the time spent executing them, labeled with the servlet URL pattern
+ * it was mapped to (static resources and unmapped URLs are labeled "other").
+ * Long-lived asynchronous requests (the permissions event stream) are not
+ * recorded.
+ * <p>
+ * Each request is logged (at FINE) as a key=value line and the figures are
+ * returned in a Server-Timing header. A response forwarded to a view is
+ * committed by the forward, so its header is set when the view is dispatched
+ * and covers the work done by the controller; the log line, metrics and budget
+ * always cover the whole request.
+ * </p>
+ * <p>
+ * Statement budgets per URL pattern can be set with the environment variable
+ * BA_STATEMENT_BUDGETS, for example "/permissions=3,/credited-controls=5". A
+ * request over budget is logged as a warning, or fails with an exception if
+ * the environment variable BA_STATEMENT_BUDGET_ENFORCE is true (for testing).
+ * </p>
+ *
+ * @author ryans
+ */
+@WebFilter(filterName = "RequestMetricsFilter", urlPatterns = {"/*"}, dispatcherTypes = {
+    DispatcherType.REQUEST, DispatcherType.FORWARD}, asyncSupported = true)
+public class RequestMetricsFilter implements Filter {
+
+    private static final Logger LOGGER = Logger.getLogger(
+            RequestMetricsFilter.class.getName());
+
+    private static final String START_ATTRIBUTE = RequestMetricsFilter.class.getName()
+            + ".start";
+
+    private static final Map<String, Integer> BUDGET_MAP = budgets(System.getenv(
+            "BA_STATEMENT_BUDGETS"));
+    private static final boolean ENFORCE = Boolean.parseBoolean(System.getenv(
+            "BA_STATEMENT_BUDGET_ENFORCE"));
+
+    @EJB
+    MetricsRegistry metrics;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        if (request.getDispatcherType() == DispatcherType.FORWARD) {
+            beforeView(httpRequest, httpResponse);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        String path = pathLabel(httpRequest.getHttpServletMapping());
+
+        request.setAttribute(START_ATTRIBUTE, start);
+
+        StatementCounter.begin();
+
+        StatementCounter.Usage usage;
+        long nanos;
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            usage = StatementCounter.end();
+            nanos = System.nanoTime() - start;
+
+            if (!request.isAsyncStarted()) {
+                metrics.time("beamauth_request_seconds", "path", path, nanos);
+                metrics.time("beamauth_request_db_seconds", "path", path, usage.getNanos());
+                metrics.observe("beamauth_request_sql_statements", "path", path,
+                        Histogram.COUNT_BUCKETS, usage.getStatements());
+            }
+        }
+
+        if (request.isAsyncStarted()) {
+            return;
+        }
+
+        if (!response.isCommitted()) {
+            httpResponse.setHeader("Server-Timing", serverTiming(usage, nanos));
+        }
+
+        LOGGER.log(Level.FINE, "path={0} method={1} status={2} millis={3} statements={4} dbMillis={5}",
+                new Object[]{path, httpRequest.getMethod(), String.valueOf(httpResponse
+                    .getStatus()), millis(nanos), String.valueOf(usage.getStatements()),
+                    millis(usage.getNanos())});
+
+        checkBudget(path, usage.getStatements(), httpRequest);
+    }
+
+    private void beforeView(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException {
+        StatementCounter.Usage usage = StatementCounter.current();
+        Object start = request.getAttribute(START_ATTRIBUTE);
+
+        if (usage == null || !(start instanceof Long)) {
+            return;
+        }
+
+        if (!response.isCommitted()) {
+            response.setHeader("Server-Timing", serverTiming(usage, System.nanoTime()
+                    - (Long) start));
+        }
+
+        if (ENFORCE) { // Fail before the view commits the response
+            Object mapping = request.getAttribute(RequestDispatcher.FORWARD_MAPPING);
+
+            if (mapping instanceof HttpServletMapping) {
+                checkBudget(pathLabel((HttpServletMapping) mapping), usage.getStatements(),
+                        request);
+            }
+        }
+    }
+
+    private void checkBudget(String path, int statements, HttpServletRequest request) throws
+            ServletException {
+        Integer budget = BUDGET_MAP.get(path);
+
+        if (budget == null || statements <= budget) {
+            return;
+        }
+
+        String message = "Statement budget exceeded: path=" + path + " statements="
+                + statements + " budget=" + budget + " uri=" + request.getRequestURI();
+
+        metrics.increment("beamauth_statement_budget_violations_total", "path", path);
+
+        if (ENFORCE) {
+            throw new ServletException(message);
+        }
+
+        LOGGER.log(Level.WARNING, message);
+    }
+
+    private static String serverTiming(StatementCounter.Usage usage, long nanos) {
+        return "db;desc=\"" + usage.getStatements() + " statements\";dur=" + millis(usage
+                .getNanos()) + ", total;dur=" + millis(nanos);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    private static String pathLabel(HttpServletMapping mapping) {
+        if (mapping == null || mapping.getMappingMatch() == null
+                || mapping.getMappingMatch() == MappingMatch.DEFAULT) {
+            return "other";
+        }
+
+        return mapping.getPattern();
+    }
+
+    private static Map<String, Integer> budgets(String csv) {
+        Map<String, Integer> budgetMap = new HashMap<>();
+
+        if (csv != null && !csv.isEmpty()) {
+            for (String entry : csv.split(",")) {
+                String[] pair = entry.split("=");
+
+                try {
+                    if (pair.length != 2) {
+                        throw new NumberFormatException();
+                    }
+
+                    budgetMap.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.WARNING,
+                            "Environment variable 'BA_STATEMENT_BUDGETS' has an invalid entry: {0}",
+                            entry);
+                }
+            }
+        }
+
+        return Collections.unmodifiableMap(budgetMap);
+    }
+}
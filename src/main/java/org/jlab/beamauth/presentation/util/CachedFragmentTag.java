@@ -0,0 +1,62 @@
+package org.jlab.beamauth.presentation.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import javax.ejb.EJB;
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.JspFragment;
+import javax.servlet.jsp.tagext.SimpleTagSupport;
+import org.jlab.beamauth.business.session.RenderedFragmentCache;
+
+/**
+ * Writes its body from the RenderedFragmentCache, rendering and storing it
+ * only when nothing is cached for the key at the given data version. The body
+ * must render the same for every viewer at a given version. Without a version
+ * the body is simply rendered (e.g. for history pages).
+ *
+ * @author ryans
+ */
+public class CachedFragmentTag extends SimpleTagSupport {
+
+    @EJB
+    RenderedFragmentCache fragmentCache;
+
+    private String key;
+    private String version;
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    @Override
+    public void doTag() throws JspException, IOException {
+        JspFragment body = getJspBody();
+
+        if (body == null) {
+            return;
+        }
+
+        if (version == null || version.isEmpty()) {
+            body.invoke(null);
+            return;
+        }
+
+        String fragment = fragmentCache.get(version, key);
+
+        if (fragment == null) {
+            StringWriter writer = new StringWriter();
+
+            body.invoke(writer);
+
+            fragment = writer.toString();
+
+            fragmentCache.put(version, key, fragment);
+        }
+
+        getJspContext().getOut().write(fragment);
+    }
+}
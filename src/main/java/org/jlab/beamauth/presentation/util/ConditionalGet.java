@@ -0,0 +1,81 @@
+package org.jlab.beamauth.presentation.util;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * HTTP conditional GET support: sets the ETag and Last-Modified validators
+ * and answers 304 Not Modified when the client already has the current
+ * representation. Responses must be revalidated on every use (no-cache) and
+ * are private since the permissions page varies by user.
+ *
+ * @author ryans
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+        // cannot instantiate publicly
+    }
+
+    /**
+     * Sets the validators and, if the request's If-None-Match (or, absent
+     * that, If-Modified-Since) matches, the 304 status.
+     *
+     * @param request The request
+     * @param response The response
+     * @param etag The entity tag (unquoted)
+     * @param lastModifiedMillis The last modified instant
+     * @return true if the response is 304 Not Modified and no body should be
+     * written
+     */
+    public static boolean isNotModified(HttpServletRequest request, HttpServletResponse response,
+            String etag, long lastModifiedMillis) {
+        String quoted = "\"" + etag + "\"";
+
+        response.setHeader("ETag", quoted);
+        response.setDateHeader("Last-Modified", lastModifiedMillis);
+        response.setHeader("Cache-Control", "private, no-cache");
+
+        boolean notModified;
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+
+        if (ifNoneMatch != null) {
+            notModified = matches(ifNoneMatch, quoted);
+        } else {
+            long ifModifiedSince;
+
+            try {
+                ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            } catch (IllegalArgumentException e) {
+                ifModifiedSince = -1;
+            }
+
+            // HTTP dates have one second resolution
+            notModified = ifModifiedSince != -1 && lastModifiedMillis / 1000 * 1000
+                    <= ifModifiedSince;
+        }
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+
+        return notModified;
+    }
+
+    private static boolean matches(String ifNoneMatch, String quoted) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2); // Weak comparison
+            }
+
+            if ("*".equals(candidate) || quoted.equals(candidate)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
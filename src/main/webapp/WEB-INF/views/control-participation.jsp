@@ -34,14 +34,14 @@
                     </tr>
                     </thead>
                     <tbody>
-                    <c:forEach items="${ccList}" var="cc">
+                    <c:forEach items="${ccList}" var="cc" varStatus="ccStatus">
                         <tr data-cc-id="${cc.creditedControlId}">
                             <th><a data-dialog-title="${fn:escapeXml(cc.name)} Information" class="dialog-ready"
                                    href="${pageContext.request.contextPath}/credited-controls?creditedControlId=${cc.creditedControlId}&amp;notEditable=1"><c:out
                                     value="${cc.name}"/></a></th>
-                            <c:forEach items="${destinationList}" var="destination">
+                            <c:forEach items="${destinationList}" var="destination" varStatus="destinationStatus">
                                 <td data-destination-id="${destination.beamDestinationId}">
-                                    <c:if test="${cc.hasBeamDestination(destination)}">
+                                    <c:if test="${matrix.isParticipating(ccStatus.index, destinationStatus.index)}">
                                         ✔
                                     </c:if>
                                 </td>
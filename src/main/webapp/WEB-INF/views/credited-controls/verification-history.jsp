@@ -9,6 +9,14 @@
     <jsp:attribute name="stylesheets">
     </jsp:attribute>
     <jsp:attribute name="scripts">
+        <script type="text/javascript">
+            $(document).on("click", "#next-button, #previous-button", function () {
+                $("#offset-input").val($(this).attr("data-offset"));
+                $("#after-input").val($(this).attr("data-after") || "");
+                $("#before-input").val($(this).attr("data-before") || "");
+                $("#filter-form").submit();
+            });
+        </script>
     </jsp:attribute>        
     <jsp:body>
         <div class="breadbox">
@@ -68,9 +76,11 @@
                         <form id="filter-form" action="${pageContext.request.contextPath}/credited-controls/verification-history" method="get">
                             <input type="hidden" name="controlVerificationId" value="${param.controlVerificationId}"/>
                             <input type="hidden" id="offset-input" name="offset" value="0"/>
+                            <input type="hidden" id="after-input" name="after" value=""/>
+                            <input type="hidden" id="before-input" name="before" value=""/>
                         </form>
-                        <button id="previous-button" type="button" data-offset="${paginator.previousOffset}" value="Previous"${paginator.previous ? '' : ' disabled="disabled"'}>Previous</button>                        
-                        <button id="next-button" type="button" data-offset="${paginator.nextOffset}" value="Next"${paginator.next ? '' : ' disabled="disabled"'}>Next</button>
+                        <button id="previous-button" type="button" data-offset="${paginator.previousOffset}" data-before="${fn:escapeXml(page.previousCursor)}" value="Previous"${page.previous ? '' : ' disabled="disabled"'}>Previous</button>                        
+                        <button id="next-button" type="button" data-offset="${paginator.nextOffset}" data-after="${fn:escapeXml(page.nextCursor)}" value="Next"${page.next ? '' : ' disabled="disabled"'}>Next</button>
                     </c:otherwise>
                 </c:choose>
             </div>
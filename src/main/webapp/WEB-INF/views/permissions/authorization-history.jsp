@@ -12,6 +12,8 @@
         <script type="text/javascript">
             $(document).on("click", "#next-button, #previous-button", function () {
                 $("#offset-input").val($(this).attr("data-offset"));
+                $("#after-input").val($(this).attr("data-after") || "");
+                $("#before-input").val($(this).attr("data-before") || "");
                 $("#filter-form").submit();
             });
         </script>
@@ -29,6 +31,14 @@
         </div>        
         <section>
             <div class="dialog-content">
+                <form id="as-of-form" action="destinations-authorization-history" method="get">
+                    <label for="as-of-input">Permissions as of</label>
+                    <input type="text" id="as-of-input" name="asOf" placeholder="${s:getFriendlyDateTimePlaceholder()}"/>
+                    <button type="submit">Go</button>
+                    <a href="destination-authorization-history">Changes by Destination</a>
+                    Export: <a href="${pageContext.request.contextPath}/export/authorizations.csv">Authorizations (CSV)</a>
+                    | <a href="${pageContext.request.contextPath}/export/destination-authorizations.csv">Destination Authorizations (CSV)</a>
+                </form>
                 <c:choose>
                     <c:when test="${fn:length(historyList) < 1}">
                         <div class="message-box">None</div>
@@ -61,9 +71,11 @@
                         </table>
                         <form id="filter-form" action="authorization-history" method="get">
                             <input type="hidden" id="offset-input" name="offset" value="0"/>
+                            <input type="hidden" id="after-input" name="after" value=""/>
+                            <input type="hidden" id="before-input" name="before" value=""/>
                         </form>
-                        <button id="previous-button" type="button" data-offset="${paginator.previousOffset}" value="Previous"${paginator.previous ? '' : ' disabled="disabled"'}>Previous</button>                        
-                        <button id="next-button" type="button" data-offset="${paginator.nextOffset}" value="Next"${paginator.next ? '' : ' disabled="disabled"'}>Next</button> 
+                        <button id="previous-button" type="button" data-offset="${paginator.previousOffset}" data-before="${fn:escapeXml(page.previousCursor)}" value="Previous"${page.previous ? '' : ' disabled="disabled"'}>Previous</button>                        
+                        <button id="next-button" type="button" data-offset="${paginator.nextOffset}" data-after="${fn:escapeXml(page.nextCursor)}" value="Next"${page.next ? '' : ' disabled="disabled"'}>Next</button> 
                     </c:otherwise>
                 </c:choose>
             </div>
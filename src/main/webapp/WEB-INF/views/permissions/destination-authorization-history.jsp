@@ -0,0 +1,99 @@
+<%@page contentType="text/html" pageEncoding="UTF-8"%>
+<%@taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<%@taglib prefix="fn" uri="http://java.sun.com/jsp/jstl/functions"%>
+<%@taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt"%>
+<%@taglib prefix="s" uri="http://jlab.org/jsp/smoothness" %>
+<%@taglib prefix="beamauth" uri="http://jlab.org/beamauth/functions"%>
+<%@taglib prefix="t" tagdir="/WEB-INF/tags"%> 
+<t:page title="Destination Authorization Changes"> 
+    <jsp:attribute name="stylesheets">
+    </jsp:attribute>
+    <jsp:attribute name="scripts">
+        <script type="text/javascript">
+            $(document).on("click", "#next-button, #previous-button", function () {
+                $("#offset-input").val($(this).attr("data-offset"));
+                $("#after-input").val($(this).attr("data-after") || "");
+                $("#before-input").val($(this).attr("data-before") || "");
+                $("#filter-form").submit();
+            });
+            $(document).on("change", "#destination-select", function () {
+                $("#destination-form").submit();
+            });
+        </script>
+    </jsp:attribute>        
+    <jsp:body>
+        <div class="breadbox">
+            <ul class="breadcrumb">
+                <li>
+                    <a href="${pageContext.request.contextPath}/permissions">Director's Authorization</a>
+                </li>
+                <li>
+                    <a href="${pageContext.request.contextPath}/permissions/authorization-history">Historic Authorizations</a>
+                </li>
+                <li>
+                    <span><c:out value="${destination eq null ? 'Destination' : destination.name}"/> Changes</span>
+                </li>
+            </ul>
+        </div>        
+        <section>
+            <div class="dialog-content">
+                <form id="destination-form" action="${pageContext.request.contextPath}/permissions/destination-authorization-history" method="get">
+                    <label for="destination-select">Beam Destination</label>
+                    <select id="destination-select" name="beamDestinationId">
+                        <option value="">&nbsp;</option>
+                        <c:forEach items="${destinationList}" var="d">
+                            <option value="${d.beamDestinationId}"${d.beamDestinationId eq destination.beamDestinationId ? ' selected="selected"' : ''}><c:out value="${d.name}"/></option>
+                        </c:forEach>
+                    </select>
+                </form>
+                <c:choose>
+                    <c:when test="${destination eq null}">
+                        <div class="message-box">Select a beam destination</div>
+                    </c:when>
+                    <c:when test="${fn:length(historyList) < 1}">
+                        <div class="message-box">None</div>
+                    </c:when>
+                    <c:otherwise>
+                        <div class="message-box"><c:out value="${selectionMessage}"/></div>
+                        <table id="destination-authorization-table" class="data-table stripped-table">
+                            <thead>
+                                <tr>
+                                    <th>Modified Date</th>
+                                    <th>Modified By</th>
+                                    <th>Beam Mode</th>
+                                    <th>Lase Mode</th>
+                                    <th>CW Limit</th>
+                                    <th>Expiration Date</th>
+                                    <th>Comments</th>
+                                    <th>Authorization</th>
+                                </tr>
+                            </thead>
+                            <tbody>
+                                <c:forEach items="${historyList}" var="history">
+                                    <tr>
+                                        <td><fmt:formatDate pattern="${s:getFriendlyDateTimePattern()}" value="${history.authorization.modifiedDate}"/></td>
+                                        <td><c:out value="${beamauth:formatStaff(history.authorization.modifiedBy)}"/></td>
+                                        <td><c:out value="${history.beamMode}"/></td>
+                                        <td><c:out value="${history.laseMode}"/></td>
+                                        <td><c:if test="${history.cwLimit ne null}"><c:out value="${history.cwLimit}"/> <c:out value="${units ne null ? units : 'uA'}"/></c:if></td>
+                                        <td><fmt:formatDate pattern="${s:getFriendlyDateTimePattern()}" value="${history.expirationDate}"/></td>
+                                        <td><c:out value="${history.comments}"/></td>
+                                        <td><a href="destinations-authorization-history?authorizationId=${history.authorization.authorizationId}">All Destinations</a></td>
+                                    </tr>
+                                </c:forEach>
+                            </tbody>
+                        </table>
+                        <form id="filter-form" action="${pageContext.request.contextPath}/permissions/destination-authorization-history" method="get">
+                            <input type="hidden" name="beamDestinationId" value="${destination.beamDestinationId}"/>
+                            <input type="hidden" id="offset-input" name="offset" value="0"/>
+                            <input type="hidden" id="after-input" name="after" value=""/>
+                            <input type="hidden" id="before-input" name="before" value=""/>
+                        </form>
+                        <button id="previous-button" type="button" data-offset="${paginator.previousOffset}" data-before="${fn:escapeXml(page.previousCursor)}" value="Previous"${page.previous ? '' : ' disabled="disabled"'}>Previous</button>                        
+                        <button id="next-button" type="button" data-offset="${paginator.nextOffset}" data-after="${fn:escapeXml(page.nextCursor)}" value="Next"${page.next ? '' : ' disabled="disabled"'}>Next</button>
+                    </c:otherwise>
+                </c:choose>
+            </div>
+        </section>          
+    </jsp:body>         
+</t:page>
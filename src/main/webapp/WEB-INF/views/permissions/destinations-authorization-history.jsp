@@ -21,7 +21,14 @@
                     <a href="${pageContext.request.contextPath}/permissions/authorization-history">Historic Authorizations</a>
                 </li>
                 <li>
-                    <span><fmt:formatDate value="${authorization.modifiedDate}" pattern="${s:getFriendlyDateTimePattern()}"/> History</span>
+                    <c:choose>
+                        <c:when test="${asOf ne null}">
+                            <span>As of <fmt:formatDate value="${asOf}" pattern="${s:getFriendlyDateTimePattern()}"/></span>
+                        </c:when>
+                        <c:otherwise>
+                            <span><fmt:formatDate value="${authorization.modifiedDate}" pattern="${s:getFriendlyDateTimePattern()}"/> History</span>
+                        </c:otherwise>
+                    </c:choose>
                 </li>
             </ul>
         </div>        
@@ -31,7 +38,7 @@
                     <t:permissions-page cebafDestinationList="${cebafDestinationList}" lerfDestinationList="${lerfDestinationList}" isEditable="${false}" isHistory="${true}"/>
                 </c:when>
                 <c:otherwise>
-                    <div class="message-box">No Authorization found with ID: ${param.authorizationId}</div>
+                    <div class="message-box"><c:out value="${message}"/></div>
                 </c:otherwise>
             </c:choose>
         </section>          
@@ -92,7 +92,31 @@ $(document).on("click", "#save-button", function () {
 $("#success-dialog").on("dialogclose", function () {
     document.location.reload(true);
 });
+jlab.listenForChanges = function () {
+    if (typeof (EventSource) === 'undefined') {
+        return;
+    }
+
+    var source = new EventSource(jlab.contextPath + "/permissions/events"),
+            timer = null;
+
+    /* Permissions changed elsewhere; show them unless the user is editing or saving */
+    source.addEventListener("destination", function () {
+        if (timer !== null) {
+            return;
+        }
+
+        timer = setTimeout(function () {
+            timer = null;
+            if (!jlab.isRequest() && !$(".editable-field").is(":visible")) {
+                document.location.reload();
+            }
+        }, 1000);
+    });
+};
 $(function () {
+    jlab.listenForChanges();
+
     /*Custom time picker*/
     var myControl = {
         create: function (tp_inst, obj, unit, val, min, max, step) {